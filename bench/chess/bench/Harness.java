@@ -0,0 +1,125 @@
+package chess.bench;
+
+/* Start of package imports */
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+/* End of package imports*/
+
+/* A small microbenchmark harness in the spirit of JMH, kept dependency free so it builds next to the game.
+* Each benchmark runs warmup iterations (to let the JIT compile the hot path) followed by timed measurement iterations.
+* Results are sunk into a volatile field so the JIT cannot remove the measured work as dead code.
+*
+* Besides time per operation, the harness reports what JMH's GC profiler reports:
+* - alloc.rate       MB allocated per second by the benchmark thread
+* - alloc.norm       bytes allocated per operation
+* - gc.count/gc.time collections and milliseconds spent in GC during measurement
+*/
+final class Harness {
+
+    // A benchmarked operation. The returned value is consumed by the harness.
+    interface Operation {
+        long run();
+    }
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final String filter;
+
+    // Written after every iteration so the results of the operations stay observable
+    private volatile long sink;
+
+    Harness(final int warmupIterations, final int measurementIterations, final long iterationMillis, final String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = filter;
+    }
+
+    static void printHeader() {
+        System.out.println(String.format("%-44s %12s %10s %14s %12s %10s %8s %8s",
+                "Benchmark", "ns/op", "error", "ops/s", "alloc.rate", "alloc.norm", "gc.count", "gc.time"));
+        System.out.println(String.format("%-44s %12s %10s %14s %12s %10s %8s %8s",
+                "", "", "", "", "MB/s", "B/op", "", "ms"));
+    }
+
+    // Runs one benchmark and prints its results, unless it is excluded by the filter.
+    void run(final String name, final Operation operation) {
+        if(this.filter != null && !name.contains(this.filter)) {
+            return;
+        }
+        for(int i = 0; i < this.warmupIterations; i++) {
+            iterate(operation);
+        }
+
+        final double[] nanosPerOperation = new double[this.measurementIterations];
+        long totalOperations = 0;
+        long totalNanos = 0;
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        final long gcCountBefore = gcCount();
+        final long gcTimeBefore = gcTime();
+
+        for(int i = 0; i < this.measurementIterations; i++) {
+            final long start = System.nanoTime();
+            final long operations = iterate(operation);
+            final long elapsed = System.nanoTime() - start;
+            nanosPerOperation[i] = (double) elapsed / operations;
+            totalOperations += operations;
+            totalNanos += elapsed;
+        }
+
+        final long allocated = THREAD_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        final double meanNanos = (double) totalNanos / totalOperations;
+        System.out.println(String.format("%-44s %12.1f %10.1f %,14.0f %12.1f %10.0f %8d %8d",
+                name, meanNanos, error(nanosPerOperation, meanNanos), totalOperations / (totalNanos / 1e9),
+                (allocated / 1048576.0) / (totalNanos / 1e9), (double) allocated / totalOperations,
+                gcCount() - gcCountBefore, gcTime() - gcTimeBefore));
+    }
+
+    // Repeats the operation until the iteration time is used up and returns how many times it ran.
+    private long iterate(final Operation operation) {
+        final long deadline = System.nanoTime() + this.iterationNanos;
+        long operations = 0;
+        long result = 0;
+        do {
+            result += operation.run();
+            operations++;
+        } while(System.nanoTime() < deadline);
+        this.sink = result;
+        return operations;
+    }
+
+    // The spread between measurement iterations, as two standard deviations of the mean
+    private static double error(final double[] samples, final double mean) {
+        if(samples.length < 2) {
+            return 0;
+        }
+        double squares = 0;
+        for(final double sample : samples) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        return 2 * Math.sqrt(squares / (samples.length - 1)) / Math.sqrt(samples.length);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for(final GarbageCollectorMXBean bean : GC_BEANS) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for(final GarbageCollectorMXBean bean : GC_BEANS) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+}
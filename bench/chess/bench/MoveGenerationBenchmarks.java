@@ -0,0 +1,108 @@
+package chess.bench;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.List;
+import chess.Type;
+import chess.board.Board;
+import chess.board.Board.BoardBuilder;
+import chess.board.Move;
+import chess.pieces.King;
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceType;
+import chess.pieces.Queen;
+import chess.perft.PerftPosition;
+/* End of package imports*/
+
+/* Benchmarks for the hot paths of move generation, execution and legality checks, each measured on its own:
+* - Piece.calculateLegalMoves for every kind of piece
+* - Move.execute and Player.makeMove
+* - Player.canEscape, through checkmated() on a mate and stalemated() on a stalemate. Players remember their legal moves,
+*   so every operation builds a fresh board first (the name says how) and includes that cost.
+* - MoveFactory.createMove
+*
+* This lives in its own source root (bench/) so it is not shipped with the game. Build and run it against the main sources:
+*   javac -cp lib/guava-33.0.0-jre.jar -d out $(find src bench -name '*.java')
+*   java -cp out:lib/guava-33.0.0-jre.jar chess.bench.MoveGenerationBenchmarks [-wi 5] [-i 5] [-t 1000] [filter]
+* where -wi/-i are the warmup/measurement iterations, -t the iteration time in milliseconds and filter a benchmark name substring.
+*/
+public final class MoveGenerationBenchmarks {
+
+    private MoveGenerationBenchmarks() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    public static void main(final String[] args) {
+        int warmupIterations = 5;
+        int measurementIterations = 5;
+        long iterationMillis = 1000;
+        String filter = null;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-wi": warmupIterations = Integer.parseInt(args[++i]); break;
+                case "-i": measurementIterations = Integer.parseInt(args[++i]); break;
+                case "-t": iterationMillis = Long.parseLong(args[++i]); break;
+                default: filter = args[i];
+            }
+        }
+        final Harness harness = new Harness(warmupIterations, measurementIterations, iterationMillis, filter);
+        Harness.printHeader();
+
+        // Kiwipete has every kind of piece in play with castles, pins and captures available
+        final Board board = PerftPosition.KIWIPETE.createBoard();
+        for(final PieceType pieceType : PieceType.values()) {
+            final List<Piece> pieces = findPieces(board, pieceType);
+            harness.run("Piece.calculateLegalMoves." + pieceType.name(), () -> {
+                long moves = 0;
+                for(final Piece piece : pieces) {
+                    moves += piece.calculateLegalMoves(board).size();
+                }
+                return moves;
+            });
+        }
+
+        final List<Move> moves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+        final int[] next = new int[1]; // Cycles through every legal move, one move per operation
+        harness.run("Move.execute", () -> moves.get(next[0]++ % moves.size()).execute().getWhitePieces().size());
+        harness.run("Player.makeMove", () -> board.currentPlayer().makeMove(moves.get(next[0]++ % moves.size())).getMoveStatus().ordinal());
+        harness.run("MoveFactory.createMove", () -> {
+            final Move move = moves.get(next[0]++ % moves.size());
+            return Move.MoveFactory.createMove(board, move.getCurrentPosition(), move.getDestinationPosition()).getDestinationPosition();
+        });
+
+        final Move mate = createFoolsMate();
+        harness.run("Player.canEscape.checkmated+execute", () -> mate.execute().currentPlayer().checkmated() ? 1 : 0);
+        final BoardBuilder stalemate = createStalemate();
+        harness.run("Player.canEscape.stalemated+build", () -> stalemate.build().currentPlayer().stalemated() ? 1 : 0);
+    }
+
+    private static List<Piece> findPieces(final Board board, final PieceType pieceType) {
+        final List<Piece> pieces = new ArrayList<>();
+        for(final Piece piece : board.currentPlayer().findActivePieces()) {
+            if(piece.getPieceType() == pieceType) {
+                pieces.add(piece);
+            }
+        }
+        return pieces;
+    }
+
+    // 1. f3 e5 2. g4 Qh4#, returns the mating move
+    private static Move createFoolsMate() {
+        Board board = Board.createStandardBoard();
+        for(final String[] move : new String[][] {{"f2", "f3"}, {"e7", "e5"}, {"g2", "g4"}}) {
+            final Move nextMove = Move.MoveFactory.createMove(board, Board.getPositionAtCode(move[0]), Board.getPositionAtCode(move[1]));
+            board = board.currentPlayer().makeMove(nextMove).getTransitioningBoard();
+        }
+        return Move.MoveFactory.createMove(board, Board.getPositionAtCode("d8"), Board.getPositionAtCode("h4"));
+    }
+
+    // Black king on a8 with no safe tile left, black to move
+    private static BoardBuilder createStalemate() {
+        final BoardBuilder builder = new BoardBuilder();
+        builder.setPiece(new King(Type.BLACK, Board.getPositionAtCode("a8"), false));
+        builder.setPiece(new Queen(Type.WHITE, Board.getPositionAtCode("b6")));
+        builder.setPiece(new King(Type.WHITE, Board.getPositionAtCode("c1"), false));
+        builder.setMoveMaker(Type.BLACK);
+        return builder;
+    }
+}
@@ -1,12 +1,26 @@
 package chess;
 
+import java.io.IOException;
+import java.util.Arrays;
 import chess.board.Board;
 import chess.gui.Game;
+import chess.uci.UciEngine;
 
 public class EL_Chess {
     
-    public static void main(String[] args) {
-        
+    // "EL_Chess uci" runs the engine headless over the UCI protocol, anything else opens the game window
+    public static void main(String[] args) throws IOException {
+
+        if(args.length > 0 && args[0].equals("uci")) {
+            UciEngine.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        startGame();
+    }
+
+    // Kept out of main so that UCI mode never loads the Swing classes
+    private static void startGame() {
+
         Board board = Board.createStandardBoard();
 
         System.out.println(board);
@@ -14,4 +28,4 @@ public class EL_Chess {
         Game game = new Game();
     }
 
-}
\ No newline at end of file
+}
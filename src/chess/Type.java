@@ -33,6 +33,11 @@ public enum Type {
         public boolean isPromotionTile(int position) {
             return (position >= 0 && position <= 7);
         }
+
+        @Override
+        public Type opposite() {
+            return BLACK;
+        }
     },
     BLACK {
         @Override
@@ -59,11 +64,17 @@ public enum Type {
         public boolean isPromotionTile(int position) {
             return (position >= 56 && position <= 63);
         }
+
+        @Override
+        public Type opposite() {
+            return WHITE;
+        }
     };
 
     public abstract int getDirection();
     public abstract boolean isWhite();
     public abstract boolean isBlack();
     public abstract boolean isPromotionTile(final int position);
+    public abstract Type opposite();
     public abstract Player chooseNextPlayer(BlackPlayer blackPlayer, WhitePlayer whitePlayer);
 }
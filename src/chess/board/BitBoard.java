@@ -0,0 +1,163 @@
+package chess.board;
+
+/* Start of package imports */
+import chess.Type;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The BitBoard helper class. A bitboard is a 64-bit long where bit i is set if tile i is occupied.
+* Tile coordinates match the rest of the board: 0 is a8, 7 is h8, 56 is a1 and 63 is h1.
+* This class only holds static helpers for shifting and scanning bitboards and for computing attacks from them.
+* Attacks are looked up in tables built once when the class loads: per tile for knights, kings and pawns, and through
+* magic bitboards (see MagicBitboards) for the sliding pieces.
+*/
+public final class BitBoard {
+
+    public static final long EMPTY = 0L;
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = 0x8080808080808080L;
+
+    // Number of bitboards held by a board: one per (colour, piece type) pair.
+    public static final int NUM_BITBOARDS = 12;
+
+    // Shift directions, named after the compass with north towards the eighth rank (i.e. towards tile 0).
+    public static final int NORTH = 0;
+    public static final int SOUTH = 1;
+    public static final int EAST = 2;
+    public static final int WEST = 3;
+    public static final int NORTH_EAST = 4;
+    public static final int NORTH_WEST = 5;
+    public static final int SOUTH_EAST = 6;
+    public static final int SOUTH_WEST = 7;
+
+    private static final int PIECE_TYPES = PieceType.values().length;
+
+    private static final long[] KNIGHT_ATTACKS = new long[Board.NUM_TILES];
+    private static final long[] KING_ATTACKS = new long[Board.NUM_TILES];
+    private static final long[] WHITE_PAWN_ATTACKS = new long[Board.NUM_TILES];
+    private static final long[] BLACK_PAWN_ATTACKS = new long[Board.NUM_TILES];
+
+    static {
+        for(int position = 0; position < Board.NUM_TILES; position++) {
+            final long piece = bit(position);
+            final long east = shift(piece, EAST);
+            final long west = shift(piece, WEST);
+            final long eastEast = shift(east, EAST);
+            final long westWest = shift(west, WEST);
+            KNIGHT_ATTACKS[position] = ((east | west) << 16) | ((east | west) >>> 16)
+                                     | ((eastEast | westWest) << 8) | ((eastEast | westWest) >>> 8);
+            final long row = piece | east | west;
+            KING_ATTACKS[position] = (row | (row << 8) | (row >>> 8)) & ~piece;
+            WHITE_PAWN_ATTACKS[position] = shift(piece, NORTH_EAST) | shift(piece, NORTH_WEST);
+            BLACK_PAWN_ATTACKS[position] = shift(piece, SOUTH_EAST) | shift(piece, SOUTH_WEST);
+        }
+    }
+
+    // BETWEEN[a][b] holds the tiles strictly between two tiles on the same rank, file or diagonal (empty otherwise)
+    private static final long[][] BETWEEN = createBetweenTable();
+
+    private BitBoard() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // Returns the index of the bitboard holding pieces of the given colour and kind (white pieces first).
+    public static int index(final Type type, final PieceType pieceType) {
+        return type.ordinal() * PIECE_TYPES + pieceType.ordinal();
+    }
+
+    // Returns a bitboard with only the given tile set
+    public static long bit(final int position) {
+        return 1L << position;
+    }
+
+    public static boolean isSet(final long bitboard, final int position) {
+        return (bitboard & (1L << position)) != 0;
+    }
+
+    // Returns the coordinate of the lowest set tile (64 if the bitboard is empty)
+    public static int lowestTile(final long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    // Removes the lowest set tile. Used together with lowestTile to iterate over every set tile.
+    public static long popLowest(final long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    public static int count(final long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    // Shifts every tile of the bitboard one step in the given direction, dropping the tiles that fall off the board.
+    // Masking with the A/H files stops tiles from wrapping around to the other edge of the board.
+    public static long shift(final long bitboard, final int direction) {
+        switch(direction) {
+            case NORTH: return bitboard >>> 8;
+            case SOUTH: return bitboard << 8;
+            case EAST: return (bitboard << 1) & ~FILE_A;
+            case WEST: return (bitboard >>> 1) & ~FILE_H;
+            case NORTH_EAST: return (bitboard >>> 7) & ~FILE_A;
+            case NORTH_WEST: return (bitboard >>> 9) & ~FILE_H;
+            case SOUTH_EAST: return (bitboard << 9) & ~FILE_A;
+            case SOUTH_WEST: return (bitboard << 7) & ~FILE_H;
+            default: throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+    }
+
+    // Tiles a pawn of the given type standing on position attacks (diagonally forward)
+    public static long pawnAttacks(final int position, final Type type) {
+        return type.isWhite() ? WHITE_PAWN_ATTACKS[position] : BLACK_PAWN_ATTACKS[position];
+    }
+
+    public static long knightAttacks(final int position) {
+        return KNIGHT_ATTACKS[position];
+    }
+
+    public static long kingAttacks(final int position) {
+        return KING_ATTACKS[position];
+    }
+
+    public static long rookAttacks(final int position, final long occupied) {
+        return MagicBitboards.rookAttacks(position, occupied);
+    }
+
+    public static long bishopAttacks(final int position, final long occupied) {
+        return MagicBitboards.bishopAttacks(position, occupied);
+    }
+
+    public static long queenAttacks(final int position, final long occupied) {
+        return rookAttacks(position, occupied) | bishopAttacks(position, occupied);
+    }
+
+    // The tiles strictly between two tiles on a shared line, or EMPTY if they do not share a rank, file or diagonal.
+    // A piece on one of these tiles blocks a slider on one tile from reaching the other.
+    public static long between(final int from, final int to) {
+        return BETWEEN[from][to];
+    }
+
+    // Returns a bitboard of all the pieces of the attacking type that attack the given tile, given the twelve piece bitboards.
+    // Works backwards from the tile: e.g. a knight on the tile would attack exactly the tiles the attacking knights stand on.
+    public static long attackersOf(final int position, final Type attackingType, final long[] bitboards, final long occupied) {
+        final long queens = bitboards[index(attackingType, PieceType.QUEEN)];
+        return (pawnAttacks(position, attackingType.opposite()) & bitboards[index(attackingType, PieceType.PAWN)])
+             | (knightAttacks(position) & bitboards[index(attackingType, PieceType.KNIGHT)])
+             | (kingAttacks(position) & bitboards[index(attackingType, PieceType.KING)])
+             | (bishopAttacks(position, occupied) & (bitboards[index(attackingType, PieceType.BISHOP)] | queens))
+             | (rookAttacks(position, occupied) & (bitboards[index(attackingType, PieceType.ROOK)] | queens));
+    }
+
+    private static long[][] createBetweenTable() {
+        final long[][] between = new long[Board.NUM_TILES][Board.NUM_TILES];
+        for(int from = 0; from < Board.NUM_TILES; from++) {
+            for(int direction = NORTH; direction <= SOUTH_WEST; direction++) {
+                // Walks the ray, each tile reached is separated from the start by the tiles walked so far
+                long walked = EMPTY;
+                for(long ray = shift(bit(from), direction); ray != EMPTY; ray = shift(ray, direction)) {
+                    between[from][lowestTile(ray)] = walked;
+                    walked |= ray;
+                }
+            }
+        }
+        return between;
+    }
+}
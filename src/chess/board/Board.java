@@ -10,13 +10,10 @@ import java.util.List;
 import java.util.Map;
 import com.google.common.collect.ImmutableList;
 import chess.Type;
-import chess.pieces.Bishop;
 import chess.pieces.King;
-import chess.pieces.Knight;
 import chess.pieces.Pawn;
 import chess.pieces.Piece;
-import chess.pieces.Queen;
-import chess.pieces.Rook;
+import chess.pieces.Piece.PieceType;
 import chess.players.BlackPlayer;
 import chess.players.Player;
 import chess.players.WhitePlayer;
@@ -25,7 +22,23 @@ import chess.players.WhitePlayer;
 public class Board {
 
     public static final int NUM_TILES = 64;
+
+    // Castling rights bits. A side keeps a right while its king and the rook on that side have not moved.
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    // Castling rights that survive a move touching a tile. Moving the king or a rook, or capturing a rook, clears its rights.
+    static final int[] CASTLING_MASK = createCastlingMask();
+
     private final List<Tile> gameBoard; // Use a list for immutability (an array cannot be made immutable)
+
+    // Bitboard representation of the same position, one bitboard per (colour, piece type) pair (see BitBoard.index).
+    // Tile lookups still go through gameBoard, while attack queries and piece scans work on these bits.
+    private final long[] pieceBitboards;
+    private final long whiteOccupancy;
+    private final long blackOccupancy;
     
     private final Collection<Piece> whitePieces;
     private final WhitePlayer whitePlayer;
@@ -33,20 +46,31 @@ public class Board {
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     private final Pawn enPassantPawn;
+    private final int castlingRights;
+    private final long zobristKey; // 64-bit position key (see Zobrist)
+    private final PositionHistory history; // The positions of the game so far, for the repetition and fifty-move rules
 
     public static final List<String> ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
     public static final Map<String, Integer> CODE_TO_POSITION = initializeCodeToPositionMap();
 
     private Board(final BoardBuilder builder) {
         this.gameBoard = createGameBoard(builder);
+        this.pieceBitboards = createBitboards(builder);
+        this.whiteOccupancy = findOccupancy(this.pieceBitboards, Type.WHITE);
+        this.blackOccupancy = findOccupancy(this.pieceBitboards, Type.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
-        this.whitePieces = findActivePieces(this.gameBoard, Type.WHITE);
-        this.blackPieces = findActivePieces(this.gameBoard, Type.BLACK);
-        final Collection<Move> allWhiteMoves = findAllLegalMoves(this.whitePieces);
-        final Collection<Move> allBlackMoves = findAllLegalMoves(this.blackPieces);
-        this.whitePlayer = new WhitePlayer(this, allWhiteMoves, allBlackMoves);
-        this.blackPlayer = new BlackPlayer(this, allBlackMoves, allWhiteMoves);
+        this.whitePieces = findActivePieces(this.whiteOccupancy);
+        this.blackPieces = findActivePieces(this.blackOccupancy);
+        // The players compute their legal moves, checks and castles lazily, so building a board only places the pieces.
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
         this.currentPlayer = builder.nextMoveMaker.chooseNextPlayer(this.blackPlayer,this.whitePlayer);
+        this.castlingRights = findCastlingRights(Type.WHITE, 60, 63, 56, WHITE_KING_SIDE, WHITE_QUEEN_SIDE)
+                            | findCastlingRights(Type.BLACK, 4, 7, 0, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
+        // Moves pass the key of the board they create, updated incrementally from the previous board's key
+        this.zobristKey = builder.zobristKey != null ? builder.zobristKey : Zobrist.computeKey(this);
+        assert this.zobristKey == Zobrist.computeKey(this) : "Incremental Zobrist key does not match the board";
+        this.history = createHistory(builder, this.zobristKey);
     }
 
     // Getter method for all the white pieces
@@ -75,6 +99,90 @@ public class Board {
         return this.enPassantPawn;
     }
 
+    // Castling rights derived from the first move flags of the kings and rooks (see the *_SIDE bits)
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    // The Zobrist key of the position: piece placement, side to move, castling rights and en passant file
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    // The positions played so far with the halfmove clock and move number. Two boards with equal positions can have
+    // different histories, which equals ignores.
+    public PositionHistory getHistory() {
+        return this.history;
+    }
+
+    // Whether the side to move can claim a draw by threefold repetition or the fifty-move rule. A move that mates
+    // ends the game even if it is the hundredth ply without a pawn move or capture.
+    public boolean isDraw() {
+        return this.history.isThreefoldRepetition() || this.history.isFiftyMoveDraw() && !this.currentPlayer.checkmated();
+    }
+
+    // Two boards are equal if they hold the same position: same pieces on the same tiles, side to move, castling rights
+    // and en passant file, counted only if a pawn can capture en passant (see Zobrist). The Zobrist key is compared first
+    // as it rules out almost every other position.
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof Board)) {
+            return false;
+        }
+        final Board otherBoard = (Board) o;
+        return this.zobristKey == otherBoard.zobristKey && Arrays.equals(this.pieceBitboards, otherBoard.pieceBitboards)
+            && this.currentPlayer.getType() == otherBoard.currentPlayer.getType() && this.castlingRights == otherBoard.castlingRights
+            && Zobrist.enPassantKey(this) == Zobrist.enPassantKey(otherBoard);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.zobristKey ^ (this.zobristKey >>> 32));
+    }
+
+    // Returns the bitboard of every piece of the given colour and kind
+    public long getPieceBitboard(final Type type, final PieceType pieceType) {
+        return this.pieceBitboards[BitBoard.index(type, pieceType)];
+    }
+
+    // The bitboards of all twelve kinds of pieces, indexed by BitBoard.index. Not copied, so it must not be modified.
+    long[] getPieceBitboards() {
+        return this.pieceBitboards;
+    }
+
+    // Returns the bitboard of every tile occupied by a piece of the given colour
+    public long getOccupancy(final Type type) {
+        return type.isWhite() ? this.whiteOccupancy : this.blackOccupancy;
+    }
+
+    // Returns the bitboard of every occupied tile
+    public long getOccupancy() {
+        return this.whiteOccupancy | this.blackOccupancy;
+    }
+
+    public boolean isTileOccupied(final int tileCoordinate) {
+        return BitBoard.isSet(getOccupancy(), tileCoordinate);
+    }
+
+    // Returns a bitboard of all the pieces of the attacking type that attack the given tile.
+    public long attackersOf(final int tileCoordinate, final Type attackingType) {
+        return BitBoard.attackersOf(tileCoordinate, attackingType, this.pieceBitboards, getOccupancy());
+    }
+
+    // Same as above with the sliders blocked by the given occupancy instead of the board's,
+    // e.g. without the king to find the tiles a checked king cannot step back onto
+    public long attackersOf(final int tileCoordinate, final Type attackingType, final long occupied) {
+        return BitBoard.attackersOf(tileCoordinate, attackingType, this.pieceBitboards, occupied);
+    }
+
+    // Checks if any piece of the attacking type attacks the given tile
+    public boolean isTileAttacked(final int tileCoordinate, final Type attackingType) {
+        return attackersOf(tileCoordinate, attackingType) != BitBoard.EMPTY;
+    }
+
     private static List<String> initializeAlgebraicNotation() {
         return Collections.unmodifiableList(Arrays.asList(
                 "a8", "b8", "c8", "d8", "e8", "f8", "g8", "h8",
@@ -106,35 +214,17 @@ public class Board {
     // Finds all the active pieces of a given type and returns a list of pieces still on the board.
     // This will be useful for calculating all the legal moves in the board's current state to check for illegal moves.
     // e.g. King cannot move to an attacked tile.
-    private Collection<Piece> findActivePieces(final List<Tile> gameBoard, final Type type) {
+    // Only the occupied tiles of the given colour are visited, by scanning the set bits of its occupancy bitboard.
+    private Collection<Piece> findActivePieces(final long occupancy) {
 
-        final List<Piece> activePieces = new ArrayList<>();
+        final List<Piece> activePieces = new ArrayList<>(BitBoard.count(occupancy));
 
-        for(final Tile tile : gameBoard) { // For each tile in the gameboard
-            if(tile.isTileOccupied()) { // For every occupied tile that matches the type, add it to the list
-                final Piece piece = tile.getPiece();
-                if(piece.getType() == type) {
-                    activePieces.add(piece);
-                }
-            }
+        for(long tiles = occupancy; tiles != BitBoard.EMPTY; tiles = BitBoard.popLowest(tiles)) {
+            activePieces.add(this.gameBoard.get(BitBoard.lowestTile(tiles)).getPiece());
         }
         return ImmutableList.copyOf(activePieces);
     }
 
-    // Finds all the legal moves using the collection of active pieces found in the findActivePieces function
-    private Collection<Move> findAllLegalMoves(final Collection<Piece> pieces) {
-
-        final List<Move> allMoves = new ArrayList<>();
-
-        for(Piece piece : pieces) { // For each piece in the collection of pieces.
-            allMoves.addAll(piece.calculateLegalMoves(this));
-        }
-
-        return ImmutableList.copyOf(allMoves);
-
-
-    }
-
     // Returns a Tile object at a specified coordinate
     public Tile getTile(final int tileCoordinate){
         return gameBoard.get(tileCoordinate);
@@ -145,52 +235,121 @@ public class Board {
         return coordinate >= 0 && coordinate < NUM_TILES;
     }
 
+    // A board made by a move extends the history of the board the move was made on; pawn moves and captures reset the
+    // halfmove clock. Any other board starts a history of its own, from the clocks the builder was given.
+    private static PositionHistory createHistory(final BoardBuilder builder, final long zobristKey) {
+        final Move transitionMove = builder.transitionMove;
+        if(transitionMove != null) {
+            final boolean irreversible = transitionMove.getMovedPiece().getPieceType() == PieceType.PAWN
+                                      || transitionMove.isAttack();
+            return transitionMove.getBoard().getHistory().push(zobristKey, irreversible);
+        }
+        if(builder.history != null) {
+            if(builder.history.getCurrentKey() != zobristKey) {
+                throw new IllegalArgumentException("The history does not end with the position being built");
+            }
+            return builder.history;
+        }
+        return PositionHistory.start(zobristKey, builder.halfmoveClock, builder.ply);
+    }
+
     // Reads mapped pieces off of the Map initialized by the builder class and transfers them into a List.
     private static List<Tile> createGameBoard(final BoardBuilder builder) {
         final Tile[] tiles = new Tile[NUM_TILES];
         for(int i = 0; i < NUM_TILES; i++) {
-            tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
+            tiles[i] = Tile.createTile(i, builder.boardConfig[i]);
         }
         return ImmutableList.copyOf(tiles);
     }
 
+    // A side can castle on a wing if its king and the rook in that corner are both on their starting tiles and have not moved.
+    private int findCastlingRights(final Type type, final int kingTile, final int kingSideRookTile, final int queenSideRookTile,
+                                   final int kingSide, final int queenSide) {
+        if(!isUnmovedPiece(type, PieceType.KING, kingTile)) {
+            return 0;
+        }
+        return (isUnmovedPiece(type, PieceType.ROOK, kingSideRookTile) ? kingSide : 0)
+             | (isUnmovedPiece(type, PieceType.ROOK, queenSideRookTile) ? queenSide : 0);
+    }
+
+    private boolean isUnmovedPiece(final Type type, final PieceType pieceType, final int tileCoordinate) {
+        return BitBoard.isSet(getPieceBitboard(type, pieceType), tileCoordinate) && getTile(tileCoordinate).getPiece().isFirstMove();
+    }
+
+    // The castling rights left after a move from one tile to another
+    static int updateCastlingRights(final int castlingRights, final int currentPosition, final int destination) {
+        return castlingRights & CASTLING_MASK[currentPosition] & CASTLING_MASK[destination];
+    }
+
+    private static int[] createCastlingMask() {
+        final int[] mask = new int[NUM_TILES];
+        Arrays.fill(mask, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        mask[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        mask[63] &= ~WHITE_KING_SIDE;
+        mask[56] &= ~WHITE_QUEEN_SIDE;
+        mask[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        mask[7] &= ~BLACK_KING_SIDE;
+        mask[0] &= ~BLACK_QUEEN_SIDE;
+        return mask;
+    }
+
+    // Builds the twelve piece bitboards from the pieces mapped by the builder.
+    private static long[] createBitboards(final BoardBuilder builder) {
+        final long[] bitboards = new long[BitBoard.NUM_BITBOARDS];
+        for(final Piece piece : builder.boardConfig) {
+            if(piece != null) {
+                bitboards[BitBoard.index(piece.getType(), piece.getPieceType())] |= BitBoard.bit(piece.getPosition());
+            }
+        }
+        return bitboards;
+    }
+
+    // Combines the six bitboards of a colour into one occupancy mask.
+    private static long findOccupancy(final long[] bitboards, final Type type) {
+        long occupancy = BitBoard.EMPTY;
+        for(final PieceType pieceType : PieceType.values()) {
+            occupancy |= bitboards[BitBoard.index(type, pieceType)];
+        }
+        return occupancy;
+    }
+
     public static Board createStandardBoard() {
         final BoardBuilder builder = new BoardBuilder();
         // Set all the black pieces in the default chess positions
-        builder.setPiece(new Rook(Type.BLACK, 0));
-        builder.setPiece(new Knight(Type.BLACK, 1));
-        builder.setPiece(new Bishop(Type.BLACK, 2));
-        builder.setPiece(new Queen(Type.BLACK, 3));
-        builder.setPiece(new King(Type.BLACK, 4));
-        builder.setPiece(new Bishop(Type.BLACK, 5));
-        builder.setPiece(new Knight(Type.BLACK, 6));
-        builder.setPiece(new Rook(Type.BLACK, 7));
-        builder.setPiece(new Pawn(Type.BLACK, 8));
-        builder.setPiece(new Pawn(Type.BLACK, 9));
-        builder.setPiece(new Pawn(Type.BLACK, 10));
-        builder.setPiece(new Pawn(Type.BLACK, 11));
-        builder.setPiece(new Pawn(Type.BLACK, 12));
-        builder.setPiece(new Pawn(Type.BLACK, 13));
-        builder.setPiece(new Pawn(Type.BLACK, 14));
-        builder.setPiece(new Pawn(Type.BLACK, 15));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.ROOK, 0, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.KNIGHT, 1, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.BISHOP, 2, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.QUEEN, 3, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.KING, 4, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.BISHOP, 5, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.KNIGHT, 6, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.ROOK, 7, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 8, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 9, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 10, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 11, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 12, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 13, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 14, true));
+        builder.setPiece(Piece.get(Type.BLACK, PieceType.PAWN, 15, true));
         
         // Set all the white pieces in the default chess positions (white side)
-        builder.setPiece(new Pawn(Type.WHITE, 48));
-        builder.setPiece(new Pawn(Type.WHITE, 49));
-        builder.setPiece(new Pawn(Type.WHITE, 50));
-        builder.setPiece(new Pawn(Type.WHITE, 51));
-        builder.setPiece(new Pawn(Type.WHITE, 52));
-        builder.setPiece(new Pawn(Type.WHITE, 53));
-        builder.setPiece(new Pawn(Type.WHITE, 54));
-        builder.setPiece(new Pawn(Type.WHITE, 55));
-        builder.setPiece(new Rook(Type.WHITE, 56));
-        builder.setPiece(new Knight(Type.WHITE, 57));
-        builder.setPiece(new Bishop(Type.WHITE, 58));
-        builder.setPiece(new Queen(Type.WHITE, 59));
-        builder.setPiece(new King(Type.WHITE, 60));
-        builder.setPiece(new Bishop(Type.WHITE, 61));
-        builder.setPiece(new Knight(Type.WHITE, 62));
-        builder.setPiece(new Rook(Type.WHITE, 63));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 48, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 49, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 50, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 51, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 52, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 53, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 54, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.PAWN, 55, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.ROOK, 56, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.KNIGHT, 57, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.BISHOP, 58, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.QUEEN, 59, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.KING, 60, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.BISHOP, 61, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.KNIGHT, 62, true));
+        builder.setPiece(Piece.get(Type.WHITE, PieceType.ROOK, 63, true));
 
         // White to move first
         builder.setMoveMaker(Type.WHITE);
@@ -215,18 +374,21 @@ public class Board {
     // The builder maps each piece to a corresponding tile coordinate on the chess board.
     public static class BoardBuilder {
 
-        Map<Integer, Piece> boardConfig; // Key - Specific Tile position, Value - Chess Piece on that Tile
+        final Piece[] boardConfig = new Piece[NUM_TILES]; // The piece on each tile, or null
         Type nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        Long zobristKey; // Set by moves that update the key incrementally, otherwise the board hashes itself
+        PositionHistory history; // Set when the board continues a known game without a transition move
+        int halfmoveClock;
+        int ply;
 
         public BoardBuilder() {
-            boardConfig = new HashMap<>();
         }
 
         // Function to set pieces on the game board
         public BoardBuilder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPosition(), piece);
+            this.boardConfig[piece.getPosition()] = piece;
             return this; // Return pointer to the current object being built.
         }
 
@@ -249,5 +411,22 @@ public class Board {
             this.transitionMove = transitionMove;
             return this;
         }
+
+        BoardBuilder setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+            return this;
+        }
+
+        BoardBuilder setHistory(final PositionHistory history) {
+            this.history = history;
+            return this;
+        }
+
+        // The halfmove clock and the plies played before the position, for a board that starts a new history
+        BoardBuilder setClocks(final int halfmoveClock, final int ply) {
+            this.halfmoveClock = halfmoveClock;
+            this.ply = ply;
+            return this;
+        }
     }
 }
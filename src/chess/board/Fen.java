@@ -0,0 +1,325 @@
+package chess.board;
+
+/* Start of package imports */
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import chess.Type;
+import chess.board.Board.BoardBuilder;
+import chess.pieces.King;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceType;
+import chess.pieces.Rook;
+/* End of package imports*/
+
+/* Forsyth-Edwards Notation: reads and writes a position as one line of text, e.g. the starting position
+*   rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
+* The fields are the pieces from a8 to h1 (rank by rank, digits count empty tiles), the side to move, the castling rights,
+* the en passant target tile, and the halfmove clock and fullmove number.
+*
+* Boards do not store castling rights directly: a right is kept by the king and rook not having moved yet. So a castling
+* right in the FEN marks its king and rook as unmoved (isFirstMove), and every other king and rook as moved. Pawns on their
+* starting rank are unmoved. The en passant tile becomes the board's en passant pawn, the pawn that just jumped over it.
+* The clocks are optional when reading (a missing halfmove clock is 0 and a missing fullmove number 1) and start the
+* board's PositionHistory. EPD lines (the first four fields followed by operations such as "bm e4;") are read as their
+* position. A position needs exactly one king per side, and the side that just moved cannot have left its king in check.
+*
+* The parser walks the line character by character without splitting it, so reading large files of positions creates
+* little garbage besides the boards themselves.
+*/
+public final class Fen {
+
+    public static final String STANDARD_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    public static Board parse(final CharSequence fen) {
+        final Piece[] pieces = new Piece[Board.NUM_TILES];
+        int index = skipSpaces(fen, 0);
+
+        // Piece placement. Kings and rooks are created once the castling rights are known.
+        int tile = 0;
+        int fileInRank = 0;
+        for(; index < fen.length() && !Character.isWhitespace(fen.charAt(index)); index++) {
+            final char c = fen.charAt(index);
+            if(c == '/') {
+                if(fileInRank != 8 || tile >= Board.NUM_TILES) {
+                    throw invalid(fen, "the board does not have 8 ranks of 8 tiles");
+                }
+                fileInRank = 0;
+                continue;
+            }
+            if(c >= '1' && c <= '8') {
+                tile += c - '0';
+                fileInRank += c - '0';
+            } else {
+                if(fileInRank >= 8) {
+                    throw invalid(fen, "a rank has more than 8 tiles");
+                }
+                pieces[tile] = createPiece(fen, c, tile);
+                tile++;
+                fileInRank++;
+            }
+            if(fileInRank > 8) {
+                throw invalid(fen, "a rank has more than 8 tiles");
+            }
+        }
+        if(tile != Board.NUM_TILES || fileInRank != 8) {
+            throw invalid(fen, "the board does not have 8 ranks of 8 tiles");
+        }
+        int whiteKings = 0;
+        int blackKings = 0;
+        for(final Piece piece : pieces) {
+            if(piece instanceof King) {
+                if(piece.getType().isWhite()) {
+                    whiteKings++;
+                } else {
+                    blackKings++;
+                }
+            }
+        }
+        if(whiteKings != 1 || blackKings != 1) {
+            throw invalid(fen, "each side needs exactly one king, not " + whiteKings + " white and " + blackKings + " black");
+        }
+
+        // Side to move
+        index = skipSpaces(fen, index);
+        if(index >= fen.length()) {
+            throw invalid(fen, "no side to move");
+        }
+        final Type sideToMove;
+        switch(fen.charAt(index)) {
+            case 'w':
+                sideToMove = Type.WHITE;
+                break;
+            case 'b':
+                sideToMove = Type.BLACK;
+                break;
+            default:
+                throw invalid(fen, "unknown side to move '" + fen.charAt(index) + "'");
+        }
+        index++;
+
+        // Castling rights (may be missing entirely in hand-written positions)
+        int castlingRights = 0;
+        index = skipSpaces(fen, index);
+        for(; index < fen.length() && !Character.isWhitespace(fen.charAt(index)); index++) {
+            final char c = fen.charAt(index);
+            switch(c) {
+                case 'K': castlingRights |= Board.WHITE_KING_SIDE; break;
+                case 'Q': castlingRights |= Board.WHITE_QUEEN_SIDE; break;
+                case 'k': castlingRights |= Board.BLACK_KING_SIDE; break;
+                case 'q': castlingRights |= Board.BLACK_QUEEN_SIDE; break;
+                case '-': break;
+                default: throw invalid(fen, "unknown castling right '" + c + "'");
+            }
+        }
+
+        // En passant target tile
+        int enPassantTile = -1;
+        index = skipSpaces(fen, index);
+        if(index < fen.length() && fen.charAt(index) != '-') {
+            if(index + 1 >= fen.length()) {
+                throw invalid(fen, "incomplete en passant tile");
+            }
+            enPassantTile = parseTile(fen, index);
+        }
+        while(index < fen.length() && !Character.isWhitespace(fen.charAt(index))) {
+            index++;
+        }
+
+        // Halfmove clock and fullmove number. Anything else after the en passant tile is EPD operations, which Board
+        // does not keep.
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        index = skipSpaces(fen, index);
+        if(index < fen.length() && isDigit(fen.charAt(index))) {
+            for(; index < fen.length() && isDigit(fen.charAt(index)); index++) {
+                halfmoveClock = readDigit(fen, halfmoveClock, fen.charAt(index));
+            }
+            index = skipSpaces(fen, index);
+            if(index < fen.length() && isDigit(fen.charAt(index))) {
+                fullmoveNumber = 0;
+                for(; index < fen.length() && isDigit(fen.charAt(index)); index++) {
+                    fullmoveNumber = readDigit(fen, fullmoveNumber, fen.charAt(index));
+                }
+                if(fullmoveNumber < 1) {
+                    throw invalid(fen, "the fullmove number starts at 1");
+                }
+            }
+        }
+
+        final BoardBuilder builder = new BoardBuilder();
+        for(int position = 0; position < Board.NUM_TILES; position++) {
+            if(pieces[position] != null) {
+                builder.setPiece(markCastlingPiece(pieces[position], castlingRights));
+            }
+        }
+        builder.setMoveMaker(sideToMove);
+        builder.setClocks(halfmoveClock, 2 * (fullmoveNumber - 1) + (sideToMove.isWhite() ? 0 : 1));
+        if(enPassantTile >= 0) {
+            // The pawn that jumped stands one tile further along its direction than the target tile
+            final Type jumpedType = sideToMove.opposite();
+            final int pawnTile = enPassantTile + 8 * jumpedType.getDirection();
+            final Piece pawn = Board.isValid(pawnTile) ? pieces[pawnTile] : null;
+            if(!(pawn instanceof Pawn) || pawn.getType() != jumpedType) {
+                throw invalid(fen, "no pawn can have jumped over the en passant tile " + Board.getCodeAtPosition(enPassantTile));
+            }
+            builder.setEnPassantPawn((Pawn) pawn);
+        }
+        final Board board = builder.build();
+        if(board.currentPlayer().getOpposingPlayer().isChecked()) {
+            throw invalid(fen, "the side not to move is in check");
+        }
+        return board;
+    }
+
+    // Reads every position of a file of FEN or EPD lines, one per line, and passes each board to the consumer.
+    // Blank lines and lines starting with '#' are skipped. Returns the number of positions read.
+    public static long parseAll(final Path file, final Consumer<Board> consumer) throws IOException {
+        long count = 0;
+        try(final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                final int start = skipSpaces(line, 0);
+                if(start == line.length() || line.charAt(start) == '#') {
+                    continue;
+                }
+                consumer.accept(parse(line));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static String toFen(final Board board) {
+        final StringBuilder fen = new StringBuilder(90);
+        int emptyTiles = 0;
+        for(int position = 0; position < Board.NUM_TILES; position++) {
+            final Tile tile = board.getTile(position);
+            if(tile.isTileOccupied()) {
+                if(emptyTiles > 0) {
+                    fen.append(emptyTiles);
+                    emptyTiles = 0;
+                }
+                fen.append(pieceCharacter(tile.getPiece()));
+            } else {
+                emptyTiles++;
+            }
+            if(position % 8 == 7) {
+                if(emptyTiles > 0) {
+                    fen.append(emptyTiles);
+                    emptyTiles = 0;
+                }
+                if(position != Board.NUM_TILES - 1) {
+                    fen.append('/');
+                }
+            }
+        }
+
+        fen.append(board.currentPlayer().getType().isWhite() ? " w " : " b ");
+
+        final int castlingRights = board.getCastlingRights();
+        if(castlingRights == 0) {
+            fen.append('-');
+        }
+        if((castlingRights & Board.WHITE_KING_SIDE) != 0) fen.append('K');
+        if((castlingRights & Board.WHITE_QUEEN_SIDE) != 0) fen.append('Q');
+        if((castlingRights & Board.BLACK_KING_SIDE) != 0) fen.append('k');
+        if((castlingRights & Board.BLACK_QUEEN_SIDE) != 0) fen.append('q');
+
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if(enPassantPawn == null) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append(Board.getCodeAtPosition(enPassantPawn.getPosition() - 8 * enPassantPawn.getType().getDirection()));
+        }
+        final PositionHistory history = board.getHistory();
+        return fen.append(' ').append(history.getHalfmoveClock()).append(' ').append(history.getFullmoveNumber()).toString();
+    }
+
+    private static Piece createPiece(final CharSequence fen, final char c, final int tile) {
+        final Type type = Character.isUpperCase(c) ? Type.WHITE : Type.BLACK;
+        switch(Character.toLowerCase(c)) {
+            case 'p':
+                if(tile < 8 || tile >= 56) {
+                    throw invalid(fen, "pawn on the first or last rank");
+                }
+                return Piece.get(type, PieceType.PAWN, tile, tile / 8 == (type.isWhite() ? 6 : 1));
+            case 'n':
+                return Piece.get(type, PieceType.KNIGHT, tile, false);
+            case 'b':
+                return Piece.get(type, PieceType.BISHOP, tile, false);
+            case 'r':
+                return Piece.get(type, PieceType.ROOK, tile, false);
+            case 'q':
+                return Piece.get(type, PieceType.QUEEN, tile, false);
+            case 'k':
+                return Piece.get(type, PieceType.KING, tile, false);
+            default:
+                throw invalid(fen, "unknown piece '" + c + "'");
+        }
+    }
+
+    // Kings and rooks that keep a castling right have not moved yet. A right whose king or rook is not on its starting
+    // tile cannot be kept, so it is ignored.
+    private static Piece markCastlingPiece(final Piece piece, final int castlingRights) {
+        final int position = piece.getPosition();
+        final boolean white = piece.getType().isWhite();
+        final int kingSide = white ? Board.WHITE_KING_SIDE : Board.BLACK_KING_SIDE;
+        final int queenSide = white ? Board.WHITE_QUEEN_SIDE : Board.BLACK_QUEEN_SIDE;
+        if(piece instanceof King) {
+            final boolean unmoved = position == (white ? 60 : 4) && (castlingRights & (kingSide | queenSide)) != 0;
+            return unmoved ? Piece.get(piece.getType(), PieceType.KING, position, true) : piece;
+        }
+        if(piece instanceof Rook) {
+            final boolean unmoved = (position == (white ? 63 : 7) && (castlingRights & kingSide) != 0)
+                                 || (position == (white ? 56 : 0) && (castlingRights & queenSide) != 0);
+            return unmoved ? Piece.get(piece.getType(), PieceType.ROOK, position, true) : piece;
+        }
+        return piece;
+    }
+
+    private static char pieceCharacter(final Piece piece) {
+        final char c = piece.getPieceType().toString().charAt(0);
+        return piece.getType().isWhite() ? c : Character.toLowerCase(c);
+    }
+
+    private static int parseTile(final CharSequence fen, final int index) {
+        final char file = fen.charAt(index);
+        final char rank = fen.charAt(index + 1);
+        if(file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw invalid(fen, "invalid tile " + file + rank);
+        }
+        return (8 - (rank - '0')) * 8 + (file - 'a');
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Appends a digit to a clock, which has to fit in an int
+    private static int readDigit(final CharSequence fen, final int clock, final char digit) {
+        if(clock > (Integer.MAX_VALUE - 9) / 10) {
+            throw invalid(fen, "a clock is too large");
+        }
+        return clock * 10 + (digit - '0');
+    }
+
+    private static int skipSpaces(final CharSequence fen, int index) {
+        while(index < fen.length() && Character.isWhitespace(fen.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static IllegalArgumentException invalid(final CharSequence fen, final String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
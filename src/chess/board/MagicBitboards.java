@@ -0,0 +1,208 @@
+package chess.board;
+
+/* Magic bitboards: sliding piece attacks as a single table lookup.
+* The attacks of a rook or bishop only depend on the pieces standing on its rays (not counting the last tile of each
+* ray, which is attacked whether it is occupied or not). For each tile the occupancy of those relevant tiles is multiplied
+* by a "magic" number that maps every possible occupancy to a distinct index in the top bits, and the attacks for every
+* occupancy are stored at that index:
+*   attacks = TABLE[OFFSET[tile] + ((occupied & MASK[tile]) * MAGIC[tile]) >>> SHIFT[tile]]
+*
+* The magics were found by trying sparse random numbers from a fixed seed until one gave no harmful collisions, which takes
+* far too long to do on every start up. Run this class's main to search for them again and print the arrays below.
+* The tables are filled when the class loads using the ray walking attacks below, which stay as the reference implementation.
+*/
+final class MagicBitboards {
+
+    private static final long SEED = 0x6A09E667F3BCC908L;
+
+    private static final int[] ORTHOGONAL_DIRECTIONS = {BitBoard.NORTH, BitBoard.SOUTH, BitBoard.EAST, BitBoard.WEST};
+    private static final int[] DIAGONAL_DIRECTIONS = {BitBoard.NORTH_EAST, BitBoard.NORTH_WEST, BitBoard.SOUTH_EAST, BitBoard.SOUTH_WEST};
+
+    // Indexed by tile (0 is a8, 63 is h1)
+    private static final long[] ROOK_MAGICS = {
+        0x0080081080204000L, 0x8080200040008011L, 0x0C800C8010002000L, 0x4100100004082100L,
+        0x0100100208000500L, 0x0200040188020010L, 0x4480210000800200L, 0x0100052200804900L,
+        0x8002800080400020L, 0x1000400020100040L, 0x8104801002802008L, 0x00A2004010200A01L,
+        0x0200800800040080L, 0x1422000411080200L, 0x8004001001084204L, 0x0102002401049042L,
+        0x0020248000400080L, 0x011008400040200CL, 0x0180820020401202L, 0x0100090010030020L,
+        0x0600828008002400L, 0x2003010008040002L, 0x2D00040008018210L, 0x2A00820000804421L,
+        0x4020410100208000L, 0x01C0004080200090L, 0x200C410100102002L, 0x0420080080100084L,
+        0x0020100500080100L, 0x0218040080800200L, 0x4500424400100881L, 0x46092542000B8401L,
+        0x13C0008045800820L, 0x0060004000802080L, 0x008100104100200AL, 0x0810001081802800L,
+        0x1C08000400800880L, 0x0422000402000810L, 0x2022008162000408L, 0x8800008402000041L,
+        0x8858C000A1818000L, 0x0040100428022000L, 0x0010008020008010L, 0x668101D000090020L,
+        0x8A04040008008080L, 0x2020040002008080L, 0x020E014210040048L, 0x0000008041020004L,
+        0x0440400020800080L, 0x0501401020008A80L, 0x1000A00010018180L, 0x0406021008204200L,
+        0x0800800400080080L, 0x0001201084400801L, 0x0011800200010080L, 0x04452102841D4200L,
+        0x0002081100402082L, 0x9000824001022013L, 0x022001002010400DL, 0x2120100020080501L,
+        0x841200182010042AL, 0x0002000810040102L, 0x0010208148021004L, 0x0409022651018402L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x0510201A34004810L, 0x2404010204011208L, 0x2090014200222230L, 0x9211040081082000L,
+        0x0082021008C0AA80L, 0x06C201C420400800L, 0x000C0C0442091002L, 0x1000808050100480L,
+        0x5980600E64384080L, 0x0040208232020228L, 0xC040104080850032L, 0x0000A8284100AE10L,
+        0x2000040420210200L, 0x2820090420252080L, 0x0050210D0520A120L, 0x0020004A00900802L,
+        0x0022044544140800L, 0x060432BA04086601L, 0x4020442418008010L, 0x0402021040124002L,
+        0x2932000420210002L, 0x0081020210020120L, 0x0480401084046080L, 0x0201024605014124L,
+        0x2082083010210810L, 0x8004844002280808L, 0x0454500021040280L, 0x8040040000410021L,
+        0x880100122500400AL, 0x000B47000E010100L, 0x400403800300B081L, 0x0041004003005800L,
+        0x0262200400101000L, 0x0014042084224A58L, 0x504C020110080040L, 0x0402008020020201L,
+        0x0010020081041004L, 0x0024100411208040L, 0x0030014442020204L, 0x2008428100802500L,
+        0xA0020842C0000800L, 0x3810421004101011L, 0x4800084410000208L, 0x010084E018008100L,
+        0x8382011020800400L, 0x2042600801080080L, 0x0050015200980400L, 0x0190840040840041L,
+        0x9004108808080049L, 0x8081088801080403L, 0x2002004044100814L, 0x0080000284043000L,
+        0x049C0C8590440812L, 0x0090200222A20400L, 0x0104100288011183L, 0x0020040092004280L,
+        0x0A00220210410800L, 0x2008004104012007L, 0x0500000211008800L, 0x00004190829C0400L,
+        0x0800380010C20204L, 0x042012944810B300L, 0x5000481001680100L, 0x04400A44C4088080L
+    };
+
+    private static final long[] ROOK_MASKS = new long[Board.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[Board.NUM_TILES];
+    private static final int[] ROOK_OFFSETS = new int[Board.NUM_TILES];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASKS = new long[Board.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[Board.NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[Board.NUM_TILES];
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        ROOK_TABLE = initialize(ORTHOGONAL_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_TABLE = initialize(DIAGONAL_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicBitboards() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    static long rookAttacks(final int position, final long occupied) {
+        return ROOK_TABLE[ROOK_OFFSETS[position]
+                          + (int) (((occupied & ROOK_MASKS[position]) * ROOK_MAGICS[position]) >>> ROOK_SHIFTS[position])];
+    }
+
+    static long bishopAttacks(final int position, final long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[position]
+                            + (int) (((occupied & BISHOP_MASKS[position]) * BISHOP_MAGICS[position]) >>> BISHOP_SHIFTS[position])];
+    }
+
+    // Walks each direction until it falls off the board or hits an occupied tile (the blocker itself is included).
+    static long slidingAttacks(final int position, final long occupied, final int[] directions) {
+        long attacks = BitBoard.EMPTY;
+        for(final int direction : directions) {
+            long ray = BitBoard.bit(position);
+            while(true) {
+                ray = BitBoard.shift(ray, direction);
+                if(ray == BitBoard.EMPTY) {
+                    break;
+                }
+                attacks |= ray;
+                if((ray & occupied) != BitBoard.EMPTY) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    // Computes the masks of one kind of slider and fills its attack table through the magics
+    private static long[] initialize(final int[] directions, final long[] masks, final long[] magics, final int[] shifts,
+                                     final int[] offsets) {
+        int tableSize = 0;
+        for(int position = 0; position < Board.NUM_TILES; position++) {
+            masks[position] = relevantOccupancy(position, directions);
+            shifts[position] = Long.SIZE - BitBoard.count(masks[position]);
+            offsets[position] = tableSize;
+            tableSize += 1 << BitBoard.count(masks[position]);
+        }
+        final long[] table = new long[tableSize];
+        for(int position = 0; position < Board.NUM_TILES; position++) {
+            long subset = BitBoard.EMPTY;
+            do { // Enumerates every subset of the mask (the carry-rippler trick)
+                final int index = offsets[position] + (int) ((subset * magics[position]) >>> shifts[position]);
+                final long attacks = slidingAttacks(position, subset, directions);
+                if(table[index] != BitBoard.EMPTY && table[index] != attacks) {
+                    throw new IllegalStateException("The magic of tile " + position + " maps two occupancies to one index");
+                }
+                table[index] = attacks;
+                subset = (subset - masks[position]) & masks[position];
+            } while(subset != BitBoard.EMPTY);
+        }
+        return table;
+    }
+
+    // The tiles whose occupancy changes the slider's attacks: its rays without the last tile of each
+    private static long relevantOccupancy(final int position, final int[] directions) {
+        long mask = BitBoard.EMPTY;
+        for(final int direction : directions) {
+            long ray = BitBoard.shift(BitBoard.bit(position), direction);
+            while(ray != BitBoard.EMPTY && BitBoard.shift(ray, direction) != BitBoard.EMPTY) {
+                mask |= ray;
+                ray = BitBoard.shift(ray, direction);
+            }
+        }
+        return mask;
+    }
+
+    // Searches for new magics and prints them as the ROOK_MAGICS and BISHOP_MAGICS arrays
+    public static void main(final String[] args) {
+        final long[] random = {SEED};
+        for(final int[] directions : new int[][] {ORTHOGONAL_DIRECTIONS, DIAGONAL_DIRECTIONS}) {
+            final StringBuilder output = new StringBuilder();
+            for(int position = 0; position < Board.NUM_TILES; position++) {
+                final long mask = relevantOccupancy(position, directions);
+                final long magic = findMagic(position, directions, mask, Long.SIZE - BitBoard.count(mask), random);
+                output.append(String.format("0x%016XL,", magic)).append(position % 4 == 3 ? "\n" : " ");
+            }
+            System.out.println(output);
+        }
+    }
+
+    // Tries random magics until every occupancy of the mask lands on an index holding its own attacks. Two occupancies
+    // may share an index (a constructive collision) as long as they give the same attacks.
+    private static long findMagic(final int position, final int[] directions, final long mask, final int shift, final long[] random) {
+        final int size = 1 << BitBoard.count(mask);
+        final long[] table = new long[size];
+        final long[] occupancies = new long[size];
+        final long[] attacks = new long[size];
+        int subsetCount = 0;
+        long subset = BitBoard.EMPTY;
+        do { // Enumerates every subset of the mask (the carry-rippler trick)
+            occupancies[subsetCount] = subset;
+            attacks[subsetCount] = slidingAttacks(position, subset, directions);
+            subsetCount++;
+            subset = (subset - mask) & mask;
+        } while(subset != BitBoard.EMPTY);
+
+        final int[] usedBy = new int[size]; // The attempt that last wrote each index, so the table is not cleared between attempts
+        for(int attempt = 1; ; attempt++) {
+            // Numbers with few set bits make good magics
+            final long magic = nextRandom(random) & nextRandom(random) & nextRandom(random);
+            if(BitBoard.count((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean found = true;
+            for(int i = 0; i < subsetCount && found; i++) {
+                final int index = (int) ((occupancies[i] * magic) >>> shift);
+                if(usedBy[index] != attempt) {
+                    usedBy[index] = attempt;
+                    table[index] = attacks[i];
+                } else if(table[index] != attacks[i]) {
+                    found = false;
+                }
+            }
+            if(found) {
+                return magic;
+            }
+        }
+    }
+
+    // SplitMix64, so the magics are the same on every run
+    private static long nextRandom(final long[] state) {
+        state[0] += 0x9E3779B97F4A7C15L;
+        long z = state[0];
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
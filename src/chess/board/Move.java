@@ -3,6 +3,7 @@ package chess.board;
 import chess.board.Board.BoardBuilder;
 import chess.pieces.Pawn;
 import chess.pieces.Piece;
+import chess.pieces.Piece.PieceType;
 import chess.pieces.Rook;
 
 
@@ -98,10 +99,29 @@ public abstract class Move {
 
         boardBuilder.setPiece(this.movedPiece.movePiece(this)); // Setting the moved piece in the new location
         boardBuilder.setMoveMaker(board.currentPlayer().getOpposingPlayer().getType()); // set the next move maker
+        boardBuilder.setMoveTransition(this);
+        boardBuilder.setZobristKey(nextZobristKey(null));
 
         return boardBuilder.build();
     }
 
+    // The Zobrist key of the board this move leads to, updated from the key of the board it is made on instead of hashing
+    // the new board from scratch: XOR out the moved piece and any captured piece, XOR in the moved piece on its
+    // destination, and swap the side to move, en passant and castling keys.
+    long nextZobristKey(final Pawn nextEnPassantPawn) {
+        final int castlingRights = this.board.getCastlingRights();
+        long key = this.board.getZobristKey() ^ Zobrist.sideKey()
+                 ^ Zobrist.enPassantKey(this.board) ^ Zobrist.enPassantKey(nextEnPassantPawn, this.board.getPieceBitboards())
+                 ^ Zobrist.castlingKey(castlingRights)
+                 ^ Zobrist.castlingKey(Board.updateCastlingRights(castlingRights, getCurrentPosition(), this.destination))
+                 ^ Zobrist.pieceKey(this.movedPiece, getCurrentPosition()) ^ Zobrist.pieceKey(this.movedPiece, this.destination);
+        final Piece attackedPiece = getAttackedPiece();
+        if(attackedPiece != null) {
+            key ^= Zobrist.pieceKey(attackedPiece, attackedPiece.getPosition());
+        }
+        return key;
+    }
+
     // A non-attacking move to an empty tile.
     public static final class BaseMove extends Move {
         
@@ -211,6 +231,8 @@ public abstract class Move {
             }
             boardBuilder.setPiece(this.movedPiece.movePiece(this));
             boardBuilder.setMoveMaker(this.board.currentPlayer().getOpposingPlayer().getType());
+            boardBuilder.setMoveTransition(this);
+            boardBuilder.setZobristKey(nextZobristKey(null));
             return boardBuilder.build();
         }
     }
@@ -257,6 +279,8 @@ public abstract class Move {
             boardBuilder.setPiece(movedPawn);
             boardBuilder.setEnPassantPawn(movedPawn);
             boardBuilder.setMoveMaker(this.board.currentPlayer().getOpposingPlayer().getType());
+            boardBuilder.setMoveTransition(this);
+            boardBuilder.setZobristKey(nextZobristKey(movedPawn));
             return boardBuilder.build();
         }
 
@@ -275,11 +299,22 @@ public abstract class Move {
         
         final Move promotingMove;
         final Pawn promotingPawn;
+        final PieceType promotionType;
 
+        // Promotes to a queen
         public PawnPromotion(final Move promotingMove) {
+            this(promotingMove, PieceType.QUEEN);
+        }
+
+        public PawnPromotion(final Move promotingMove, final PieceType promotionType) {
             super(promotingMove.getBoard(), promotingMove.getMovedPiece(), promotingMove.getDestinationPosition());
             this.promotingMove = promotingMove;
             this.promotingPawn = (Pawn) promotingMove.getMovedPiece();
+            this.promotionType = promotionType;
+        }
+
+        public PieceType getPromotionType() {
+            return this.promotionType;
         }
 
         @Override
@@ -295,8 +330,13 @@ public abstract class Move {
             for(final Piece piece : movedBoard.currentPlayer().getOpposingPlayer().findActivePieces()) {
                 boardBuilder.setPiece(piece);
             }
-            boardBuilder.setPiece(this.promotingPawn.getPromotionPiece().movePiece(this));
+            final Piece promotedPiece = this.promotingPawn.getPromotionPiece(this.promotionType).movePiece(this);
+            boardBuilder.setPiece(promotedPiece);
             boardBuilder.setMoveMaker(movedBoard.currentPlayer().getType());
+            // Same position as after the pawn move, with the pawn swapped for the promoted piece
+            boardBuilder.setMoveTransition(this);
+            boardBuilder.setZobristKey(movedBoard.getZobristKey() ^ Zobrist.pieceKey(this.promotingPawn, this.destination)
+                                       ^ Zobrist.pieceKey(promotedPiece, this.destination));
             return boardBuilder.build();
 
         }
@@ -313,17 +353,18 @@ public abstract class Move {
 
         @Override
         public int hashCode() {
-            return promotingMove.hashCode() + (31 * promotingPawn.hashCode());
+            return promotingMove.hashCode() + (31 * promotingPawn.hashCode()) + this.promotionType.hashCode();
         }
 
         @Override
         public boolean equals(final Object o) {
-            return this == o || o instanceof PawnPromotion && (super.equals(o));
+            return this == o || o instanceof PawnPromotion && (super.equals(o))
+                   && this.promotionType == ((PawnPromotion) o).getPromotionType();
         }
 
         @Override
         public String toString() {
-            return "";
+            return this.promotingMove.toString() + "=" + this.promotionType;
         }
 
     }
@@ -369,8 +410,11 @@ public abstract class Move {
             }
 
             boardBuilder.setPiece(this.movedPiece.movePiece(this));
-            boardBuilder.setPiece(new Rook(this.castleRook.getType(), this.castleRookDestination, false));
+            boardBuilder.setPiece(Piece.get(this.castleRook.getType(), PieceType.ROOK, this.castleRookDestination, false));
             boardBuilder.setMoveMaker(this.board.currentPlayer().getOpposingPlayer().getType());
+            boardBuilder.setMoveTransition(this);
+            boardBuilder.setZobristKey(nextZobristKey(null) ^ Zobrist.pieceKey(this.castleRook, this.castleRookInitialPos)
+                                       ^ Zobrist.pieceKey(this.castleRook, this.castleRookDestination));
             return boardBuilder.build();
         }
 
@@ -0,0 +1,82 @@
+package chess.board;
+
+/* Start of package imports */
+import java.util.Arrays;
+import java.util.Collection;
+/* End of package imports*/
+
+/* The MoveList class. A growable list of packed moves (see PackedMove) backed by an int[], so a list of moves costs
+* 4 bytes per move and keeps no Board or Piece alive.
+*/
+public final class MoveList {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(final int capacity) {
+        this.moves = new int[Math.max(1, capacity)];
+    }
+
+    // Packs every move of the collection
+    public static MoveList of(final Collection<Move> moves) {
+        final MoveList moveList = new MoveList(moves.size());
+        for(final Move move : moves) {
+            moveList.add(PackedMove.encode(move));
+        }
+        return moveList;
+    }
+
+    public void add(final int move) {
+        if(this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        if(index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for a list of " + this.size + " moves");
+        }
+        return this.moves[index];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(final int move) {
+        for(int i = 0; i < this.size; i++) {
+            if(this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(this.moves, this.size);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder output = new StringBuilder("[");
+        for(int i = 0; i < this.size; i++) {
+            output.append(i == 0 ? "" : ", ").append(PackedMove.toString(this.moves[i]));
+        }
+        return output.append(']').toString();
+    }
+}
@@ -0,0 +1,114 @@
+package chess.board;
+
+/* Start of package imports */
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The PackedMove class. A move packed into the low 16 bits of an int, for move lists, search and hash tables:
+* - bits 0-5: the starting tile
+* - bits 6-11: the destination tile
+* - bits 12-15: the move flag, which tells the kind of move (see the flags below)
+* A packed move knows nothing about the board it belongs to, so it costs 4 bytes instead of a Move's object graph, and
+* compares with ==. Use encode and decode to convert to and from the Move types the GUI and Player work with.
+* 0 (a8 to a8) is never a legal move and is used as NONE.
+*/
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    // Move flags (bits 12-15). The CAPTURE bit is set on every capture and the KNIGHT_PROMOTION bit on every promotion,
+    // with the low two bits of a promotion selecting the piece.
+    public static final int QUIET = 0;
+    public static final int PAWN_JUMP = 1;
+    public static final int KING_SIDE_CASTLE = 2;
+    public static final int QUEEN_SIDE_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int KNIGHT_PROMOTION = 8;
+    public static final int BISHOP_PROMOTION = 9;
+    public static final int ROOK_PROMOTION = 10;
+    public static final int QUEEN_PROMOTION = 11;
+    public static final int KNIGHT_PROMOTION_CAPTURE = 12;
+    public static final int BISHOP_PROMOTION_CAPTURE = 13;
+    public static final int ROOK_PROMOTION_CAPTURE = 14;
+    public static final int QUEEN_PROMOTION_CAPTURE = 15;
+
+    private static final PieceType[] PIECE_TYPE_VALUES = PieceType.values();
+
+    private PackedMove() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    public static int create(final int currentPosition, final int destination, final int flag) {
+        return currentPosition | (destination << 6) | (flag << 12);
+    }
+
+    public static int getCurrentPosition(final int move) {
+        return move & 0x3F;
+    }
+
+    public static int getDestinationPosition(final int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int getFlag(final int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isAttack(final int move) {
+        return (getFlag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isCastling(final int move) {
+        final int flag = getFlag(move);
+        return flag == KING_SIDE_CASTLE || flag == QUEEN_SIDE_CASTLE;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlag(move) & KNIGHT_PROMOTION) != 0;
+    }
+
+    // The piece a promotion move promotes to (only meaningful if isPromotion is true)
+    public static PieceType getPromotionType(final int move) {
+        return PIECE_TYPE_VALUES[PieceType.KNIGHT.ordinal() + (getFlag(move) & 3)];
+    }
+
+    // Packs one of the existing Move types
+    public static int encode(final Move move) {
+        final int flag;
+        if(move instanceof Move.PawnPromotion) {
+            final PieceType promotionType = ((Move.PawnPromotion) move).getPromotionType();
+            flag = (KNIGHT_PROMOTION + promotionType.ordinal() - PieceType.KNIGHT.ordinal()) | (move.isAttack() ? CAPTURE : 0);
+        } else if(move instanceof Move.KingSideCastle) {
+            flag = KING_SIDE_CASTLE;
+        } else if(move instanceof Move.QueenSideCastle) {
+            flag = QUEEN_SIDE_CASTLE;
+        } else if(move instanceof Move.EnPassant) {
+            flag = EN_PASSANT;
+        } else if(move instanceof Move.PawnJump) {
+            flag = PAWN_JUMP;
+        } else if(move.isAttack()) {
+            flag = CAPTURE;
+        } else {
+            flag = QUIET;
+        }
+        return create(move.getCurrentPosition(), move.getDestinationPosition(), flag);
+    }
+
+    // Returns the Move of the board's current player that the packed move stands for, or Move.NULL_MOVE if the
+    // current player has no such move
+    public static Move decode(final Board board, final int move) {
+        for(final Move legalMove : board.currentPlayer().getLegalMoves()) {
+            if(encode(legalMove) == move) {
+                return legalMove;
+            }
+        }
+        return Move.NULL_MOVE;
+    }
+
+    // Coordinate notation, as used by UCI: e2e4, e1g1 for castling, e7e8q for promotions
+    public static String toString(final int move) {
+        final String coordinates = Board.getCodeAtPosition(getCurrentPosition(move)) + Board.getCodeAtPosition(getDestinationPosition(move));
+        return isPromotion(move) ? coordinates + getPromotionType(move).toString().toLowerCase() : coordinates;
+    }
+}
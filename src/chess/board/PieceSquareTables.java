@@ -0,0 +1,161 @@
+package chess.board;
+
+/* Start of package imports */
+import chess.Type;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Piece-square tables: what a piece is worth on each tile, material included, in the middlegame and in the endgame.
+* SearchBoard adds a piece's values when it is put on a tile and subtracts them when it is taken off, so the sum over
+* the board is always at hand and an evaluator never has to scan the tiles. Values are in centipawns and count for
+* white: a black piece's values are those of the white piece on the mirrored tile, negated, so the sums are white's
+* score minus black's.
+*
+* The game phase runs from MAX_PHASE with all the pieces on the board down to 0 with only kings and pawns left.
+* Evaluators blend the middlegame and endgame sums by it.
+*
+* The tables are those of Tomasz Michniewski's Simplified Evaluation Function, with an endgame table for the king
+* (centralise it) and the pawns (advance them) that differ from the middlegame ones.
+*/
+public final class PieceSquareTables {
+
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by PieceType ordinal
+    private static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+
+    // From white's side, a8 first like the tiles
+    private static final int[] PAWN_MIDGAME = {
+         0,  0,   0,   0,   0,   0,  0,  0,
+        50, 50,  50,  50,  50,  50, 50, 50,
+        10, 10,  20,  30,  30,  20, 10, 10,
+         5,  5,  10,  25,  25,  10,  5,  5,
+         0,  0,   0,  20,  20,   0,  0,  0,
+         5, -5, -10,   0,   0, -10, -5,  5,
+         5, 10,  10, -20, -20,  10, 10,  5,
+         0,  0,   0,   0,   0,   0,  0,  0
+    };
+    private static final int[] PAWN_ENDGAME = {
+         0,  0,  0,  0,  0,  0,  0,  0,
+        80, 80, 80, 80, 80, 80, 80, 80,
+        50, 50, 50, 50, 50, 50, 50, 50,
+        30, 30, 30, 30, 30, 30, 30, 30,
+        15, 15, 15, 15, 15, 15, 15, 15,
+         5,  5,  5,  5,  5,  5,  5,  5,
+         0,  0,  0,  0,  0,  0,  0,  0,
+         0,  0,  0,  0,  0,  0,  0,  0
+    };
+    private static final int[] KNIGHT = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK = {
+         0,  0,  0,  0,  0,  0,  0,  0,
+         5, 10, 10, 10, 10, 10, 10,  5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+        -5,  0,  0,  0,  0,  0,  0, -5,
+         0,  0,  0,  5,  5,  0,  0,  0
+    };
+    private static final int[] QUEEN = {
+        -20, -10, -10, -5, -5, -10, -10, -20,
+        -10,   0,   0,  0,  0,   0,   0, -10,
+        -10,   0,   5,  5,  5,   5,   0, -10,
+         -5,   0,   5,  5,  5,   5,   0,  -5,
+          0,   0,   5,  5,  5,   5,   0,  -5,
+        -10,   5,   5,  5,  5,   5,   0, -10,
+        -10,   0,   5,  0,  0,   0,   0, -10,
+        -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] KING_MIDGAME = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20
+    };
+    private static final int[] KING_ENDGAME = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Indexed by piece code (BitBoard.index) times 64 plus tile
+    private static final int[] MIDGAME = new int[BitBoard.NUM_BITBOARDS * Board.NUM_TILES];
+    private static final int[] ENDGAME = new int[BitBoard.NUM_BITBOARDS * Board.NUM_TILES];
+    private static final int[] PHASES = new int[BitBoard.NUM_BITBOARDS];
+
+    static {
+        final int[][] midgame = {PAWN_MIDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_MIDGAME};
+        final int[][] endgame = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME};
+        for(final Type type : Type.values()) {
+            for(final PieceType pieceType : PieceType.values()) {
+                final int pieceCode = BitBoard.index(type, pieceType);
+                final int sign = type.isWhite() ? 1 : -1;
+                for(int tile = 0; tile < Board.NUM_TILES; tile++) {
+                    final int whiteTile = type.isWhite() ? tile : tile ^ 56; // The same rank seen from white's side
+                    final int value = PIECE_VALUES[pieceType.ordinal()];
+                    MIDGAME[pieceCode * Board.NUM_TILES + tile] = sign * (value + midgame[pieceType.ordinal()][whiteTile]);
+                    ENDGAME[pieceCode * Board.NUM_TILES + tile] = sign * (value + endgame[pieceType.ordinal()][whiteTile]);
+                }
+                PHASES[pieceCode] = PHASE_WEIGHTS[pieceType.ordinal()];
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // The material value of a kind of piece in centipawns, without its placement. The king is never traded, so it is 0.
+    public static int getPieceValue(final PieceType pieceType) {
+        return PIECE_VALUES[pieceType.ordinal()];
+    }
+
+    // The middlegame value of a piece (given by its BitBoard.index) on a tile, negative for black pieces
+    public static int midgame(final int pieceCode, final int tileCoordinate) {
+        return MIDGAME[pieceCode * Board.NUM_TILES + tileCoordinate];
+    }
+
+    public static int endgame(final int pieceCode, final int tileCoordinate) {
+        return ENDGAME[pieceCode * Board.NUM_TILES + tileCoordinate];
+    }
+
+    // How much a piece counts towards the game phase
+    public static int phase(final int pieceCode) {
+        return PHASES[pieceCode];
+    }
+
+    // Blends a middlegame and an endgame score by the phase (capped at MAX_PHASE, as promotions can push it higher)
+    public static int taper(final int midgameScore, final int endgameScore, final int phase) {
+        final int midgameWeight = Math.min(phase, MAX_PHASE);
+        return (midgameScore * midgameWeight + endgameScore * (MAX_PHASE - midgameWeight)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,140 @@
+package chess.board;
+
+/* Start of package imports */
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+/* End of package imports*/
+
+/* The positions of a game up to and including the current one, as Zobrist keys, with the halfmove clock (plies since
+* the last pawn move or capture) and the game ply. Every Board has one; a Move's board is built with the history of the
+* board it was made on plus one key.
+*
+* Histories are immutable but share one long[] stack: pushing onto the newest history of a line writes the next free
+* slot, so a game costs one array and a push is O(1) amortised. Pushing onto an older history (a takeback, or the
+* second of two moves tried on the same board) finds the slot taken and copies the keys it needs into a new array.
+*
+* Pawn moves and captures can never be undone, so a repeated position has to be found after the last of them: the
+* repetition checks only scan back as far as the halfmove clock, two plies at a time (the side to move must match).
+*/
+public final class PositionHistory {
+
+    // 100 plies without a pawn move or capture, i.e. fifty moves each
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int MIN_COPY_CAPACITY = 16;
+
+    private final Stack stack;
+    private final int size; // stack.keys[0 .. size) are this history's positions, the current one last
+    private final int halfmoveClock;
+    private final int ply;
+
+    private PositionHistory(final Stack stack, final int size, final int halfmoveClock, final int ply) {
+        this.stack = stack;
+        this.size = size;
+        this.halfmoveClock = halfmoveClock;
+        this.ply = ply;
+    }
+
+    // The history of a game that starts at the position, with the given clocks (e.g. from a FEN string)
+    public static PositionHistory start(final long key, final int halfmoveClock, final int ply) {
+        if(halfmoveClock < 0 || ply < 0) {
+            throw new IllegalArgumentException("Clocks cannot be negative: halfmove clock " + halfmoveClock + ", ply " + ply);
+        }
+        final Stack stack = new Stack(INITIAL_CAPACITY);
+        stack.keys[0] = key;
+        stack.used.set(1);
+        return new PositionHistory(stack, 1, halfmoveClock, ply);
+    }
+
+    // The history of a game whose last count positions are known, oldest first, ending with the current one. Keys from
+    // before the last pawn move or capture are not needed.
+    static PositionHistory of(final long[] keys, final int count, final int halfmoveClock, final int ply) {
+        if(count < 1) {
+            throw new IllegalArgumentException("A history needs the current position");
+        }
+        final int kept = Math.min(count, halfmoveClock + 1);
+        final Stack stack = new Stack(Math.max(INITIAL_CAPACITY, 2 * kept));
+        System.arraycopy(keys, count - kept, stack.keys, 0, kept);
+        stack.used.set(kept);
+        return new PositionHistory(stack, kept, halfmoveClock, ply);
+    }
+
+    // This history followed by a position reached by one move. A pawn move or capture resets the halfmove clock.
+    public PositionHistory push(final long key, final boolean resetsHalfmoveClock) {
+        final int halfmoveClock = resetsHalfmoveClock ? 0 : this.halfmoveClock + 1;
+        if(this.size < this.stack.keys.length && this.stack.used.compareAndSet(this.size, this.size + 1)) {
+            this.stack.keys[this.size] = key;
+            return new PositionHistory(this.stack, this.size + 1, halfmoveClock, this.ply + 1);
+        }
+        // The slot belongs to another line, or the stack is full. Positions before the last irreversible move can never
+        // repeat, so only the ones after it are kept.
+        final int kept = resetsHalfmoveClock ? 0 : Math.min(this.size, this.halfmoveClock + 1);
+        final Stack stack = new Stack(Math.max(MIN_COPY_CAPACITY, 2 * (kept + 1)));
+        System.arraycopy(this.stack.keys, this.size - kept, stack.keys, 0, kept);
+        stack.keys[kept] = key;
+        stack.used.set(kept + 1);
+        return new PositionHistory(stack, kept + 1, halfmoveClock, this.ply + 1);
+    }
+
+    public long getCurrentKey() {
+        return this.stack.keys[this.size - 1];
+    }
+
+    // Plies since the last pawn move or capture
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    // Plies played since the start of the game: 0 before white's first move, 1 before black's
+    public int getPly() {
+        return this.ply;
+    }
+
+    // The move number a FEN string records: 1 until black has made their first move
+    public int getFullmoveNumber() {
+        return this.ply / 2 + 1;
+    }
+
+    // The keys of the positions since the last pawn move or capture, oldest first, up to but excluding the current one.
+    // Only these can repeat.
+    public long[] getReversibleKeys() {
+        final int count = Math.min(this.size - 1, this.halfmoveClock);
+        return Arrays.copyOfRange(this.stack.keys, this.size - 1 - count, this.size - 1);
+    }
+
+    // How many times the current position has occurred, counting itself
+    public int getRepetitionCount() {
+        final long key = getCurrentKey();
+        final int oldest = Math.max(0, this.size - 1 - this.halfmoveClock);
+        int count = 1;
+        // A position can first recur four plies later, once both sides have moved away and back
+        for(int i = this.size - 5; i >= oldest; i -= 2) {
+            if(this.stack.keys[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 3;
+    }
+
+    // Whether a hundred plies have passed without a pawn move or capture. A mate still wins then, which the history
+    // cannot see: Board.isDraw checks both.
+    public boolean isFiftyMoveDraw() {
+        return this.halfmoveClock >= FIFTY_MOVE_PLIES;
+    }
+
+    // The keys shared by a line of histories, and how many slots one of them has claimed
+    private static final class Stack {
+
+        private final long[] keys;
+        private final AtomicInteger used = new AtomicInteger();
+
+        Stack(final int capacity) {
+            this.keys = new long[capacity];
+        }
+    }
+}
@@ -0,0 +1,606 @@
+package chess.board;
+
+/* Start of package imports */
+import java.util.Arrays;
+import chess.Type;
+import chess.board.Board.BoardBuilder;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The SearchBoard class. A mutable board used by searches and perft runs.
+* Unlike Board, which is rebuilt from scratch every time a Move is executed, a SearchBoard is updated in place by makeMove
+* and restored by unmakeMove using undo records pushed onto a stack, so exploring a tree allocates nothing per node.
+* Board stays the public snapshot type: a SearchBoard is created from a Board and can be turned back into one with toBoard().
+*
+* Moves are packed into ints (see PackedMove).
+*
+* Besides the Zobrist key, putting a piece on or taking it off a tile keeps running totals for evaluators up to date:
+* the piece-square sums and game phase (see PieceSquareTables), and a Zobrist key of the pawns alone for pawn-structure
+* caches. They are never stored in the undo records, since unmaking a move puts and takes the same pieces back.
+*
+* The halfmove clock is kept like the castling rights, and the key of every position made on the board is already on
+* the undo stack. Together with the keys of the game played before the board was created (see PositionHistory) they
+* let isRepetition look back over the whole game, as far as the last pawn move or capture.
+*/
+public final class SearchBoard {
+
+    // Castling rights bits, shared with Board
+    public static final int WHITE_KING_SIDE = Board.WHITE_KING_SIDE;
+    public static final int WHITE_QUEEN_SIDE = Board.WHITE_QUEEN_SIDE;
+    public static final int BLACK_KING_SIDE = Board.BLACK_KING_SIDE;
+    public static final int BLACK_QUEEN_SIDE = Board.BLACK_QUEEN_SIDE;
+
+    // Marks an empty tile in the mailbox and a missing en passant tile.
+    public static final int NO_PIECE = -1;
+    public static final int NO_TILE = -1;
+
+    // The most pseudo-legal moves any position can have is 218, rounded up.
+    public static final int MAX_MOVES = 256;
+
+    private static final int PIECE_TYPES = PieceType.values().length;
+    private static final PieceType[] PIECE_TYPE_VALUES = PieceType.values();
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final long WHITE_PAWN_JUMP_RANK = 0x0000FF0000000000L; // rank 3, reached by a white pawn's first step
+    private static final long BLACK_PAWN_JUMP_RANK = 0x0000000000FF0000L; // rank 6, reached by a black pawn's first step
+    private static final long PROMOTION_RANKS = 0xFF000000000000FFL;
+    private static final long ALL_TILES = ~BitBoard.EMPTY;
+
+    private final int[] mailbox = new int[Board.NUM_TILES]; // Piece code per tile (BitBoard.index of the piece) or NO_PIECE
+    private final long[] bitboards = new long[BitBoard.NUM_BITBOARDS];
+    private final long[] occupancy = new long[2]; // Indexed by Type.ordinal()
+    private Type sideToMove;
+    private int castlingRights;
+    private int enPassantTile; // The tile a pawn would capture onto en passant, or NO_TILE
+    private long zobristKey; // Kept equal to the key Board would compute for the same position (see Zobrist)
+    private long pawnKey; // The XOR of the Zobrist keys of the pawns
+    private int midgameScore; // Piece-square sums, white minus black
+    private int endgameScore;
+    private int phase;
+    private int halfmoveClock; // Plies since the last pawn move or capture
+
+    // The keys of the game's positions before this board's first one, back to the last pawn move or capture
+    private long[] gameKeys = new long[0];
+    private int gamePly; // Plies played in the game before this board's first position
+
+    // Undo records, one entry per move made. The captured piece, castling rights and en passant tile cannot be
+    // derived from the move itself, so they are saved before the move is applied. The key is saved to avoid
+    // XOR-ing every change back out again.
+    private int[] undoMoves = new int[256];
+    private int[] undoCaptured = new int[256];
+    private int[] undoCastlingRights = new int[256];
+    private int[] undoEnPassantTile = new int[256];
+    private long[] undoZobristKeys = new long[256];
+    private int[] undoHalfmoveClocks = new int[256];
+    private int ply;
+
+    private final int[] pieceMoves = new int[MAX_MOVES]; // Scratch buffer of isPseudoLegal
+
+    // Creates a search board holding the same position as the given snapshot.
+    public SearchBoard(final Board board) {
+        Arrays.fill(this.mailbox, NO_PIECE);
+        for(final Piece piece : board.getWhitePieces()) {
+            putPiece(BitBoard.index(piece.getType(), piece.getPieceType()), piece.getPosition());
+        }
+        for(final Piece piece : board.getBlackPieces()) {
+            putPiece(BitBoard.index(piece.getType(), piece.getPieceType()), piece.getPosition());
+        }
+        this.sideToMove = board.currentPlayer().getType();
+        this.castlingRights = board.getCastlingRights();
+        this.zobristKey = board.getZobristKey();
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        this.enPassantTile = enPassantPawn == null ? NO_TILE
+                             : enPassantPawn.getPosition() - 8 * enPassantPawn.getType().getDirection();
+        final PositionHistory history = board.getHistory();
+        this.halfmoveClock = history.getHalfmoveClock();
+        this.gameKeys = history.getReversibleKeys();
+        this.gamePly = history.getPly();
+        this.ply = 0;
+    }
+
+    // Replaces the position with the given pieces (piece codes as in BitBoard.index, on distinct tiles), without castling
+    // rights or an en passant tile. Lets positions that are enumerated rather than played, such as those of an endgame
+    // table, be walked on one board without building a Board for each.
+    public void setPosition(final int[] pieceCodes, final int[] tiles, final int pieceCount, final Type sideToMove) {
+        Arrays.fill(this.mailbox, NO_PIECE);
+        Arrays.fill(this.bitboards, BitBoard.EMPTY);
+        Arrays.fill(this.occupancy, BitBoard.EMPTY);
+        this.zobristKey = Zobrist.castlingKey(0) ^ Zobrist.sideKey(sideToMove);
+        this.pawnKey = 0L;
+        this.midgameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
+        for(int i = 0; i < pieceCount; i++) {
+            putPiece(pieceCodes[i], tiles[i]);
+        }
+        this.sideToMove = sideToMove;
+        this.castlingRights = 0;
+        this.enPassantTile = NO_TILE;
+        this.halfmoveClock = 0;
+        this.gameKeys = new long[0];
+        this.gamePly = 0;
+        this.ply = 0;
+    }
+
+    public Type getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public int getEnPassantTile() {
+        return this.enPassantTile;
+    }
+
+    // The Zobrist key of the position, equal to the key of the same position as a Board
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    // Number of moves made on this board that have not been unmade yet
+    public int getPly() {
+        return this.ply;
+    }
+
+    // Plies since the last pawn move or capture, counting the game played before this board was created
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    // Whether the position occurred before, in the game or in the moves made on this board. Positions can only repeat
+    // after the last pawn move or capture, so the scan stops there, and only every other ply has the same side to move.
+    public boolean isRepetition() {
+        final int gameKeyCount = this.gameKeys.length;
+        final int limit = Math.min(this.halfmoveClock, this.ply + gameKeyCount);
+        // The nearest position that can be the same is four plies back: each side has moved away and back
+        for(int pliesBack = 4; pliesBack <= limit; pliesBack += 2) {
+            final long key = pliesBack <= this.ply ? this.undoZobristKeys[this.ply - pliesBack]
+                                                   : this.gameKeys[gameKeyCount - (pliesBack - this.ply)];
+            if(key == this.zobristKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether the position is drawn by a repetition (see isRepetition) or the fifty-move rule. A search treats the first
+    // repetition as a draw: if repeating is best, it can be repeated again. A move that mates still wins when it is the
+    // hundredth ply without a pawn move or capture, so in check the fifty-move rule needs a legal move.
+    public boolean isDraw() {
+        if(isRepetition()) {
+            return true;
+        }
+        return this.halfmoveClock >= PositionHistory.FIFTY_MOVE_PLIES && (!isChecked() || hasLegalMove());
+    }
+
+    // Rarely needed (see isDraw), so the buffer is allocated here rather than kept per ply
+    private boolean hasLegalMove() {
+        final int[] moves = new int[MAX_MOVES];
+        final int pseudoLegalCount = generateMoves(moves);
+        for(int i = 0; i < pseudoLegalCount; i++) {
+            if(makeLegalMove(moves[i])) {
+                unmakeMove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The Zobrist key of the pawns of both sides, equal for positions with the same pawn structure
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    // The sum of the middlegame piece-square values of all pieces, white minus black (see PieceSquareTables)
+    public int getMidgameScore() {
+        return this.midgameScore;
+    }
+
+    public int getEndgameScore() {
+        return this.endgameScore;
+    }
+
+    // The game phase, MAX_PHASE in the opening down to 0 with only kings and pawns left (see PieceSquareTables)
+    public int getPhase() {
+        return this.phase;
+    }
+
+    // Returns the piece code (BitBoard.index) on the given tile, or NO_PIECE
+    public int getPieceCode(final int tileCoordinate) {
+        return this.mailbox[tileCoordinate];
+    }
+
+    public long getPieceBitboard(final Type type, final PieceType pieceType) {
+        return this.bitboards[BitBoard.index(type, pieceType)];
+    }
+
+    // The piece bitboards themselves, indexed by BitBoard.index, for code that works on all of them (see StaticExchange)
+    long[] getPieceBitboards() {
+        return this.bitboards;
+    }
+
+    public long getOccupancy(final Type type) {
+        return this.occupancy[type.ordinal()];
+    }
+
+    public long getOccupancy() {
+        return this.occupancy[0] | this.occupancy[1];
+    }
+
+    public long attackersOf(final int tileCoordinate, final Type attackingType) {
+        return BitBoard.attackersOf(tileCoordinate, attackingType, this.bitboards, getOccupancy());
+    }
+
+    public boolean isTileAttacked(final int tileCoordinate, final Type attackingType) {
+        return attackersOf(tileCoordinate, attackingType) != BitBoard.EMPTY;
+    }
+
+    // Checks if the king of the given type is attacked
+    public boolean isKingAttacked(final Type type) {
+        final long king = getPieceBitboard(type, PieceType.KING);
+        return king != BitBoard.EMPTY && isTileAttacked(BitBoard.lowestTile(king), type.opposite());
+    }
+
+    // Checks if the side to move is in check
+    public boolean isChecked() {
+        return isKingAttacked(this.sideToMove);
+    }
+
+    // Applies a move generated for this position. The move is assumed to be pseudo-legal for the side to move.
+    public void makeMove(final int move) {
+        final int from = PackedMove.getCurrentPosition(move);
+        final int to = PackedMove.getDestinationPosition(move);
+        final int flag = PackedMove.getFlag(move);
+        final int piece = this.mailbox[from];
+        final int direction = this.sideToMove.getDirection();
+        final long enPassantKey = enPassantKey(); // Before the move can take away the pawns that could capture
+
+        ensureUndoCapacity();
+        this.undoMoves[this.ply] = move;
+        this.undoCastlingRights[this.ply] = this.castlingRights;
+        this.undoEnPassantTile[this.ply] = this.enPassantTile;
+        this.undoZobristKeys[this.ply] = this.zobristKey;
+        this.undoHalfmoveClocks[this.ply] = this.halfmoveClock;
+
+        int captured = NO_PIECE;
+        if(flag == PackedMove.EN_PASSANT) {
+            final int capturedTile = to - 8 * direction; // The jumped pawn sits behind the en passant tile
+            captured = this.mailbox[capturedTile];
+            removePiece(captured, capturedTile);
+        } else if((flag & PackedMove.CAPTURE) != 0) {
+            captured = this.mailbox[to];
+            removePiece(captured, to);
+        }
+        this.undoCaptured[this.ply] = captured;
+        this.halfmoveClock = piece % PIECE_TYPES == PAWN || captured != NO_PIECE ? 0 : this.halfmoveClock + 1;
+
+        removePiece(piece, from);
+        if((flag & PackedMove.KNIGHT_PROMOTION) != 0) {
+            putPiece(BitBoard.index(this.sideToMove, PackedMove.getPromotionType(move)), to);
+        } else {
+            putPiece(piece, to);
+        }
+
+        if(flag == PackedMove.KING_SIDE_CASTLE) {
+            movePiece(from + 3, from + 1);
+        } else if(flag == PackedMove.QUEEN_SIDE_CASTLE) {
+            movePiece(from - 4, from - 1);
+        }
+
+        final int castlingRights = Board.updateCastlingRights(this.castlingRights, from, to);
+        final int enPassantTile = flag == PackedMove.PAWN_JUMP ? from + 8 * direction : NO_TILE;
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.castlingKey(castlingRights)
+                         ^ enPassantKey ^ Zobrist.sideKey();
+        this.castlingRights = castlingRights;
+        this.enPassantTile = enPassantTile;
+        this.sideToMove = this.sideToMove.opposite();
+        this.zobristKey ^= enPassantKey();
+        this.ply++;
+    }
+
+    // Makes one of the existing Move types on this board
+    public void makeMove(final Move move) {
+        makeMove(PackedMove.encode(move));
+    }
+
+    // Takes back the last move made, restoring the position exactly as it was before.
+    public void unmakeMove() {
+        this.ply--;
+        final int move = this.undoMoves[this.ply];
+        final int from = PackedMove.getCurrentPosition(move);
+        final int to = PackedMove.getDestinationPosition(move);
+        final int flag = PackedMove.getFlag(move);
+        this.sideToMove = this.sideToMove.opposite();
+        this.castlingRights = this.undoCastlingRights[this.ply];
+        this.enPassantTile = this.undoEnPassantTile[this.ply];
+
+        if(flag == PackedMove.KING_SIDE_CASTLE) {
+            movePiece(from + 1, from + 3);
+        } else if(flag == PackedMove.QUEEN_SIDE_CASTLE) {
+            movePiece(from - 1, from - 4);
+        }
+
+        final int piece = (flag & PackedMove.KNIGHT_PROMOTION) != 0 ? BitBoard.index(this.sideToMove, PieceType.PAWN) : this.mailbox[to];
+        removePiece(this.mailbox[to], to);
+        putPiece(piece, from);
+
+        final int captured = this.undoCaptured[this.ply];
+        if(flag == PackedMove.EN_PASSANT) {
+            putPiece(captured, to - 8 * this.sideToMove.getDirection());
+        } else if(captured != NO_PIECE) {
+            putPiece(captured, to);
+        }
+        this.zobristKey = this.undoZobristKeys[this.ply];
+        this.halfmoveClock = this.undoHalfmoveClocks[this.ply];
+    }
+
+    // Makes the move and checks that it does not leave the mover's king attacked.
+    // Returns false (with the board left unchanged) if the move is illegal.
+    public boolean makeLegalMove(final int move) {
+        final Type mover = this.sideToMove;
+        makeMove(move);
+        if(isKingAttacked(mover)) {
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    // Fills the buffer with all the legal moves of the side to move and returns how many were written.
+    public int generateLegalMoves(final int[] moves) {
+        final int pseudoLegalCount = generateMoves(moves);
+        int legalCount = 0;
+        for(int i = 0; i < pseudoLegalCount; i++) {
+            if(makeLegalMove(moves[i])) {
+                unmakeMove();
+                moves[legalCount++] = moves[i];
+            }
+        }
+        return legalCount;
+    }
+
+    // Fills the buffer with all the pseudo-legal moves of the side to move (moves that may still leave the king in check)
+    // and returns how many were written. The buffer needs room for MAX_MOVES moves.
+    public int generateMoves(final int[] moves) {
+        return generateMoves(moves, ALL_TILES, true, true);
+    }
+
+    // Same, but only the captures (including en passant and promotions that capture). A search can try these first and
+    // only generate the rest if none of them cuts the node off.
+    public int generateCaptures(final int[] moves) {
+        return generateMoves(moves, ALL_TILES, true, false);
+    }
+
+    // The pseudo-legal moves generateCaptures leaves out: quiet moves, pawn jumps, castles and quiet promotions
+    public int generateQuietMoves(final int[] moves) {
+        return generateMoves(moves, ALL_TILES, false, true);
+    }
+
+    // Checks if the move is one generateMoves would return in this position, e.g. a move taken from a hash table that
+    // may belong to another position. Only such moves may be made.
+    public boolean isPseudoLegal(final int move) {
+        final int from = PackedMove.getCurrentPosition(move);
+        final int piece = this.mailbox[from];
+        if(move == PackedMove.NONE || piece == NO_PIECE || piece / PIECE_TYPES != this.sideToMove.ordinal()) {
+            return false;
+        }
+        final int count = generateMoves(this.pieceMoves, BitBoard.bit(from), true, true);
+        for(int i = 0; i < count; i++) {
+            if(this.pieceMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Generates the moves of the side to move's pieces on the given tiles, the captures and/or the other moves
+    private int generateMoves(final int[] moves, final long fromTiles, final boolean captures, final boolean quiets) {
+        final Type us = this.sideToMove;
+        final Type them = us.opposite();
+        final long own = getOccupancy(us);
+        final long enemy = getOccupancy(them);
+        final long empty = ~(own | enemy);
+        final long targets = (captures ? enemy : BitBoard.EMPTY) | (quiets ? empty : BitBoard.EMPTY);
+        int count = 0;
+
+        count = generatePawnMoves(moves, count, us, getPieceBitboard(us, PieceType.PAWN) & fromTiles, enemy, empty, captures, quiets);
+
+        for(long knights = getPieceBitboard(us, PieceType.KNIGHT) & fromTiles; knights != BitBoard.EMPTY; knights = BitBoard.popLowest(knights)) {
+            final int from = BitBoard.lowestTile(knights);
+            count = addMoves(moves, count, from, BitBoard.knightAttacks(from) & targets, enemy);
+        }
+        final long occupied = own | enemy;
+        final long diagonalSliders = (getPieceBitboard(us, PieceType.BISHOP) | getPieceBitboard(us, PieceType.QUEEN)) & fromTiles;
+        for(long sliders = diagonalSliders; sliders != BitBoard.EMPTY; sliders = BitBoard.popLowest(sliders)) {
+            final int from = BitBoard.lowestTile(sliders);
+            count = addMoves(moves, count, from, BitBoard.bishopAttacks(from, occupied) & targets, enemy);
+        }
+        final long orthogonalSliders = (getPieceBitboard(us, PieceType.ROOK) | getPieceBitboard(us, PieceType.QUEEN)) & fromTiles;
+        for(long sliders = orthogonalSliders; sliders != BitBoard.EMPTY; sliders = BitBoard.popLowest(sliders)) {
+            final int from = BitBoard.lowestTile(sliders);
+            count = addMoves(moves, count, from, BitBoard.rookAttacks(from, occupied) & targets, enemy);
+        }
+        final long king = getPieceBitboard(us, PieceType.KING) & fromTiles;
+        if(king != BitBoard.EMPTY) {
+            final int from = BitBoard.lowestTile(king);
+            count = addMoves(moves, count, from, BitBoard.kingAttacks(from) & targets, enemy);
+            if(quiets) {
+                count = generateCastles(moves, count, us, occupied);
+            }
+        }
+        return count;
+    }
+
+    // Converts this position back into an immutable Board snapshot.
+    public Board toBoard() {
+        final BoardBuilder builder = new BoardBuilder();
+        for(int tile = 0; tile < Board.NUM_TILES; tile++) {
+            if(this.mailbox[tile] != NO_PIECE) {
+                builder.setPiece(createPiece(this.mailbox[tile], tile));
+            }
+        }
+        if(this.enPassantTile != NO_TILE) {
+            final int pawnTile = this.enPassantTile - 8 * this.sideToMove.getDirection();
+            builder.setEnPassantPawn((Pawn) Piece.get(this.sideToMove.opposite(), PieceType.PAWN, pawnTile, false));
+        }
+        builder.setMoveMaker(this.sideToMove);
+        builder.setZobristKey(this.zobristKey);
+        final long[] keys = Arrays.copyOf(this.gameKeys, this.gameKeys.length + this.ply + 1);
+        System.arraycopy(this.undoZobristKeys, 0, keys, this.gameKeys.length, this.ply);
+        keys[keys.length - 1] = this.zobristKey;
+        builder.setHistory(PositionHistory.of(keys, keys.length, this.halfmoveClock, this.gamePly + this.ply));
+        return builder.build();
+    }
+
+    private int generatePawnMoves(final int[] moves, int count, final Type us, final long pawns, final long enemy,
+                                  final long empty, final boolean captures, final boolean quiets) {
+        final int forward = us.isWhite() ? BitBoard.NORTH : BitBoard.SOUTH;
+        final int step = 8 * us.getDirection();
+
+        final long singles = quiets ? BitBoard.shift(pawns, forward) & empty : BitBoard.EMPTY;
+        final long jumps = BitBoard.shift(singles & (us.isWhite() ? WHITE_PAWN_JUMP_RANK : BLACK_PAWN_JUMP_RANK), forward) & empty;
+
+        for(long targets = singles; targets != BitBoard.EMPTY; targets = BitBoard.popLowest(targets)) {
+            final int to = BitBoard.lowestTile(targets);
+            if(BitBoard.isSet(PROMOTION_RANKS, to)) {
+                count = addPromotions(moves, count, to - step, to, false);
+            } else {
+                moves[count++] = PackedMove.create(to - step, to, PackedMove.QUIET);
+            }
+        }
+        for(long targets = jumps; targets != BitBoard.EMPTY; targets = BitBoard.popLowest(targets)) {
+            final int to = BitBoard.lowestTile(targets);
+            moves[count++] = PackedMove.create(to - 2 * step, to, PackedMove.PAWN_JUMP);
+        }
+        for(long attackers = captures ? pawns : BitBoard.EMPTY; attackers != BitBoard.EMPTY; attackers = BitBoard.popLowest(attackers)) {
+            final int from = BitBoard.lowestTile(attackers);
+            final long attacks = BitBoard.pawnAttacks(from, us);
+            for(long targets = attacks & enemy; targets != BitBoard.EMPTY; targets = BitBoard.popLowest(targets)) {
+                final int to = BitBoard.lowestTile(targets);
+                if(BitBoard.isSet(PROMOTION_RANKS, to)) {
+                    count = addPromotions(moves, count, from, to, true);
+                } else {
+                    moves[count++] = PackedMove.create(from, to, PackedMove.CAPTURE);
+                }
+            }
+            if(this.enPassantTile != NO_TILE && BitBoard.isSet(attacks, this.enPassantTile)) {
+                moves[count++] = PackedMove.create(from, this.enPassantTile, PackedMove.EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    private static int addPromotions(final int[] moves, int count, final int from, final int to, final boolean capture) {
+        final int captureFlag = capture ? PackedMove.CAPTURE : 0;
+        moves[count++] = PackedMove.create(from, to, PackedMove.QUEEN_PROMOTION | captureFlag);
+        moves[count++] = PackedMove.create(from, to, PackedMove.KNIGHT_PROMOTION | captureFlag);
+        moves[count++] = PackedMove.create(from, to, PackedMove.ROOK_PROMOTION | captureFlag);
+        moves[count++] = PackedMove.create(from, to, PackedMove.BISHOP_PROMOTION | captureFlag);
+        return count;
+    }
+
+    private static int addMoves(final int[] moves, int count, final int from, final long targets, final long enemy) {
+        for(long remaining = targets; remaining != BitBoard.EMPTY; remaining = BitBoard.popLowest(remaining)) {
+            final int to = BitBoard.lowestTile(remaining);
+            moves[count++] = PackedMove.create(from, to, BitBoard.isSet(enemy, to) ? PackedMove.CAPTURE : PackedMove.QUIET);
+        }
+        return count;
+    }
+
+    // Same conditions as Player.calculateKingCastles: rights intact, nothing in between,
+    // and the king is not in check and does not pass through or land on an attacked tile.
+    private int generateCastles(final int[] moves, int count, final Type us, final long occupied) {
+        final int kingTile = us.isWhite() ? 60 : 4;
+        final int kingSide = us.isWhite() ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+        final int queenSide = us.isWhite() ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+        final Type them = us.opposite();
+        if((this.castlingRights & (kingSide | queenSide)) == 0 || isTileAttacked(kingTile, them)) {
+            return count;
+        }
+        if((this.castlingRights & kingSide) != 0
+                && (occupied & (BitBoard.bit(kingTile + 1) | BitBoard.bit(kingTile + 2))) == BitBoard.EMPTY
+                && !isTileAttacked(kingTile + 1, them) && !isTileAttacked(kingTile + 2, them)) {
+            moves[count++] = PackedMove.create(kingTile, kingTile + 2, PackedMove.KING_SIDE_CASTLE);
+        }
+        if((this.castlingRights & queenSide) != 0
+                && (occupied & (BitBoard.bit(kingTile - 1) | BitBoard.bit(kingTile - 2) | BitBoard.bit(kingTile - 3))) == BitBoard.EMPTY
+                && !isTileAttacked(kingTile - 1, them) && !isTileAttacked(kingTile - 2, them)) {
+            moves[count++] = PackedMove.create(kingTile, kingTile - 2, PackedMove.QUEEN_SIDE_CASTLE);
+        }
+        return count;
+    }
+
+    private void putPiece(final int piece, final int tile) {
+        final long bit = BitBoard.bit(tile);
+        final long key = Zobrist.pieceKey(piece, tile);
+        this.zobristKey ^= key;
+        if(piece % PIECE_TYPES == PAWN) {
+            this.pawnKey ^= key;
+        }
+        this.midgameScore += PieceSquareTables.midgame(piece, tile);
+        this.endgameScore += PieceSquareTables.endgame(piece, tile);
+        this.phase += PieceSquareTables.phase(piece);
+        this.mailbox[tile] = piece;
+        this.bitboards[piece] |= bit;
+        this.occupancy[piece / PIECE_TYPES] |= bit;
+    }
+
+    private void removePiece(final int piece, final int tile) {
+        final long bit = BitBoard.bit(tile);
+        final long key = Zobrist.pieceKey(piece, tile);
+        this.zobristKey ^= key;
+        if(piece % PIECE_TYPES == PAWN) {
+            this.pawnKey ^= key;
+        }
+        this.midgameScore -= PieceSquareTables.midgame(piece, tile);
+        this.endgameScore -= PieceSquareTables.endgame(piece, tile);
+        this.phase -= PieceSquareTables.phase(piece);
+        this.mailbox[tile] = NO_PIECE;
+        this.bitboards[piece] &= ~bit;
+        this.occupancy[piece / PIECE_TYPES] &= ~bit;
+    }
+
+    // The Zobrist key of the en passant file, if a pawn of the side to move can capture en passant
+    private long enPassantKey() {
+        if(this.enPassantTile == NO_TILE) {
+            return 0L;
+        }
+        return Zobrist.enPassantKey(this.enPassantTile - 8 * this.sideToMove.getDirection(),
+                                    this.bitboards[BitBoard.index(this.sideToMove, PieceType.PAWN)]);
+    }
+
+    private void movePiece(final int from, final int to) {
+        final int piece = this.mailbox[from];
+        removePiece(piece, from);
+        putPiece(piece, to);
+    }
+
+    private void ensureUndoCapacity() {
+        if(this.ply == this.undoMoves.length) {
+            final int capacity = this.undoMoves.length * 2;
+            this.undoMoves = Arrays.copyOf(this.undoMoves, capacity);
+            this.undoCaptured = Arrays.copyOf(this.undoCaptured, capacity);
+            this.undoCastlingRights = Arrays.copyOf(this.undoCastlingRights, capacity);
+            this.undoEnPassantTile = Arrays.copyOf(this.undoEnPassantTile, capacity);
+            this.undoZobristKeys = Arrays.copyOf(this.undoZobristKeys, capacity);
+            this.undoHalfmoveClocks = Arrays.copyOf(this.undoHalfmoveClocks, capacity);
+        }
+    }
+
+    // Finds the Piece for the snapshot. Pawns on their starting rank, and kings and rooks that still
+    // have castling rights, are marked as not having moved yet.
+    private Piece createPiece(final int pieceCode, final int tile) {
+        final Type type = Type.values()[pieceCode / PIECE_TYPES];
+        final PieceType pieceType = PIECE_TYPE_VALUES[pieceCode % PIECE_TYPES];
+        final boolean firstMove;
+        if(pieceType == PieceType.PAWN) {
+            firstMove = type.isWhite() ? (tile >= 48 && tile <= 55) : (tile >= 8 && tile <= 15);
+        } else {
+            firstMove = (Board.CASTLING_MASK[tile] & this.castlingRights) != this.castlingRights;
+        }
+        return Piece.get(type, pieceType, tile, firstMove);
+    }
+}
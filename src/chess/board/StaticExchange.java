@@ -0,0 +1,113 @@
+package chess.board;
+
+/* Start of package imports */
+import chess.Type;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Static exchange evaluation (SEE): the material a capture wins or loses once every capture that follows on the same
+* tile has been played out, with each side free to stop capturing when going on would lose it material. Nothing is
+* executed: the exchange is played on the bitboards alone, always recapturing with the least valuable piece. Taking a
+* piece off the occupancy uncovers the sliders behind it (x-rays), such as a rook behind a rook on the same file.
+*
+* Pins and checks are ignored, and a king only recaptures if the tile is no longer attacked. Values are in centipawns
+* (see PieceSquareTables.getPieceValue): SEE of a pawn taking a defended knight is 320 - 100 = 220, of a queen taking a
+* defended pawn 100 - 900 = -800.
+*/
+public final class StaticExchange {
+
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int PIECE_TYPES = PieceType.values().length;
+    private static final long PROMOTION_RANKS = 0xFF000000000000FFL;
+    // The longest exchange: every piece of both sides captures on the tile
+    private static final int MAX_CAPTURES = 32;
+
+    // Values by PieceType ordinal. Only a king that captures a defended piece itself can be taken back, and such a
+    // capture is illegal, so its value makes it lose more than any exchange can win.
+    private static final int KING_VALUE = 20_000;
+    private static final int[] VALUES = new int[PIECE_TYPES];
+
+    static {
+        for(final PieceType pieceType : PieceType.values()) {
+            VALUES[pieceType.ordinal()] = PieceSquareTables.getPieceValue(pieceType);
+        }
+        VALUES[KING] = KING_VALUE;
+    }
+
+    private StaticExchange() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // The material the capture (an AttackMove, PawnAttackMove, en passant or capturing promotion) wins for its mover
+    public static int evaluate(final Board board, final Move move) {
+        if(!move.isAttack()) {
+            throw new IllegalArgumentException("Not a capture: " + move);
+        }
+        final int promotionType = move instanceof Move.PawnPromotion ? ((Move.PawnPromotion) move).getPromotionType().ordinal() : PAWN;
+        return evaluate(board.getPieceBitboards(), board.getOccupancy(), move.getMovedPiece().getType(),
+                        move.getMovedPiece().getPieceType().ordinal(), move.getCurrentPosition(), move.getDestinationPosition(),
+                        move.getAttackedPiece().getPieceType().ordinal(), move.getAttackedPiece().getPosition(), promotionType);
+    }
+
+    // The material a packed capture of the side to move wins
+    public static int evaluate(final SearchBoard board, final int move) {
+        if(!PackedMove.isAttack(move)) {
+            throw new IllegalArgumentException("Not a capture: " + PackedMove.toString(move));
+        }
+        final int from = PackedMove.getCurrentPosition(move);
+        final int to = PackedMove.getDestinationPosition(move);
+        final Type side = board.getSideToMove();
+        final int victimTile = PackedMove.getFlag(move) == PackedMove.EN_PASSANT ? to - 8 * side.getDirection() : to;
+        final int promotionType = PackedMove.isPromotion(move) ? PackedMove.getPromotionType(move).ordinal() : PAWN;
+        return evaluate(board.getPieceBitboards(), board.getOccupancy(), side, board.getPieceCode(from) % PIECE_TYPES,
+                        from, to, board.getPieceCode(victimTile) % PIECE_TYPES, victimTile, promotionType);
+    }
+
+    // The swap algorithm: gains[d] is what the side making the d-th capture is up if the exchange stops after it.
+    // Walking back from the last capture, each side picks the better of capturing and standing pat.
+    private static int evaluate(final long[] bitboards, long occupied, Type side, final int moverType, final int from,
+                                final int to, final int victimType, final int victimTile, final int promotionType) {
+        final int[] gains = new int[MAX_CAPTURES];
+        int depth = 0;
+        gains[0] = VALUES[victimType];
+        int onTile = moverType; // The type of the piece standing on the tile, which the next capture takes
+        if(promotionType != PAWN) {
+            gains[0] += VALUES[promotionType] - VALUES[PAWN];
+            onTile = promotionType;
+        }
+        occupied &= ~BitBoard.bit(from) & ~BitBoard.bit(victimTile);
+        side = side.opposite();
+        while(depth < MAX_CAPTURES - 1) {
+            final long attackers = BitBoard.attackersOf(to, side, bitboards, occupied) & occupied;
+            if(attackers == BitBoard.EMPTY) {
+                break;
+            }
+            int attackerType = PAWN;
+            long attacker = attackers & bitboards[BitBoard.index(side, PieceType.PAWN)];
+            while(attacker == BitBoard.EMPTY) {
+                attackerType++;
+                attacker = attackers & bitboards[side.ordinal() * PIECE_TYPES + attackerType];
+            }
+            if(attackerType == KING
+                    && (BitBoard.attackersOf(to, side.opposite(), bitboards, occupied) & occupied) != BitBoard.EMPTY) {
+                break; // The king cannot capture onto a defended tile
+            }
+            depth++;
+            gains[depth] = VALUES[onTile] - gains[depth - 1];
+            onTile = attackerType;
+            if(attackerType == PAWN && BitBoard.isSet(PROMOTION_RANKS, to)) {
+                gains[depth] += VALUES[QUEEN] - VALUES[PAWN];
+                onTile = QUEEN;
+            }
+            occupied &= ~BitBoard.bit(BitBoard.lowestTile(attacker));
+            side = side.opposite();
+        }
+        while(depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+}
@@ -1,7 +1,9 @@
 package chess.board;
 
 /* Start of package imports */
+import chess.Type;
 import chess.pieces.*;
+import chess.pieces.Piece.PieceType;
 import java.util.Map;
 import java.util.HashMap;
 import com.google.common.collect.ImmutableMap;
@@ -17,6 +19,10 @@ public abstract class Tile {
 	// A map with a set of 64 empty tiles mapped to each tile on the board.
 	// Useful for filling tiles that are unoccupied by a piece (mirrors the actual board).
 	private static final Map<Integer, EmptyTile> EMPTY_TILES = createEmptyTiles();
+
+	// Likewise an occupied tile for each of the shared pieces (see Piece.get), indexed like them by colour, kind, tile
+	// and first-move flag, so boards built from shared pieces allocate no tiles.
+	private static final OccupiedTile[] OCCUPIED_TILES = createOccupiedTiles();
 	
 	//Tile Constructor
 	private Tile(final int tileCoordinate) {
@@ -26,6 +32,10 @@ public abstract class Tile {
 	// Creates a tile to add to the game board (either an occupied tile or empty tile depending on the value of piece)
 	public static Tile createTile(final int tileCoordinate, final Piece piece){
 		if(piece != null) {
+			final OccupiedTile cachedTile = OCCUPIED_TILES[occupiedTileIndex(piece.getType(), piece.getPieceType(), tileCoordinate, piece.isFirstMove())];
+			if(cachedTile.getPiece() == piece) {
+				return cachedTile;
+			}
 			return new OccupiedTile(tileCoordinate, piece);
 		} else {
 			return EMPTY_TILES.get(tileCoordinate);
@@ -49,6 +59,25 @@ public abstract class Tile {
 		return ImmutableMap.copyOf(EMPTY_MAP);
 	}
 
+	// Fills the OCCUPIED_TILES array with a tile for every shared piece.
+	private static OccupiedTile[] createOccupiedTiles() {
+		final OccupiedTile[] tiles = new OccupiedTile[BitBoard.NUM_BITBOARDS * Board.NUM_TILES * 2];
+		for(final Type type : Type.values()) {
+			for(final PieceType pieceType : PieceType.values()) {
+				for(int i = 0; i < Board.NUM_TILES; i++) {
+					for(final boolean firstMove : new boolean[] {true, false}) {
+						tiles[occupiedTileIndex(type, pieceType, i, firstMove)] = new OccupiedTile(i, Piece.get(type, pieceType, i, firstMove));
+					}
+				}
+			}
+		}
+		return tiles;
+	}
+
+	private static int occupiedTileIndex(final Type type, final PieceType pieceType, final int tileCoordinate, final boolean firstMove) {
+		return (BitBoard.index(type, pieceType) * Board.NUM_TILES + tileCoordinate) * 2 + (firstMove ? 1 : 0);
+	}
+
 	public abstract boolean isTileOccupied(); // It will be useful to know which tiles are occupied
 	
 	public abstract Piece getPiece(); // It will be useful to know what piece is occupying the tile
@@ -0,0 +1,124 @@
+package chess.board;
+
+/* Start of package imports */
+import chess.Type;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Zobrist hashing. Every (piece, tile) pair, the side to move, each set of castling rights and each en passant file
+* gets a fixed random 64-bit key, and a position's key is the XOR of the keys of everything in it.
+* Because XOR undoes itself, a move can update a key by XOR-ing out what changed and XOR-ing in the result,
+* instead of hashing the whole board again.
+*
+* As in Polyglot, the en passant file is only hashed when a pawn of the side to move stands next to the pawn that just
+* jumped and could capture it. Otherwise the jump changes nothing a player can do, and the position has to get the same
+* key as when it is reached by another move order (1.d4 Nf6 2.c4 and 1.c4 Nf6 2.d4).
+*
+* The keys come from a fixed seed so they are the same on every run; keys written to disk (books, indexes) stay valid.
+*/
+public final class Zobrist {
+
+    private static final long SEED = 0x3C6EF372FE94F82AL;
+
+    private static final long[] PIECE_KEYS = new long[BitBoard.NUM_BITBOARDS * Board.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        long state = SEED;
+        for(int i = 0; i < PIECE_KEYS.length; i++) {
+            state = nextState(state);
+            PIECE_KEYS[i] = mix(state);
+        }
+        // No castling rights hashes to 0, so positions without rights do not depend on these keys
+        for(int i = 1; i < CASTLING_KEYS.length; i++) {
+            state = nextState(state);
+            CASTLING_KEYS[i] = mix(state);
+        }
+        for(int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            state = nextState(state);
+            EN_PASSANT_KEYS[i] = mix(state);
+        }
+        state = nextState(state);
+        BLACK_TO_MOVE_KEY = mix(state);
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // Key of a piece (given by its BitBoard.index) standing on a tile
+    public static long pieceKey(final int pieceCode, final int tileCoordinate) {
+        return PIECE_KEYS[pieceCode * Board.NUM_TILES + tileCoordinate];
+    }
+
+    public static long pieceKey(final Piece piece, final int tileCoordinate) {
+        return pieceKey(BitBoard.index(piece.getType(), piece.getPieceType()), tileCoordinate);
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    // Key of the en passant file, given the tile of the pawn that just jumped (a negative tile for none) and the
+    // bitboard of the pawns that could capture it. 0 unless one of those pawns stands right next to it.
+    public static long enPassantKey(final int jumpedPawnTile, final long capturingPawns) {
+        if(jumpedPawnTile < 0) {
+            return 0L;
+        }
+        final int file = jumpedPawnTile % 8;
+        final long neighbours = (file > 0 ? BitBoard.bit(jumpedPawnTile - 1) : BitBoard.EMPTY)
+                              | (file < 7 ? BitBoard.bit(jumpedPawnTile + 1) : BitBoard.EMPTY);
+        return (neighbours & capturingPawns) == BitBoard.EMPTY ? 0L : EN_PASSANT_KEYS[file];
+    }
+
+    // Key of the en passant file of a board with the given bitboards (see BitBoard.index)
+    static long enPassantKey(final Pawn enPassantPawn, final long[] pieceBitboards) {
+        if(enPassantPawn == null) {
+            return 0L;
+        }
+        return enPassantKey(enPassantPawn.getPosition(),
+                            pieceBitboards[BitBoard.index(enPassantPawn.getType().opposite(), PieceType.PAWN)]);
+    }
+
+    public static long enPassantKey(final Board board) {
+        return enPassantKey(board.getEnPassantPawn(), board.getPieceBitboards());
+    }
+
+    // Toggled whenever the side to move changes
+    public static long sideKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    public static long sideKey(final Type sideToMove) {
+        return sideToMove.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    // Hashes a whole board from scratch. Boards created by Move.execute get their key incrementally instead.
+    public static long computeKey(final Board board) {
+        long key = 0L;
+        for(final Piece piece : board.getWhitePieces()) {
+            key ^= pieceKey(piece, piece.getPosition());
+        }
+        for(final Piece piece : board.getBlackPieces()) {
+            key ^= pieceKey(piece, piece.getPosition());
+        }
+        return key ^ castlingKey(board.getCastlingRights()) ^ enPassantKey(board)
+                   ^ sideKey(board.currentPlayer().getType());
+    }
+
+    // SplitMix64: a small, well distributed generator that gives the same sequence on every platform
+    private static long nextState(final long state) {
+        return state + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(final long state) {
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
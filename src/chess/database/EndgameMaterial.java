@@ -0,0 +1,352 @@
+package chess.database;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import chess.Type;
+import chess.board.BitBoard;
+import chess.board.SearchBoard;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The pieces of an endgame table, e.g. "KRPvKR", and the numbering of its positions.
+* The stronger side is always white in a table, so the material is named with the stronger side first; a position with
+* the colours the other way round is looked up with the colours swapped and the board mirrored top to bottom.
+*
+* The pieces are ordered white king, black king, then the other white and black pieces, queens first and pawns last. A
+* position is numbered by the tiles of its pieces in that order, one base 64 digit each, except that the white king is
+* first moved by a symmetry of the board to a few tiles: without pawns the board may be rotated and mirrored, so the white
+* king goes to the a1-d1-d4 triangle (10 tiles); with pawns it may only be mirrored left to right, onto files a-d (32
+* tiles). Identical pieces swapped, or both orientations of a king on the diagonal, are numbered twice; such duplicates
+* are simply solved twice, which keeps the numbering a few multiplications.
+*/
+final class EndgameMaterial {
+
+    static final int MAX_PIECES = 5;
+
+    private static final String PIECE_LETTERS = "PNBRQK"; // Indexed by PieceType.ordinal()
+    private static final String NAME_ORDER = "KQRBNP"; // The order pieces are named and numbered in
+    private static final int[] PIECE_VALUES = {1, 3, 3, 5, 9, 0}; // Indexed by PieceType.ordinal(), to find the stronger side
+    private static final int PIECE_TYPES = PieceType.values().length;
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int COUNT_BITS = 4; // Bits per piece code in a signature
+    private static final int SIDE_BITS = PIECE_TYPES * COUNT_BITS;
+    private static final long SIDE_MASK = (1L << SIDE_BITS) - 1;
+
+    // The 8 symmetries of the board, as the tile each tile is moved to: bit 0 mirrors the files, bit 1 the ranks and
+    // bit 2 swaps files and ranks (applied first)
+    private static final int[][] TRANSFORMED_TILES = new int[8][64];
+    // The symmetry that mirrors the board in the a1-h8 diagonal
+    private static final int DIAGONAL_MIRROR = 7;
+    // For each tile of the white king, the symmetry that brings it to its numbered tiles, with and without pawns
+    private static final int[] PAWNLESS_TRANSFORM = new int[64];
+    private static final int[] PAWN_TRANSFORM = new int[64];
+    // The white king's numbered tiles, and the number of each (-1 for tiles that are never numbered)
+    private static final int[] PAWNLESS_KING_TILES;
+    private static final int[] PAWN_KING_TILES;
+    private static final int[] PAWNLESS_KING_SLOTS = new int[64];
+    private static final int[] PAWN_KING_SLOTS = new int[64];
+
+    static {
+        for(int transform = 0; transform < 8; transform++) {
+            for(int tile = 0; tile < 64; tile++) {
+                int transformed = (transform & 4) != 0 ? ((tile & 7) << 3) | (tile >>> 3) : tile;
+                transformed ^= (transform & 1) != 0 ? 7 : 0;
+                transformed ^= (transform & 2) != 0 ? 56 : 0;
+                TRANSFORMED_TILES[transform][tile] = transformed;
+            }
+        }
+        final List<Integer> pawnlessTiles = new ArrayList<>();
+        final List<Integer> pawnTiles = new ArrayList<>();
+        Arrays.fill(PAWNLESS_KING_SLOTS, -1);
+        Arrays.fill(PAWN_KING_SLOTS, -1);
+        for(int tile = 0; tile < 64; tile++) {
+            if(isInTriangle(tile)) {
+                PAWNLESS_KING_SLOTS[tile] = pawnlessTiles.size();
+                pawnlessTiles.add(tile);
+            }
+            if((tile & 7) < 4) {
+                PAWN_KING_SLOTS[tile] = pawnTiles.size();
+                pawnTiles.add(tile);
+            }
+            PAWN_TRANSFORM[tile] = (tile & 7) < 4 ? 0 : 1;
+            for(int transform = 0; transform < 8; transform++) {
+                if(isInTriangle(TRANSFORMED_TILES[transform][tile])) {
+                    PAWNLESS_TRANSFORM[tile] = transform;
+                    break;
+                }
+            }
+        }
+        PAWNLESS_KING_TILES = pawnlessTiles.stream().mapToInt(Integer::intValue).toArray();
+        PAWN_KING_TILES = pawnTiles.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private final String name;
+    private final int[] pieceCodes;
+    private final boolean hasPawns;
+    private final long signature;
+    private final long positionsPerSide;
+
+    private EndgameMaterial(final String name, final int[] pieceCodes) {
+        this.name = name;
+        this.pieceCodes = pieceCodes;
+        boolean hasPawns = false;
+        long signature = 0;
+        for(final int pieceCode : pieceCodes) {
+            hasPawns |= pieceCode % PIECE_TYPES == PAWN;
+            signature += 1L << (pieceCode * COUNT_BITS);
+        }
+        this.hasPawns = hasPawns;
+        this.signature = signature;
+        long positions = hasPawns ? PAWN_KING_TILES.length : PAWNLESS_KING_TILES.length;
+        for(int i = 1; i < pieceCodes.length; i++) {
+            positions *= 64;
+        }
+        this.positionsPerSide = positions;
+    }
+
+    // Parses a name such as "KQvK" or "kr vs krp" (either side may be given first)
+    static EndgameMaterial parse(final String material) {
+        final String[] sides = material.toUpperCase().replace("VS", "V").replace(" ", "").split("V", -1);
+        if(sides.length != 2) {
+            throw new IllegalArgumentException("Expected the pieces of both sides, e.g. KQvK, not " + material);
+        }
+        final int[][] counts = {countPieces(sides[0], material), countPieces(sides[1], material)};
+        if(sum(counts[0]) + sum(counts[1]) > MAX_PIECES) {
+            throw new IllegalArgumentException("Endgame tables have at most " + MAX_PIECES + " pieces: " + material);
+        }
+        return create(counts[0], counts[1]);
+    }
+
+    // The material of the successors of this material's positions: after each capture, each promotion and each capture
+    // that promotes. Materials of bare kings, which need no table, are left out.
+    List<EndgameMaterial> getSuccessors() {
+        final int[][] counts = getCounts();
+        final Set<String> names = new LinkedHashSet<>();
+        final List<EndgameMaterial> successors = new ArrayList<>();
+        for(int side = 0; side < 2; side++) {
+            for(int captured = -1; captured < KING; captured++) {
+                if(captured >= 0 && counts[1 - side][captured] == 0) {
+                    continue;
+                }
+                for(int promotion = -1; promotion < KING; promotion++) {
+                    if(promotion == PAWN || (promotion >= 0 && counts[side][PAWN] == 0) || (captured < 0 && promotion < 0)
+                       || (captured == PAWN && promotion >= 0)) { // A pawn is never on the promotion rank to be captured
+                        continue;
+                    }
+                    // side captures a piece of the other side and/or promotes one of its pawns
+                    final int[][] successor = {counts[0].clone(), counts[1].clone()};
+                    if(captured >= 0) {
+                        successor[1 - side][captured]--;
+                    }
+                    if(promotion >= 0) {
+                        successor[side][PAWN]--;
+                        successor[side][promotion]++;
+                    }
+                    final EndgameMaterial material = create(successor[0], successor[1]);
+                    if(material.pieceCodes.length > 2 && names.add(material.name)) {
+                        successors.add(material);
+                    }
+                }
+            }
+        }
+        return successors;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    int getPieceCount() {
+        return this.pieceCodes.length;
+    }
+
+    int getPieceCode(final int piece) {
+        return this.pieceCodes[piece];
+    }
+
+    boolean isPawn(final int piece) {
+        return this.pieceCodes[piece] % PIECE_TYPES == PAWN;
+    }
+
+    boolean hasPawns() {
+        return this.hasPawns;
+    }
+
+    // The number of pieces of each kind and colour, 4 bits for each piece code
+    long getSignature() {
+        return this.signature;
+    }
+
+    long getPositionsPerSide() {
+        return this.positionsPerSide;
+    }
+
+    // The signature of the pieces on a board
+    static long signature(final SearchBoard board) {
+        long signature = 0;
+        for(final Type type : Type.values()) {
+            for(final PieceType pieceType : PieceType.values()) {
+                signature += (long) BitBoard.count(board.getPieceBitboard(type, pieceType)) << (BitBoard.index(type, pieceType) * COUNT_BITS);
+            }
+        }
+        return signature;
+    }
+
+    // The signature with the colours swapped
+    static long swapColours(final long signature) {
+        return ((signature & SIDE_MASK) << SIDE_BITS) | (signature >>> SIDE_BITS);
+    }
+
+    // Numbers the position of the board, which must have this material (or this material with the colours swapped, in
+    // which case the board is read with the colours swapped and mirrored top to bottom). tiles has room for the pieces.
+    long index(final SearchBoard board, final boolean swapped, final int[] tiles) {
+        long pieces = 0;
+        for(int i = 0; i < this.pieceCodes.length; i++) {
+            if(i > 0 && this.pieceCodes[i] == this.pieceCodes[i - 1]) {
+                pieces = BitBoard.popLowest(pieces); // The next piece of the same kind
+            } else {
+                final int pieceCode = swapped ? (this.pieceCodes[i] + PIECE_TYPES) % (2 * PIECE_TYPES) : this.pieceCodes[i];
+                pieces = board.getPieceBitboard(Type.values()[pieceCode / PIECE_TYPES], PieceType.values()[pieceCode % PIECE_TYPES]);
+            }
+            tiles[i] = swapped ? BitBoard.lowestTile(pieces) ^ 56 : BitBoard.lowestTile(pieces);
+        }
+        return index(tiles);
+    }
+
+    // Numbers a position given the tiles of its pieces in this material's order
+    long index(final int[] tiles) {
+        final int[] transformed = TRANSFORMED_TILES[this.hasPawns ? PAWN_TRANSFORM[tiles[0]] : PAWNLESS_TRANSFORM[tiles[0]]];
+        long index = this.hasPawns ? PAWN_KING_SLOTS[transformed[tiles[0]]] : PAWNLESS_KING_SLOTS[transformed[tiles[0]]];
+        for(int i = 1; i < this.pieceCodes.length; i++) {
+            index = index * 64 + transformed[tiles[i]];
+        }
+        return index;
+    }
+
+    // A pawnless position with the white king on the a1-h8 diagonal is numbered twice, as it is and mirrored in the
+    // diagonal. Returns the number of the mirrored one, or -1 if the position is numbered once.
+    long mirroredIndex(final int[] tiles) {
+        final int[] transformed = TRANSFORMED_TILES[PAWNLESS_TRANSFORM[tiles[0]]];
+        if(this.hasPawns || !isOnDiagonal(transformed[tiles[0]])) {
+            return -1;
+        }
+        final int[] mirrored = TRANSFORMED_TILES[DIAGONAL_MIRROR];
+        long index = PAWNLESS_KING_SLOTS[mirrored[transformed[tiles[0]]]];
+        for(int i = 1; i < this.pieceCodes.length; i++) {
+            index = index * 64 + mirrored[transformed[tiles[i]]];
+        }
+        return index;
+    }
+
+    // The tiles of the pieces of a numbered position. They may overlap: not every number is a position.
+    void tiles(long index, final int[] tiles) {
+        for(int i = this.pieceCodes.length - 1; i > 0; i--) {
+            tiles[i] = (int) (index & 63);
+            index >>>= 6;
+        }
+        tiles[0] = this.hasPawns ? PAWN_KING_TILES[(int) index] : PAWNLESS_KING_TILES[(int) index];
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    // Builds the material with the stronger side as white
+    private static EndgameMaterial create(final int[] first, final int[] second) {
+        final boolean swap = compareSides(first, second) < 0;
+        final int[] white = swap ? second : first;
+        final int[] black = swap ? first : second;
+        final StringBuilder name = new StringBuilder();
+        final int[] pieceCodes = new int[sum(white) + sum(black)];
+        pieceCodes[0] = BitBoard.index(Type.WHITE, PieceType.KING);
+        pieceCodes[1] = BitBoard.index(Type.BLACK, PieceType.KING);
+        int count = 2;
+        for(final Type type : Type.values()) {
+            final int[] counts = type.isWhite() ? white : black;
+            name.append(type.isWhite() ? "" : "v");
+            for(final char letter : NAME_ORDER.toCharArray()) {
+                final int pieceType = PIECE_LETTERS.indexOf(letter);
+                for(int i = 0; i < counts[pieceType]; i++) {
+                    name.append(letter);
+                    if(pieceType != KING) {
+                        pieceCodes[count++] = type.ordinal() * PIECE_TYPES + pieceType;
+                    }
+                }
+            }
+        }
+        return new EndgameMaterial(name.toString(), pieceCodes);
+    }
+
+    private static int[] countPieces(final String side, final String material) {
+        final int[] counts = new int[PIECE_TYPES];
+        for(final char letter : side.toCharArray()) {
+            final int pieceType = PIECE_LETTERS.indexOf(letter);
+            if(pieceType < 0) {
+                throw new IllegalArgumentException("Unknown piece " + letter + " in " + material);
+            }
+            counts[pieceType]++;
+        }
+        if(counts[KING] != 1) {
+            throw new IllegalArgumentException("Each side needs exactly one king: " + material);
+        }
+        return counts;
+    }
+
+    // Orders the sides by the value of their pieces, then by their strongest pieces
+    private static int compareSides(final int[] first, final int[] second) {
+        final int byValue = Integer.compare(value(first), value(second));
+        if(byValue != 0) {
+            return byValue;
+        }
+        for(int pieceType = KING - 1; pieceType >= 0; pieceType--) {
+            if(first[pieceType] != second[pieceType]) {
+                return Integer.compare(first[pieceType], second[pieceType]);
+            }
+        }
+        return 0;
+    }
+
+    private static int value(final int[] counts) {
+        int value = 0;
+        for(int pieceType = 0; pieceType < PIECE_TYPES; pieceType++) {
+            value += counts[pieceType] * PIECE_VALUES[pieceType];
+        }
+        return value;
+    }
+
+    private static int sum(final int[] counts) {
+        int sum = 0;
+        for(final int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private int[][] getCounts() {
+        final int[][] counts = new int[2][PIECE_TYPES];
+        counts[0][KING] = 1;
+        counts[1][KING] = 1;
+        for(int i = 2; i < this.pieceCodes.length; i++) {
+            counts[this.pieceCodes[i] / PIECE_TYPES][this.pieceCodes[i] % PIECE_TYPES]++;
+        }
+        return counts;
+    }
+
+    // a1-h8 (tiles count from a8)
+    private static boolean isOnDiagonal(final int tile) {
+        return (tile & 7) + (tile >>> 3) == 7;
+    }
+
+    // a1-d1-d4 (tiles count from a8)
+    private static boolean isInTriangle(final int tile) {
+        final int file = tile & 7;
+        final int rank = 7 - (tile >>> 3);
+        return file < 4 && rank <= file;
+    }
+}
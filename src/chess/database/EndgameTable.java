@@ -0,0 +1,106 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import chess.Type;
+import chess.board.SearchBoard;
+/* End of package imports*/
+
+/* The solved positions of one material (see EndgameMaterial), memory mapped from a file written by TablebaseGenerator.
+* Every position has one byte: DRAW, ILLEGAL, or MATE + n for a position n plies before mate, which the side to move
+* wins if n is odd and loses if n is even.
+*
+* File layout (big-endian): MAGIC (int), VERSION (int), material signature (long), positions per side (long), longest
+* mate in plies (int), unused (int), then a byte for every position with white to move, then for black to move.
+*/
+final class EndgameTable implements Closeable {
+
+    static final int MAGIC = 0x454C5442; // "ELTB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final String FILE_EXTENSION = ".tb";
+
+    // Position values. During generation DRAW also marks the positions not solved yet.
+    static final int DRAW = 0;
+    static final int ILLEGAL = 1;
+    static final int MATE = 2;
+    static final int MAX_PLIES = 0xFF - MATE;
+
+    private final EndgameMaterial material;
+    private final MappedFile file;
+    private final int longestMate;
+
+    private EndgameTable(final EndgameMaterial material, final MappedFile file) throws IOException {
+        this.material = material;
+        this.file = file;
+        if(file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not an endgame table");
+        }
+        if(file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported endgame table version " + file.getInt(4));
+        }
+        if(file.getLong(8) != material.getSignature() || file.getLong(16) != material.getPositionsPerSide()
+           || file.size() != HEADER_SIZE + 2 * material.getPositionsPerSide()) {
+            throw new IOException("Corrupt endgame table: it does not hold the positions of " + material);
+        }
+        this.longestMate = file.getInt(24);
+    }
+
+    // Opens the table of a file named after its material, e.g. KRvK.tb
+    static EndgameTable open(final Path path) throws IOException {
+        final String fileName = path.getFileName().toString();
+        final EndgameMaterial material = EndgameMaterial.parse(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+        final MappedFile file = new MappedFile(path);
+        try {
+            return new EndgameTable(material, file);
+        } catch(final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Writes the values of both sides to the table's file in the directory. The file only appears once it is complete.
+    static void write(final Path directory, final EndgameMaterial material, final byte[][] values, final int longestMate) throws IOException {
+        final Path path = directory.resolve(material.getName() + FILE_EXTENSION);
+        final Path partial = directory.resolve(material.getName() + FILE_EXTENSION + ".partial");
+        try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(material.getSignature());
+            out.writeLong(material.getPositionsPerSide());
+            out.writeInt(longestMate);
+            out.writeInt(0);
+            for(final byte[] side : values) {
+                out.write(side);
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    EndgameMaterial getMaterial() {
+        return this.material;
+    }
+
+    int getLongestMate() {
+        return this.longestMate;
+    }
+
+    // The value of the board's position, which has this table's material, or with swapped set the material with the
+    // colours swapped
+    int probe(final SearchBoard board, final boolean swapped) {
+        final long index = this.material.index(board, swapped, new int[this.material.getPieceCount()]);
+        final int side = (board.getSideToMove() == Type.WHITE) != swapped ? 0 : 1;
+        return this.file.get(HEADER_SIZE + side * this.material.getPositionsPerSide() + index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+}
@@ -0,0 +1,228 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import chess.board.Board;
+import chess.board.Fen;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+/* End of package imports*/
+
+/* A read-only game database in the binary format written by GameDatabaseWriter.
+* The file is memory mapped, so opening it reads nothing but the header and any game is found through the index in
+* constant time. Moves are stored as 16-bit packed moves (see PackedMove), so a game is replayed by decoding them against
+* the board instead of parsing SAN. Only what is asked for is copied onto the heap. The file is mapped in segments (see
+* MappedFile), so it may be larger than 2 GB.
+*
+* File layout (big-endian):
+*   header   MAGIC (int), VERSION (int), game count (int), unused (int), index offset (long), unused (long)
+*   games    for each game: ply count (u16), result (u8), unused (u8), the moves (u16 each),
+*            the FEN of the start position (u16 length + ASCII, length 0 for the standard position),
+*            the tags (u8 count, then u16 length + UTF-8 for each name and value)
+*   index    the offset of each game (long)
+*/
+public final class GameDatabase implements Closeable {
+
+    static final int MAGIC = 0x454C4442; // "ELDB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int GAME_HEADER_SIZE = 4; // Ply count, result and a spare byte before the moves
+
+    // Results, stored as one byte
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    private final MappedFile file;
+    private final int gameCount;
+    private final long indexOffset;
+
+    private GameDatabase(final MappedFile file) throws IOException {
+        this.file = file;
+        if(file.size() < HEADER_SIZE) {
+            throw new IOException("Not a game database: the file is too short");
+        }
+        if(file.getInt(0) != MAGIC) {
+            throw new IOException("Not a game database: wrong magic number");
+        }
+        if(file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported game database version " + file.getInt(4));
+        }
+        this.gameCount = file.getInt(8);
+        this.indexOffset = file.getLong(16);
+        if(this.gameCount < 0 || this.indexOffset < HEADER_SIZE || this.indexOffset + 8L * this.gameCount > file.size()) {
+            throw new IOException("Corrupt game database: the index lies outside the file");
+        }
+    }
+
+    public static GameDatabase open(final Path path) throws IOException {
+        final MappedFile file = new MappedFile(path);
+        try {
+            return new GameDatabase(file);
+        } catch(final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    public int getPlyCount(final int game) {
+        return this.file.getUnsignedShort(gameOffset(game));
+    }
+
+    // "1-0", "0-1", "1/2-1/2" or "*"
+    public String getResult(final int game) {
+        return RESULTS[this.file.get(gameOffset(game) + 2)];
+    }
+
+    // The packed move (see PackedMove) played at the given ply of a game, counting from 0
+    public int getMove(final int game, final int ply) {
+        final long offset = gameOffset(game);
+        if(ply < 0 || ply >= this.file.getUnsignedShort(offset)) {
+            throw new IndexOutOfBoundsException("Game " + game + " has no ply " + ply);
+        }
+        return this.file.getUnsignedShort(offset + GAME_HEADER_SIZE + 2L * ply);
+    }
+
+    public int[] getMoves(final int game) {
+        final long offset = gameOffset(game);
+        final int[] moves = new int[this.file.getUnsignedShort(offset)];
+        for(int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = this.file.getUnsignedShort(offset + GAME_HEADER_SIZE + 2L * ply);
+        }
+        return moves;
+    }
+
+    // The FEN of the position the game starts from
+    public String getStartFen(final int game) {
+        final long fenOffset = fenOffset(gameOffset(game));
+        final int length = this.file.getUnsignedShort(fenOffset);
+        return length == 0 ? Fen.STANDARD_POSITION : this.file.getString(fenOffset + 2, length);
+    }
+
+    public Board createStartBoard(final int game) {
+        final long fenOffset = fenOffset(gameOffset(game));
+        return this.file.getUnsignedShort(fenOffset) == 0 ? Board.createStandardBoard() : Fen.parse(getStartFen(game));
+    }
+
+    public Map<String, String> getTags(final int game) {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        final long fenOffset = fenOffset(gameOffset(game));
+        long offset = fenOffset + 2 + this.file.getUnsignedShort(fenOffset);
+        final int tagCount = this.file.get(offset++);
+        for(int i = 0; i < tagCount; i++) {
+            final int nameLength = this.file.getUnsignedShort(offset);
+            final String name = this.file.getString(offset + 2, nameLength);
+            offset += 2 + nameLength;
+            final int valueLength = this.file.getUnsignedShort(offset);
+            tags.put(name, this.file.getString(offset + 2, valueLength));
+            offset += 2 + valueLength;
+        }
+        return tags;
+    }
+
+    // The value of one tag of a game, or null if it does not have it
+    public String getTag(final int game, final String name) {
+        final long valueOffset = findTagValue(game, name.getBytes(StandardCharsets.UTF_8));
+        return valueOffset < 0 ? null : this.file.getString(valueOffset + 2, this.file.getUnsignedShort(valueOffset));
+    }
+
+    // Replays a game from its start position. Each Move belongs to the board it was played on (Move.getBoard).
+    public List<Move> replay(final int game) {
+        final int[] packedMoves = getMoves(game);
+        final List<Move> moves = new ArrayList<>(packedMoves.length);
+        Board board = createStartBoard(game);
+        for(final int packedMove : packedMoves) {
+            final Move move = PackedMove.decode(board, packedMove);
+            if(move == Move.NULL_MOVE) {
+                throw new IllegalStateException("Corrupt game " + game + ": " + PackedMove.toString(packedMove) + " is not legal");
+            }
+            moves.add(move);
+            board = move.execute();
+        }
+        return moves;
+    }
+
+    // The position after the first plies of a game, played on a SearchBoard without building the boards in between
+    public Board getBoard(final int game, final int plies) {
+        final SearchBoard board = new SearchBoard(createStartBoard(game));
+        for(int ply = 0; ply < plies; ply++) {
+            board.makeMove(getMove(game, ply));
+        }
+        return board.toBoard();
+    }
+
+    // The games with the given tag value, e.g. findGames("White", "Morphy, Paul"). The tags are compared as bytes in
+    // the mapped file, without decoding them.
+    public int[] findGames(final String tagName, final String value) {
+        final byte[] nameBytes = tagName.getBytes(StandardCharsets.UTF_8);
+        final byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int[] found = new int[16];
+        int count = 0;
+        for(int game = 0; game < this.gameCount; game++) {
+            final long valueOffset = findTagValue(game, nameBytes);
+            if(valueOffset >= 0 && matches(valueOffset, valueBytes)) {
+                if(count == found.length) {
+                    found = Arrays.copyOf(found, count * 2);
+                }
+                found[count++] = game;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+    private long gameOffset(final int game) {
+        if(game < 0 || game >= this.gameCount) {
+            throw new IndexOutOfBoundsException("No game " + game + " in a database of " + this.gameCount);
+        }
+        return this.file.getLong(this.indexOffset + 8L * game);
+    }
+
+    private long fenOffset(final long gameOffset) {
+        return gameOffset + GAME_HEADER_SIZE + 2L * this.file.getUnsignedShort(gameOffset);
+    }
+
+    // The offset of the length-prefixed value of a tag, or -1 if the game does not have the tag
+    private long findTagValue(final int game, final byte[] name) {
+        final long fenOffset = fenOffset(gameOffset(game));
+        long offset = fenOffset + 2 + this.file.getUnsignedShort(fenOffset);
+        final int tagCount = this.file.get(offset++);
+        for(int i = 0; i < tagCount; i++) {
+            final boolean found = matches(offset, name);
+            offset += 2 + this.file.getUnsignedShort(offset);
+            if(found) {
+                return offset;
+            }
+            offset += 2 + this.file.getUnsignedShort(offset);
+        }
+        return -1;
+    }
+
+    // Whether the length-prefixed string at the offset holds exactly these bytes
+    private boolean matches(final long offset, final byte[] bytes) {
+        if(this.file.getUnsignedShort(offset) != bytes.length) {
+            return false;
+        }
+        for(int i = 0; i < bytes.length; i++) {
+            if(this.file.get(offset + 2 + i) != (bytes[i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import chess.board.Board;
+import chess.board.Fen;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+/* End of package imports*/
+
+/* Writes a game database (see GameDatabase for the format). Games are appended one at a time and the index is written
+* when the writer is closed, so only the index offsets are kept in memory while writing.
+*
+* Usage: GameDatabaseWriter games.pgn games.db
+* converts a PGN file, skipping (and counting) games with illegal moves.
+*/
+public final class GameDatabaseWriter implements Closeable {
+
+    private static final int MAX_PLIES = 0xFFFF;
+    private static final int MAX_TAGS = 0xFF;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final Board STANDARD_BOARD = Board.createStandardBoard();
+
+    private final FileChannel channel;
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(1024);
+    private final DataOutputStream record = new DataOutputStream(this.recordBytes);
+    private long[] gameOffsets = new long[1024];
+    private int gameCount;
+    private long position = GameDatabase.HEADER_SIZE;
+
+    public GameDatabaseWriter(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(this.channel), 1 << 16));
+        this.output.write(new byte[GameDatabase.HEADER_SIZE]); // Filled in on close, once the index offset is known
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    // Replays a PGN game and adds it. Throws IllegalArgumentException if a move is not legal.
+    public void add(final PgnGame game) throws IOException {
+        add(game.createStartBoard(), game.replay(), game.getTags(), game.getResult());
+    }
+
+    // Adds a game given as its start board and the moves played from it
+    public void add(final Board startBoard, final List<Move> moves, final Map<String, String> tags, final String result)
+            throws IOException {
+        if(moves.size() > MAX_PLIES) {
+            throw new IllegalArgumentException("A game can have at most " + MAX_PLIES + " plies, not " + moves.size());
+        }
+        if(tags.size() > MAX_TAGS) {
+            throw new IllegalArgumentException("A game can have at most " + MAX_TAGS + " tags, not " + tags.size());
+        }
+        final int resultCode = Arrays.asList(GameDatabase.RESULTS).indexOf(result);
+
+        this.recordBytes.reset();
+        this.record.writeShort(moves.size());
+        this.record.writeByte(Math.max(0, resultCode)); // Unknown results are stored as "*"
+        this.record.writeByte(0);
+        for(final Move move : moves) {
+            this.record.writeShort(PackedMove.encode(move));
+        }
+        writeString(startBoard.equals(STANDARD_BOARD) ? "" : Fen.toFen(startBoard));
+        this.record.writeByte(tags.size());
+        for(final Map.Entry<String, String> tag : tags.entrySet()) {
+            writeString(tag.getKey());
+            writeString(tag.getValue());
+        }
+
+        if(this.gameCount == this.gameOffsets.length) {
+            this.gameOffsets = Arrays.copyOf(this.gameOffsets, this.gameCount * 2);
+        }
+        this.gameOffsets[this.gameCount++] = this.position;
+        this.recordBytes.writeTo(this.output);
+        this.position += this.recordBytes.size();
+    }
+
+    // Writes the index and the header. The file can only be opened by GameDatabase once the writer is closed.
+    @Override
+    public void close() throws IOException {
+        try {
+            final long indexOffset = this.position;
+            for(int game = 0; game < this.gameCount; game++) {
+                this.output.writeLong(this.gameOffsets[game]);
+            }
+            this.output.flush();
+            final ByteBuffer header = ByteBuffer.allocate(GameDatabase.HEADER_SIZE);
+            header.putInt(GameDatabase.MAGIC).putInt(GameDatabase.VERSION).putInt(this.gameCount).putInt(0)
+                  .putLong(indexOffset).putLong(0L).flip();
+            while(header.hasRemaining()) {
+                this.channel.write(header, header.position());
+            }
+        } finally {
+            this.output.close();
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Strings are limited to " + MAX_STRING_BYTES + " bytes");
+        }
+        this.record.writeShort(bytes.length);
+        this.record.write(bytes);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: GameDatabaseWriter games.pgn games.db");
+            return;
+        }
+        final long start = System.nanoTime();
+        final long[] skipped = {0};
+        try(final GameDatabaseWriter writer = new GameDatabaseWriter(Paths.get(args[1]))) {
+            PgnReader.forEachGame(Paths.get(args[0]), game -> {
+                try {
+                    writer.add(game);
+                } catch(final IllegalArgumentException e) {
+                    skipped[0]++;
+                } catch(final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format("%,d games written, %,d skipped, %.1fs (%,.0f games/s)", writer.getGameCount(),
+                                             skipped[0], seconds, writer.getGameCount() / seconds));
+        }
+    }
+}
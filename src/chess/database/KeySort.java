@@ -0,0 +1,46 @@
+package chess.database;
+
+/* Start of package imports */
+import java.util.Arrays;
+/* End of package imports*/
+
+/* Sorts (key, value) pairs held in two parallel long arrays by key, the way the on-disk indexes are ordered.
+* It is an LSD radix sort, one byte of the key per pass, so it takes linear time on the millions of entries of an index
+* batch. Keys are ordered as unsigned numbers, and the sort is stable: pairs with equal keys keep their order.
+*/
+final class KeySort {
+
+    private KeySort() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // Sorts the first size pairs of the arrays in place
+    static void sort(final long[] keys, final long[] values, final int size) {
+        long[] fromKeys = keys;
+        long[] fromValues = values;
+        long[] toKeys = new long[size];
+        long[] toValues = new long[size];
+        final int[] counts = new int[257];
+        for(int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            Arrays.fill(counts, 0);
+            for(int i = 0; i < size; i++) {
+                counts[((int) (fromKeys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            for(int i = 0; i < 256; i++) {
+                counts[i + 1] += counts[i];
+            }
+            for(int i = 0; i < size; i++) {
+                final int destination = counts[(int) (fromKeys[i] >>> shift) & 0xFF]++;
+                toKeys[destination] = fromKeys[i];
+                toValues[destination] = fromValues[i];
+            }
+            final long[] swapKeys = fromKeys;
+            final long[] swapValues = fromValues;
+            fromKeys = toKeys;
+            fromValues = toValues;
+            toKeys = swapKeys;
+            toValues = swapValues;
+        }
+        // After an even number of passes the sorted pairs are back in the given arrays
+    }
+}
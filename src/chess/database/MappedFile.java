@@ -0,0 +1,80 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/* End of package imports*/
+
+/* A whole file mapped read-only into memory, read by absolute offset (big-endian).
+* A single mapping is at most 2 GB, so the file is mapped as segments of 1 GB and every read picks its segment; a value
+* that straddles two segments is put together byte by byte. Absolute reads do not move any buffer position, so a
+* MappedFile can be read from several threads at once.
+*/
+final class MappedFile implements Closeable {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    MappedFile(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = this.channel.size();
+            this.segments = new MappedByteBuffer[(int) ((this.size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for(int i = 0; i < this.segments.length; i++) {
+                final long start = i * SEGMENT_SIZE;
+                this.segments[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, this.size - start));
+            }
+        } catch(final IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    long size() {
+        return this.size;
+    }
+
+    int get(final long offset) {
+        return this.segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK)) & 0xFF;
+    }
+
+    int getUnsignedShort(final long offset) {
+        return (get(offset) << 8) | get(offset + 1);
+    }
+
+    int getInt(final long offset) {
+        return (getUnsignedShort(offset) << 16) | getUnsignedShort(offset + 2);
+    }
+
+    long getLong(final long offset) {
+        final int position = (int) (offset & SEGMENT_MASK);
+        if(position <= SEGMENT_SIZE - Long.BYTES) {
+            return this.segments[(int) (offset >>> SEGMENT_BITS)].getLong(position);
+        }
+        return ((long) getInt(offset) << 32) | (getInt(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    String getString(final long offset, final int length) {
+        final byte[] bytes = new byte[length];
+        for(int i = 0; i < length; i++) {
+            bytes[i] = (byte) get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The mappings stay valid until they are garbage collected; closing only releases the file
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,158 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+/* End of package imports*/
+
+/* An opening book in the style of Polyglot: a file of 16 byte entries sorted by position key, each holding a move that
+* was played in the position and a weight saying how good it proved. The book is memory mapped and looked up with a
+* binary search, so opening it costs nothing however large it is and a lookup touches a few pages.
+* The keys leave out en passant files no pawn can capture on (see Zobrist), so a position finds the moves recorded for it
+* whatever move order reached it.
+*
+* Entry layout (big-endian): Zobrist key (long), packed move (u16), weight (u16), unused (int). Polyglot books use their
+* own keys and move encoding, so they cannot be read directly; OpeningBookBuilder writes books from games.
+* File layout: MAGIC (int), VERSION (int), entry count (long), unused (16 bytes), then the entries ordered by unsigned key.
+*/
+public final class OpeningBook implements Closeable {
+
+    static final int MAGIC = 0x454C4F42; // "ELOB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 16;
+
+    private final MappedFile file;
+    private final long entryCount;
+
+    private OpeningBook(final MappedFile file) throws IOException {
+        this.file = file;
+        if(file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book");
+        }
+        if(file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported opening book version " + file.getInt(4));
+        }
+        this.entryCount = file.getLong(8);
+        if(this.entryCount < 0 || HEADER_SIZE + this.entryCount * ENTRY_SIZE > file.size()) {
+            throw new IOException("Corrupt opening book: the entries lie outside the file");
+        }
+    }
+
+    public static OpeningBook open(final Path path) throws IOException {
+        final MappedFile file = new MappedFile(path);
+        try {
+            return new OpeningBook(file);
+        } catch(final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public long getEntryCount() {
+        return this.entryCount;
+    }
+
+    // The book moves of the position with their weights, in the order they are stored (heaviest first)
+    public List<BookMove> getMoves(final Board board) {
+        final List<BookMove> moves = new ArrayList<>();
+        final long key = board.getZobristKey();
+        for(long entry = findFirst(key); entry < this.entryCount && getKey(entry) == key; entry++) {
+            final Move move = PackedMove.decode(board, getMove(entry));
+            if(move != Move.NULL_MOVE) { // Only a Zobrist key collision with another position can give an illegal move
+                moves.add(new BookMove(move, getWeight(entry)));
+            }
+        }
+        return moves;
+    }
+
+    // Picks a book move at random, each with a chance proportional to its weight, or Move.NULL_MOVE if the position is
+    // not in the book
+    public Move chooseMove(final Board board) {
+        return chooseMove(board, ThreadLocalRandom.current());
+    }
+
+    public Move chooseMove(final Board board, final Random random) {
+        final List<BookMove> moves = getMoves(board);
+        int totalWeight = 0;
+        for(final BookMove move : moves) {
+            totalWeight += move.getWeight();
+        }
+        if(totalWeight == 0) {
+            return Move.NULL_MOVE;
+        }
+        int pick = random.nextInt(totalWeight);
+        for(final BookMove move : moves) {
+            pick -= move.getWeight();
+            if(pick < 0) {
+                return move.getMove();
+            }
+        }
+        return Move.NULL_MOVE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+    // The first entry whose key is not below the given key (entryCount if there is none)
+    private long findFirst(final long key) {
+        long low = 0;
+        long high = this.entryCount;
+        while(low < high) {
+            final long middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(final long entry) {
+        return this.file.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private int getMove(final long entry) {
+        return this.file.getUnsignedShort(HEADER_SIZE + entry * ENTRY_SIZE + 8);
+    }
+
+    private int getWeight(final long entry) {
+        return this.file.getUnsignedShort(HEADER_SIZE + entry * ENTRY_SIZE + 10);
+    }
+
+    // A move of the book and its weight
+    public static final class BookMove {
+
+        private final Move move;
+        private final int weight;
+
+        BookMove(final Move move, final int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+
+        public Move getMove() {
+            return this.move;
+        }
+
+        public int getWeight() {
+            return this.weight;
+        }
+
+        @Override
+        public String toString() {
+            return this.move + " " + this.weight;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import chess.Type;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+/* End of package imports*/
+
+/* Builds an OpeningBook from a collection of games. Every position of the first plies of each game is recorded with the
+* move played in it and the points that move scored for the side that played it: 2 for a win, 1 for a draw, 0 for a
+* loss, as Polyglot weights its books. Positions are collected as (key, move and points) pairs, sorted by key with
+* KeySort, and each position's moves are summed up into one entry per move; a move's weight is the points it scored.
+* Moves played fewer than minGames times, or that never scored, are left out.
+*
+* Usage: OpeningBookBuilder games.pgn|games.db book.bin [maxPly] [minGames]
+*/
+public final class OpeningBookBuilder {
+
+    public static final int DEFAULT_MAX_PLY = 20;
+    public static final int DEFAULT_MIN_GAMES = 2;
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    // Value layout: packed move (upper 32 bits) | points (lower 32 bits)
+    private static final int MOVE_SHIFT = 32;
+
+    private final int maxPly;
+    private final int minGames;
+    private long[] keys = new long[1 << 16];
+    private long[] values = new long[1 << 16];
+    private int size;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY, DEFAULT_MIN_GAMES);
+    }
+
+    public OpeningBookBuilder(final int maxPly, final int minGames) {
+        if(maxPly < 1 || minGames < 1) {
+            throw new IllegalArgumentException("The book needs at least 1 ply of at least 1 game");
+        }
+        this.maxPly = maxPly;
+        this.minGames = minGames;
+    }
+
+    // Adds the opening of a PGN game. Unfinished games score nothing for either side, so they only add to the count.
+    public void addGame(final PgnGame game) {
+        final List<Move> moves = game.replay();
+        final String result = game.getResult();
+        for(int ply = 0; ply < Math.min(this.maxPly, moves.size()); ply++) {
+            final Move move = moves.get(ply);
+            final Board board = move.getBoard();
+            add(board.getZobristKey(), PackedMove.encode(move), points(result, board.currentPlayer().getType()));
+        }
+    }
+
+    // Adds the opening of a game of a database, played on a SearchBoard, which keeps the same keys as Board
+    public void addGame(final GameDatabase database, final int game) {
+        final SearchBoard board = new SearchBoard(database.createStartBoard(game));
+        final int[] moves = database.getMoves(game);
+        final String result = database.getResult(game);
+        for(int ply = 0; ply < Math.min(this.maxPly, moves.length); ply++) {
+            add(board.getZobristKey(), moves[ply], points(result, board.getSideToMove()));
+            board.makeMove(moves[ply]);
+        }
+    }
+
+    public void addAll(final GameDatabase database) {
+        for(int game = 0; game < database.getGameCount(); game++) {
+            addGame(database, game);
+        }
+    }
+
+    // Writes the book and returns the number of entries in it
+    public long write(final Path output) throws IOException {
+        KeySort.sort(this.keys, this.values, this.size);
+        final long[] entries = new long[this.size]; // Entry layout: packed move (upper 32 bits) | weight (lower 32 bits)
+        int entryCount = 0;
+        final int[] moves = new int[SearchBoard.MAX_MOVES];
+        final long[] points = new long[SearchBoard.MAX_MOVES];
+        final long[] entryKeys = new long[this.size];
+        int start = 0;
+        while(start < this.size) {
+            int end = start + 1;
+            while(end < this.size && this.keys[end] == this.keys[start]) {
+                end++;
+            }
+            // Sorting the values of the position puts the plays of each move next to each other
+            Arrays.sort(this.values, start, end);
+            int moveCount = 0;
+            long highest = 0;
+            for(int i = start; i < end; ) {
+                final int move = (int) (this.values[i] >>> MOVE_SHIFT);
+                int games = 0;
+                long score = 0;
+                for(; i < end && (int) (this.values[i] >>> MOVE_SHIFT) == move; i++) {
+                    games++;
+                    score += (int) this.values[i];
+                }
+                if(games >= this.minGames && score > 0 && moveCount < moves.length) {
+                    moves[moveCount] = move;
+                    points[moveCount] = score;
+                    moveCount++;
+                    highest = Math.max(highest, score);
+                }
+            }
+            // Scales the weights of a position down together if the best move scored more than fits in a weight
+            final long first = entryCount;
+            for(int i = 0; i < moveCount; i++) {
+                final long weight = highest <= MAX_WEIGHT ? points[i] : Math.max(1, points[i] * MAX_WEIGHT / highest);
+                entryKeys[entryCount] = this.keys[start];
+                entries[entryCount++] = ((long) moves[i] << MOVE_SHIFT) | weight;
+            }
+            sortByWeight(entries, (int) first, entryCount);
+            start = end;
+        }
+        try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeLong(entryCount);
+            out.write(new byte[OpeningBook.HEADER_SIZE - 16]);
+            for(int i = 0; i < entryCount; i++) {
+                out.writeLong(entryKeys[i]);
+                out.writeShort((int) (entries[i] >>> MOVE_SHIFT));
+                out.writeShort((int) entries[i]);
+                out.writeInt(0);
+            }
+        }
+        return entryCount;
+    }
+
+    private void add(final long key, final int move, final int points) {
+        if(this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.keys[this.size] = key;
+        this.values[this.size] = ((long) move << MOVE_SHIFT) | points;
+        this.size++;
+    }
+
+    // The points a game's result gives the side to move
+    private static int points(final String result, final Type sideToMove) {
+        switch(result) {
+            case "1-0":
+                return sideToMove.isWhite() ? 2 : 0;
+            case "0-1":
+                return sideToMove.isWhite() ? 0 : 2;
+            case "1/2-1/2":
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    // Orders the few entries of one position heaviest first (an insertion sort, a position has only a handful of moves)
+    private static void sortByWeight(final long[] entries, final int from, final int to) {
+        for(int i = from + 1; i < to; i++) {
+            final long entry = entries[i];
+            int j = i - 1;
+            while(j >= from && (int) entries[j] < (int) entry) {
+                entries[j + 1] = entries[j];
+                j--;
+            }
+            entries[j + 1] = entry;
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: OpeningBookBuilder games.pgn|games.db book.bin [maxPly] [minGames]");
+            return;
+        }
+        final Path input = Paths.get(args[0]);
+        final Path bookFile = Paths.get(args[1]);
+        final int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+        final int minGames = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MIN_GAMES;
+        final long start = System.nanoTime();
+        final OpeningBookBuilder builder = new OpeningBookBuilder(maxPly, minGames);
+        long games = 0;
+        long skipped = 0;
+        if(input.getFileName().toString().toLowerCase().endsWith(".pgn")) {
+            try(final PgnReader reader = PgnReader.open(input)) {
+                for(PgnGame game = reader.next(); game != null; game = reader.next()) {
+                    try {
+                        builder.addGame(game);
+                        games++;
+                    } catch(final IllegalArgumentException e) {
+                        skipped++;
+                    }
+                }
+            }
+        } else {
+            try(final GameDatabase database = GameDatabase.open(input)) {
+                builder.addAll(database);
+                games = database.getGameCount();
+            }
+        }
+        final long entries = builder.write(bookFile);
+        System.out.println(String.format("%,d games read, %,d skipped, %,d book entries, %.1fs", games, skipped, entries,
+                                         (System.nanoTime() - start) / 1e9));
+        try(final OpeningBook book = OpeningBook.open(bookFile)) {
+            for(final OpeningBook.BookMove move : book.getMoves(Board.createStandardBoard())) {
+                System.out.println("  " + move);
+            }
+        }
+    }
+}
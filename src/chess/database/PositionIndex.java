@@ -0,0 +1,268 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+/* End of package imports*/
+
+/* An on-disk index from positions to the games and plies they occur at, for an opening explorer.
+* Each occurrence of a position is one 16 byte entry: the position's Zobrist key, and the game, the ply and the move
+* played next (PackedMove.NONE after the last move) packed into one long. The entries are sorted by key, so the
+* occurrences of a position are found with a binary search over the memory-mapped file and lie next to each other.
+* A position is found however the games reached it: the key only includes an en passant file that a pawn can capture on
+* (see Zobrist).
+*
+* File layout (big-endian): MAGIC (int), VERSION (int), entry count (long), unused (16 bytes), then the entries as
+* (key, occurrence) long pairs. Keys are ordered as unsigned numbers. Indexes are built by PositionIndexBuilder, and
+* indexes of separate batches of games are combined with merge.
+*/
+public final class PositionIndex implements Closeable {
+
+    static final int MAGIC = 0x454C5049; // "ELPI"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 16;
+
+    // Occurrence layout: game (32 bits) | ply (16 bits) | next move (16 bits)
+    private static final int GAME_SHIFT = 32;
+    private static final int PLY_SHIFT = 16;
+
+    private final MappedFile file;
+    private final long entryCount;
+
+    private PositionIndex(final MappedFile file) throws IOException {
+        this.file = file;
+        if(file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a position index");
+        }
+        if(file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported position index version " + file.getInt(4));
+        }
+        this.entryCount = file.getLong(8);
+        if(this.entryCount < 0 || HEADER_SIZE + this.entryCount * ENTRY_SIZE > file.size()) {
+            throw new IOException("Corrupt position index: the entries lie outside the file");
+        }
+    }
+
+    public static PositionIndex open(final Path path) throws IOException {
+        final MappedFile file = new MappedFile(path);
+        try {
+            return new PositionIndex(file);
+        } catch(final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public long getEntryCount() {
+        return this.entryCount;
+    }
+
+    // Every occurrence of the position, in game order
+    public List<Occurrence> getOccurrences(final Board board) {
+        return getOccurrences(board.getZobristKey());
+    }
+
+    public List<Occurrence> getOccurrences(final long key) {
+        final List<Occurrence> occurrences = new ArrayList<>();
+        for(long entry = findFirst(key); entry < this.entryCount && getKey(entry) == key; entry++) {
+            occurrences.add(new Occurrence(getValue(entry)));
+        }
+        return occurrences;
+    }
+
+    // The number of times the position occurs (a game that repeats it counts more than once)
+    public long getOccurrenceCount(final Board board) {
+        final long key = board.getZobristKey();
+        final long first = findFirst(key);
+        long entry = first;
+        while(entry < this.entryCount && getKey(entry) == key) {
+            entry++;
+        }
+        return entry - first;
+    }
+
+    // The games that reach the position, in ascending order
+    public int[] findGames(final Board board) {
+        final long key = board.getZobristKey();
+        int[] games = new int[16];
+        int count = 0;
+        for(long entry = findFirst(key); entry < this.entryCount && getKey(entry) == key; entry++) {
+            final int game = getGame(getValue(entry));
+            if(count > 0 && games[count - 1] == game) {
+                continue; // The position was repeated in the same game
+            }
+            if(count == games.length) {
+                games = Arrays.copyOf(games, count * 2);
+            }
+            games[count++] = game;
+        }
+        return Arrays.copyOf(games, count);
+    }
+
+    // How often each move was played from the position, the most played first
+    public Map<Move, Integer> getMoveFrequencies(final Board board) {
+        final long key = board.getZobristKey();
+        final Map<Integer, Integer> counts = new LinkedHashMap<>();
+        for(long entry = findFirst(key); entry < this.entryCount && getKey(entry) == key; entry++) {
+            final int move = getNextMove(getValue(entry));
+            if(move != PackedMove.NONE) {
+                counts.merge(move, 1, Integer::sum);
+            }
+        }
+        final List<Map.Entry<Integer, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        Collections.sort(sorted, (first, second) -> Integer.compare(second.getValue(), first.getValue()));
+        final Map<Move, Integer> frequencies = new LinkedHashMap<>();
+        for(final Map.Entry<Integer, Integer> count : sorted) {
+            final Move move = PackedMove.decode(board, count.getKey());
+            if(move != Move.NULL_MOVE) { // Only a Zobrist key collision with another position can give an illegal move
+                frequencies.put(move, count.getValue());
+            }
+        }
+        return frequencies;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+    // Combines sorted indexes into one, keeping every entry. The game numbers must refer to the same game database.
+    public static void merge(final List<Path> inputs, final Path output) throws IOException {
+        final List<PositionIndex> indexes = new ArrayList<>();
+        try {
+            long total = 0;
+            for(final Path input : inputs) {
+                final PositionIndex index = open(input);
+                indexes.add(index);
+                total += index.entryCount;
+            }
+            try(final DataOutputStream out = createOutput(output, total)) {
+                final long[] positions = new long[indexes.size()];
+                while(true) {
+                    // Picks the smallest entry among the heads of the inputs (there are only a few batches)
+                    int smallest = -1;
+                    for(int i = 0; i < indexes.size(); i++) {
+                        if(positions[i] < indexes.get(i).entryCount
+                           && (smallest < 0 || compareEntries(indexes.get(i), positions[i], indexes.get(smallest), positions[smallest]) < 0)) {
+                            smallest = i;
+                        }
+                    }
+                    if(smallest < 0) {
+                        break;
+                    }
+                    final PositionIndex index = indexes.get(smallest);
+                    out.writeLong(index.getKey(positions[smallest]));
+                    out.writeLong(index.getValue(positions[smallest]));
+                    positions[smallest]++;
+                }
+            }
+        } finally {
+            for(final PositionIndex index : indexes) {
+                index.close();
+            }
+        }
+    }
+
+    // Opens an index file for writing and writes its header
+    static DataOutputStream createOutput(final Path output, final long entryCount) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(entryCount);
+        out.write(new byte[HEADER_SIZE - 16]);
+        return out;
+    }
+
+    static long createValue(final int game, final int ply, final int nextMove) {
+        return ((long) game << GAME_SHIFT) | ((long) ply << PLY_SHIFT) | nextMove;
+    }
+
+    static int getGame(final long value) {
+        return (int) (value >>> GAME_SHIFT);
+    }
+
+    static int getPly(final long value) {
+        return (int) (value >>> PLY_SHIFT) & 0xFFFF;
+    }
+
+    static int getNextMove(final long value) {
+        return (int) value & 0xFFFF;
+    }
+
+    private static int compareEntries(final PositionIndex first, final long firstEntry, final PositionIndex second, final long secondEntry) {
+        final int byKey = Long.compareUnsigned(first.getKey(firstEntry), second.getKey(secondEntry));
+        return byKey != 0 ? byKey : Long.compareUnsigned(first.getValue(firstEntry), second.getValue(secondEntry));
+    }
+
+    // The first entry whose key is not below the given key (entryCount if there is none)
+    private long findFirst(final long key) {
+        long low = 0;
+        long high = this.entryCount;
+        while(low < high) {
+            final long middle = (low + high) >>> 1;
+            if(Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(final long entry) {
+        return this.file.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private long getValue(final long entry) {
+        return this.file.getLong(HEADER_SIZE + entry * ENTRY_SIZE + Long.BYTES);
+    }
+
+    // One occurrence of a position: where it occurs and what was played next
+    public static final class Occurrence {
+
+        private final long value;
+
+        Occurrence(final long value) {
+            this.value = value;
+        }
+
+        public int getGame() {
+            return PositionIndex.getGame(this.value);
+        }
+
+        // Plies played before the position, counting from the game's start position
+        public int getPly() {
+            return PositionIndex.getPly(this.value);
+        }
+
+        // The move number of the move played next, e.g. ply 4 is move 3 (with white to move in a standard game)
+        public int getMoveNumber() {
+            return getPly() / 2 + 1;
+        }
+
+        // The packed move played from the position, or PackedMove.NONE if the game ended there
+        public int getNextMove() {
+            return PositionIndex.getNextMove(this.value);
+        }
+
+        @Override
+        public String toString() {
+            return "game " + getGame() + " ply " + getPly()
+                   + (getNextMove() == PackedMove.NONE ? "" : " " + PackedMove.toString(getNextMove()));
+        }
+    }
+}
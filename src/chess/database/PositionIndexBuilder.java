@@ -0,0 +1,147 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+/* End of package imports*/
+
+/* Builds a PositionIndex as games are replayed. Entries are collected in memory up to the batch size, then sorted and
+* written to a batch file next to the output. finish merges the batches into the index, so the memory used stays the
+* same however many games are indexed.
+*
+* The keys are the Zobrist keys that Move.execute (and SearchBoard.makeMove) update incrementally, so indexing a
+* position costs nothing beyond playing the move. Both ways of playing a game give every position the same key, whatever
+* the move order that reached it.
+*
+* Usage: PositionIndexBuilder games.db games.idx [batchEntries]
+* indexes every game of a database and prints the most played moves of the starting position.
+*/
+public final class PositionIndexBuilder {
+
+    public static final int DEFAULT_BATCH_ENTRIES = 1 << 22; // 64 MB of entries
+
+    private final Path output;
+    private final long[] keys;
+    private final long[] values;
+    private final List<Path> batches = new ArrayList<>();
+    private int size;
+
+    public PositionIndexBuilder(final Path output) {
+        this(output, DEFAULT_BATCH_ENTRIES);
+    }
+
+    public PositionIndexBuilder(final Path output, final int batchEntries) {
+        if(batchEntries < 1) {
+            throw new IllegalArgumentException("A batch needs room for at least 1 entry");
+        }
+        this.output = output;
+        this.keys = new long[batchEntries];
+        this.values = new long[batchEntries];
+    }
+
+    // Indexes a game replayed on Boards: every position before a move, and the position the game ends in
+    public void addGame(final int game, final Board startBoard, final List<Move> moves) throws IOException {
+        for(int ply = 0; ply < moves.size(); ply++) {
+            final Move move = moves.get(ply);
+            add(move.getBoard().getZobristKey(), game, ply, PackedMove.encode(move));
+        }
+        final Board finalBoard = moves.isEmpty() ? startBoard : moves.get(moves.size() - 1).execute();
+        add(finalBoard.getZobristKey(), game, moves.size(), PackedMove.NONE);
+    }
+
+    // Indexes a game of a database, playing its packed moves on a SearchBoard, which keeps the same keys as Board
+    public void addGame(final GameDatabase database, final int game) throws IOException {
+        final SearchBoard board = new SearchBoard(database.createStartBoard(game));
+        final int[] moves = database.getMoves(game);
+        for(int ply = 0; ply < moves.length; ply++) {
+            add(board.getZobristKey(), game, ply, moves[ply]);
+            board.makeMove(moves[ply]);
+        }
+        add(board.getZobristKey(), game, moves.length, PackedMove.NONE);
+    }
+
+    public void addAll(final GameDatabase database) throws IOException {
+        for(int game = 0; game < database.getGameCount(); game++) {
+            addGame(database, game);
+        }
+    }
+
+    // Writes the index. The builder cannot be used afterwards.
+    public void finish() throws IOException {
+        if(this.batches.isEmpty()) {
+            writeSorted(this.output);
+            return;
+        }
+        if(this.size > 0) {
+            writeBatch();
+        }
+        PositionIndex.merge(this.batches, this.output);
+        for(final Path batch : this.batches) {
+            Files.delete(batch);
+        }
+    }
+
+    private void add(final long key, final int game, final int ply, final int nextMove) throws IOException {
+        if(this.size == this.keys.length) {
+            writeBatch();
+        }
+        this.keys[this.size] = key;
+        this.values[this.size] = PositionIndex.createValue(game, ply, nextMove);
+        this.size++;
+    }
+
+    private void writeBatch() throws IOException {
+        final Path batch = this.output.resolveSibling(this.output.getFileName() + ".batch" + this.batches.size());
+        writeSorted(batch);
+        this.batches.add(batch);
+        this.size = 0;
+    }
+
+    private void writeSorted(final Path file) throws IOException {
+        KeySort.sort(this.keys, this.values, this.size); // Stable, so the entries of a position stay in game order
+        try(final DataOutputStream out = PositionIndex.createOutput(file, this.size)) {
+            for(int i = 0; i < this.size; i++) {
+                out.writeLong(this.keys[i]);
+                out.writeLong(this.values[i]);
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: PositionIndexBuilder games.db games.idx [batchEntries]");
+            return;
+        }
+        final Path indexFile = Paths.get(args[1]);
+        final int batchEntries = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_ENTRIES;
+        long start = System.nanoTime();
+        try(final GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            final PositionIndexBuilder builder = new PositionIndexBuilder(indexFile, batchEntries);
+            builder.addAll(database);
+            builder.finish();
+            System.out.println(String.format("%,d games indexed in %.1fs (%d batches)", database.getGameCount(),
+                                             (System.nanoTime() - start) / 1e9, Math.max(1, builder.batches.size())));
+        }
+        try(final PositionIndex index = PositionIndex.open(indexFile)) {
+            final Board board = Board.createStandardBoard();
+            start = System.nanoTime();
+            final int games = index.findGames(board).length;
+            final Map<Move, Integer> frequencies = index.getMoveFrequencies(board);
+            System.out.println(String.format("%,d entries, starting position in %,d games (%.2f ms)", index.getEntryCount(),
+                                             games, (System.nanoTime() - start) / 1e6));
+            for(final Map.Entry<Move, Integer> frequency : frequencies.entrySet()) {
+                System.out.println(String.format("  %-8s %,d", frequency.getKey(), frequency.getValue()));
+            }
+        }
+    }
+}
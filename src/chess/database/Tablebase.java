@@ -0,0 +1,172 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.board.SearchBoard;
+/* End of package imports*/
+
+/* Endgame tablebases: the exact outcome and distance to mate of every position with few pieces, probed from the endgame
+* tables (one file per material, e.g. KRvK.tb) that TablebaseGenerator writes into a directory. The tables are memory
+* mapped, so a probe reads one byte of the file.
+*
+* A position is found if a table holds its material (with either colour as the stronger side) and it has no castling
+* rights and no en passant capture; positions with bare kings are always drawn. Probing is thread safe.
+*
+* The values returned by probe(SearchBoard) are DRAW, or a mate n plies away, which the side to move wins if n is odd
+* and loses if n is even (see isWin and getPliesToMate); probe(Board) wraps them in a ProbeResult.
+*/
+public final class Tablebase implements Closeable {
+
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = EndgameTable.DRAW;
+
+    private final EndgameTable[] tables; // Sorted by material signature
+    private final long[] signatures;
+    private final int maxPieces;
+
+    private Tablebase(final List<EndgameTable> tables) {
+        tables.sort(Comparator.comparingLong(table -> table.getMaterial().getSignature()));
+        this.tables = tables.toArray(new EndgameTable[0]);
+        this.signatures = new long[this.tables.length];
+        int maxPieces = 0;
+        for(int i = 0; i < this.tables.length; i++) {
+            this.signatures[i] = this.tables[i].getMaterial().getSignature();
+            maxPieces = Math.max(maxPieces, this.tables[i].getMaterial().getPieceCount());
+        }
+        this.maxPieces = maxPieces;
+    }
+
+    // Opens every endgame table in the directory
+    public static Tablebase open(final Path directory) throws IOException {
+        final List<EndgameTable> tables = new ArrayList<>();
+        try(final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EndgameTable.FILE_EXTENSION)) {
+            for(final Path file : files) {
+                tables.add(EndgameTable.open(file));
+            }
+        } catch(final IOException | RuntimeException e) {
+            for(final EndgameTable table : tables) {
+                table.close();
+            }
+            throw e;
+        }
+        return new Tablebase(tables);
+    }
+
+    // The most pieces of any table, or 0 if there are no tables
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    // The names of the materials that have a table, e.g. KQvK
+    public List<String> getMaterials() {
+        final List<String> materials = new ArrayList<>();
+        for(final EndgameTable table : this.tables) {
+            materials.add(table.getMaterial().getName());
+        }
+        return materials;
+    }
+
+    // The table of a material, or null if there is none
+    EndgameTable findTable(final EndgameMaterial material) {
+        final int table = Arrays.binarySearch(this.signatures, material.getSignature());
+        return table < 0 ? null : this.tables[table];
+    }
+
+    // The outcome of the board's position, or null if no table holds it
+    public ProbeResult probe(final Board board) {
+        if(board.getWhitePieces().size() + board.getBlackPieces().size() > Math.max(2, this.maxPieces)) {
+            return null;
+        }
+        final int value = probe(new SearchBoard(board));
+        return value == NOT_FOUND ? null : new ProbeResult(value);
+    }
+
+    // The value of the board's position, or NOT_FOUND if no table holds it
+    public int probe(final SearchBoard board) {
+        final int pieceCount = BitBoard.count(board.getOccupancy());
+        if(pieceCount == 2) {
+            return DRAW;
+        }
+        if(pieceCount > this.maxPieces || board.getCastlingRights() != 0 || board.getEnPassantTile() != SearchBoard.NO_TILE) {
+            return NOT_FOUND;
+        }
+        final long signature = EndgameMaterial.signature(board);
+        int table = Arrays.binarySearch(this.signatures, signature);
+        boolean swapped = false;
+        if(table < 0) {
+            table = Arrays.binarySearch(this.signatures, EndgameMaterial.swapColours(signature));
+            swapped = true;
+        }
+        if(table < 0) {
+            return NOT_FOUND;
+        }
+        final int value = this.tables[table].probe(board, swapped);
+        return value == EndgameTable.ILLEGAL ? NOT_FOUND : value;
+    }
+
+    // Whether a value found by probe is a win for the side to move
+    public static boolean isWin(final int value) {
+        return value >= EndgameTable.MATE && (value - EndgameTable.MATE) % 2 == 1;
+    }
+
+    public static boolean isLoss(final int value) {
+        return value >= EndgameTable.MATE && (value - EndgameTable.MATE) % 2 == 0;
+    }
+
+    // The plies until mate of a won or lost value
+    public static int getPliesToMate(final int value) {
+        return value - EndgameTable.MATE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(final EndgameTable table : this.tables) {
+            table.close();
+        }
+    }
+
+    // The outcome of a position for the side to move
+    public static final class ProbeResult {
+
+        private final int value;
+
+        ProbeResult(final int value) {
+            this.value = value;
+        }
+
+        public boolean isWin() {
+            return Tablebase.isWin(this.value);
+        }
+
+        public boolean isLoss() {
+            return Tablebase.isLoss(this.value);
+        }
+
+        public boolean isDraw() {
+            return this.value == DRAW;
+        }
+
+        // Plies until mate with best play from both sides, or -1 for a draw
+        public int getPliesToMate() {
+            return isDraw() ? -1 : Tablebase.getPliesToMate(this.value);
+        }
+
+        @Override
+        public String toString() {
+            if(isDraw()) {
+                return "draw";
+            }
+            return (isWin() ? "win" : "loss") + " in " + (getPliesToMate() + 1) / 2 + " moves (" + getPliesToMate() + " plies)";
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package chess.database;
+
+/* Start of package imports */
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import chess.Type;
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Generates endgame tables of up to EndgameMaterial.MAX_PIECES pieces by retrograde analysis, working back from the
+* mates one ply at a time until every position that is won or lost is known; the rest are draws.
+*
+* Pass n solves the positions decided in exactly n plies by playing their moves: on odd passes a position is won if a
+* move leads to a position lost in n - 1, on even passes it is lost once every move leads to a position the opponent
+* wins in fewer. A move that captures or promotes leaves the table, and its value is probed in the table of the new
+* material, which is generated first.
+*
+* A pass only looks at the positions that may be decided in it. Moves inside the table are followed backwards: each
+* solved position marks the positions it can be reached from (its pieces of the side that just moved stepped back, the
+* un-moves) for the next pass. Captures and promotions are valued once, in the first pass, and the positions whose fate
+* they may settle (one of them wins, or all of them lose) are looked at in every pass up to one past the longest mate of
+* the smaller tables.
+*
+* Each pass is split into ranges of positions that a ForkJoinPool solves in parallel, each range with its own
+* SearchBoard. A position solved during a pass is only read by the next one and the marks are set atomically, so the
+* threads do not need to coordinate otherwise.
+*
+* Positions are stored without en passant rights: the position after a pawn jump is valued as if the jump could not be
+* taken en passant. Tablebase does not probe positions with an en passant capture, so this only affects the values of
+* the positions before such jumps.
+*
+* Usage: TablebaseGenerator directory KQvK [KRvK ...]
+* generates the tables and every table they depend on that is missing, then prints what each table holds.
+*/
+public final class TablebaseGenerator {
+
+    // Positions per task of a pass
+    private static final int RANGE_SIZE = 1 << 14;
+
+    private final Path directory;
+    private final int parallelism;
+
+    public TablebaseGenerator(final Path directory) {
+        this(directory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TablebaseGenerator(final Path directory, final int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.directory = directory;
+        this.parallelism = parallelism;
+    }
+
+    // Generates the table of a material such as "KRPvKR", and first the tables it depends on. Tables that already
+    // exist in the directory are kept.
+    public void generate(final String material) throws IOException {
+        generate(EndgameMaterial.parse(material));
+    }
+
+    private void generate(final EndgameMaterial material) throws IOException {
+        if(Files.exists(tableFile(material))) {
+            return;
+        }
+        for(final EndgameMaterial successor : material.getSuccessors()) {
+            generate(successor);
+        }
+        final long start = System.nanoTime();
+        final Solver solver;
+        try(final Tablebase successors = Tablebase.open(this.directory)) {
+            solver = new Solver(material, successors);
+            solver.solve();
+        }
+        EndgameTable.write(this.directory, material, solver.values, solver.longestMate);
+        System.out.println(String.format("%-8s %,15d positions  longest mate %3d plies  %.1fs", material,
+                                         2 * material.getPositionsPerSide(), solver.longestMate, (System.nanoTime() - start) / 1e9));
+    }
+
+    private Path tableFile(final EndgameMaterial material) {
+        return this.directory.resolve(material.getName() + EndgameTable.FILE_EXTENSION);
+    }
+
+    // Solves the positions of one material
+    private final class Solver {
+
+        private final EndgameMaterial material;
+        private final Tablebase successors;
+        private final byte[][] values; // By side to move (white first), then position number
+        private int longestMate;
+        private int conversionPasses; // The passes in which a capture or promotion may decide a position
+        // Bit sets over the positions, by side to move: the positions to look at in this pass, the positions marked for
+        // the next pass, and the positions whose captures and promotions may decide them
+        private AtomicLongArray[] candidates;
+        private AtomicLongArray[] nextCandidates;
+        private final AtomicLongArray[] conversions;
+
+        Solver(final EndgameMaterial material, final Tablebase successors) {
+            if(material.getPositionsPerSide() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(material + " has too many positions to solve in memory");
+            }
+            this.material = material;
+            this.successors = successors;
+            this.values = new byte[2][(int) material.getPositionsPerSide()];
+            this.conversions = createBits();
+        }
+
+        void solve() {
+            int longestSuccessorMate = 0;
+            for(final EndgameMaterial successor : this.material.getSuccessors()) {
+                final EndgameTable table = this.successors.findTable(successor);
+                if(table == null) {
+                    throw new IllegalStateException("The table of " + successor + " is missing");
+                }
+                longestSuccessorMate = Math.max(longestSuccessorMate, table.getLongestMate());
+            }
+            this.conversionPasses = longestSuccessorMate + 1;
+            this.nextCandidates = createBits();
+            final ForkJoinPool pool = new ForkJoinPool(TablebaseGenerator.this.parallelism);
+            try {
+                long previousSolved = pool.invoke(new PassTask(this, 0, 0, this.values[0].length));
+                for(int pass = 1; ; pass++) {
+                    this.candidates = this.nextCandidates;
+                    this.nextCandidates = createBits();
+                    final long solved = pool.invoke(new PassTask(this, pass, 0, this.values[0].length));
+                    if(solved > 0) {
+                        if(pass > EndgameTable.MAX_PLIES) {
+                            throw new IllegalStateException(this.material + " has mates longer than " + EndgameTable.MAX_PLIES + " plies");
+                        }
+                        this.longestMate = pass;
+                    } else if(previousSolved == 0 && pass > longestSuccessorMate) {
+                        break; // No position can be decided by a move to a position solved at this or the last pass
+                    }
+                    previousSolved = solved;
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        // Whether an unsolved position may be decided in the pass
+        boolean mayDecide(final Type side, final int index, final int pass) {
+            return isSet(this.candidates, side, index) || (pass <= this.conversionPasses && isSet(this.conversions, side, index));
+        }
+
+        void markCandidate(final Type side, final int index) {
+            set(this.nextCandidates, side, index);
+        }
+
+        void markConversion(final Type side, final int index) {
+            set(this.conversions, side, index);
+        }
+
+        private AtomicLongArray[] createBits() {
+            final int words = (this.values[0].length + 63) >>> 6;
+            return new AtomicLongArray[] {new AtomicLongArray(words), new AtomicLongArray(words)};
+        }
+
+        private boolean isSet(final AtomicLongArray[] bits, final Type side, final int index) {
+            return (bits[side.ordinal()].get(index >>> 6) & (1L << index)) != 0;
+        }
+
+        // Neighbouring positions share a word and may be set by other threads at the same time
+        private void set(final AtomicLongArray[] bits, final Type side, final int index) {
+            final AtomicLongArray words = bits[side.ordinal()];
+            final long bit = 1L << index;
+            long word = words.get(index >>> 6);
+            while((word & bit) == 0 && !words.compareAndSet(index >>> 6, word, word | bit)) {
+                word = words.get(index >>> 6);
+            }
+        }
+    }
+
+    // Solves one pass over a range of positions and returns how many it solved
+    private static final class PassTask extends RecursiveTask<Long> {
+
+        private final Solver solver;
+        private final int pass;
+        private final int from;
+        private final int to;
+
+        PassTask(final Solver solver, final int pass, final int from, final int to) {
+            this.solver = solver;
+            this.pass = pass;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if(this.to - this.from > RANGE_SIZE) {
+                final int middle = (this.from + this.to) >>> 1;
+                final PassTask left = new PassTask(this.solver, this.pass, this.from, middle);
+                left.fork();
+                final long right = new PassTask(this.solver, this.pass, middle, this.to).compute();
+                return left.join() + right;
+            }
+            final PositionSolver positions = new PositionSolver(this.solver);
+            long solved = 0;
+            for(final Type side : Type.values()) {
+                for(int index = this.from; index < this.to; index++) {
+                    if(this.pass == 0 ? positions.classify(index, side) : positions.solve(index, side, this.pass)) {
+                        solved++;
+                    }
+                }
+            }
+            return solved;
+        }
+    }
+
+    // Works out the value of single positions on its own SearchBoard
+    private static final class PositionSolver {
+
+        private final Solver solver;
+        private final EndgameMaterial material;
+        private final Tablebase successors;
+        private final byte[][] values;
+        private final SearchBoard board = new SearchBoard(Board.createStandardBoard());
+        private final int[] pieceCodes;
+        private final PieceType[] pieceTypes;
+        private final Type[] pieceColours;
+        private final int[] tiles;
+        private final int[] moves = new int[SearchBoard.MAX_MOVES];
+
+        PositionSolver(final Solver solver) {
+            this.solver = solver;
+            this.material = solver.material;
+            this.successors = solver.successors;
+            this.values = solver.values;
+            this.pieceCodes = new int[this.material.getPieceCount()];
+            this.pieceTypes = new PieceType[this.pieceCodes.length];
+            this.pieceColours = new Type[this.pieceCodes.length];
+            for(int i = 0; i < this.pieceCodes.length; i++) {
+                this.pieceCodes[i] = this.material.getPieceCode(i);
+                this.pieceTypes[i] = PieceType.values()[this.pieceCodes[i] % PieceType.values().length];
+                this.pieceColours[i] = Type.values()[this.pieceCodes[i] / PieceType.values().length];
+            }
+            this.tiles = new int[this.pieceCodes.length];
+        }
+
+        // The first pass: marks the numbers that are not legal positions, the mates, and the positions whose captures and
+        // promotions may decide them. Returns whether it was a mate.
+        boolean classify(final int index, final Type side) {
+            if(!setUp(index, side)) {
+                this.values[side.ordinal()][index] = (byte) EndgameTable.ILLEGAL;
+                return false;
+            }
+            final int moveCount = this.board.generateLegalMoves(this.moves);
+            if(moveCount == 0) {
+                if(this.board.isChecked()) {
+                    this.values[side.ordinal()][index] = (byte) EndgameTable.MATE;
+                    markPredecessors(index, side);
+                    return true;
+                }
+                return false; // Stalemate
+            }
+            int conversions = 0;
+            int lostConversions = 0;
+            for(int i = 0; i < moveCount; i++) {
+                if(!isConversion(this.moves[i])) {
+                    continue;
+                }
+                this.board.makeMove(this.moves[i]);
+                final int value = successorValue(this.moves[i]);
+                this.board.unmakeMove();
+                conversions++;
+                if(Tablebase.isLoss(value)) {
+                    this.solver.markConversion(side, index); // Wins
+                    return false;
+                }
+                lostConversions += Tablebase.isWin(value) ? 1 : 0;
+            }
+            if(conversions > 0 && lostConversions == conversions) {
+                this.solver.markConversion(side, index); // Loses unless a move inside the table holds
+            }
+            return false;
+        }
+
+        // Solves an unsolved position if it is decided in exactly pass plies, and returns whether it was
+        boolean solve(final int index, final Type side, final int pass) {
+            if(this.values[side.ordinal()][index] != EndgameTable.DRAW || !this.solver.mayDecide(side, index, pass)) {
+                return false;
+            }
+            setUp(index, side);
+            final boolean winPass = pass % 2 == 1;
+            final int moveCount = this.board.generateMoves(this.moves);
+            int legalMoves = 0;
+            for(int i = 0; i < moveCount; i++) {
+                if(!this.board.makeLegalMove(this.moves[i])) {
+                    continue;
+                }
+                legalMoves++;
+                final int value = successorValue(this.moves[i]);
+                this.board.unmakeMove();
+                // Values solved in this pass (pass plies from mate) are not used until the next one
+                final boolean decided = value >= EndgameTable.MATE && value - EndgameTable.MATE < pass;
+                final boolean opponentLoses = decided && Tablebase.isLoss(value);
+                if(winPass && opponentLoses) {
+                    this.values[side.ordinal()][index] = (byte) (EndgameTable.MATE + pass);
+                    markPredecessors(index, side);
+                    return true;
+                }
+                if(!winPass && !(decided && Tablebase.isWin(value))) {
+                    return false; // A move that does not lose for sure
+                }
+            }
+            if(winPass || legalMoves == 0) {
+                return false; // Nothing wins, or stalemate
+            }
+            this.values[side.ordinal()][index] = (byte) (EndgameTable.MATE + pass);
+            markPredecessors(index, side);
+            return true;
+        }
+
+        // Marks the positions the solved position can be reached from by a move inside the table for the next pass: the
+        // tiles each piece of the side that just moved could have come from. The marks may include illegal positions,
+        // which are never solved.
+        private void markPredecessors(final int index, final Type side) {
+            final Type mover = side.opposite();
+            this.material.tiles(index, this.tiles);
+            long occupied = 0;
+            for(final int tile : this.tiles) {
+                occupied |= BitBoard.bit(tile);
+            }
+            for(int i = 0; i < this.tiles.length; i++) {
+                if(this.pieceColours[i] != mover) {
+                    continue;
+                }
+                final int tile = this.tiles[i];
+                for(long origins = unmoveOrigins(i, tile, occupied); origins != BitBoard.EMPTY; origins = BitBoard.popLowest(origins)) {
+                    this.tiles[i] = BitBoard.lowestTile(origins);
+                    this.solver.markCandidate(mover, (int) this.material.index(this.tiles));
+                    final long mirroredIndex = this.material.mirroredIndex(this.tiles);
+                    if(mirroredIndex >= 0) {
+                        this.solver.markCandidate(mover, (int) mirroredIndex);
+                    }
+                }
+                this.tiles[i] = tile;
+            }
+        }
+
+        // The empty tiles a piece could have moved to its tile from, without capturing or promoting
+        private long unmoveOrigins(final int piece, final int tile, final long occupied) {
+            switch(this.pieceTypes[piece]) {
+                case PAWN:
+                    final int back = -8 * this.pieceColours[piece].getDirection();
+                    final int origin = tile + back;
+                    if(origin < 8 || origin >= 56 || BitBoard.isSet(occupied, origin)) {
+                        return BitBoard.EMPTY; // A pawn cannot come from its first rank
+                    }
+                    final boolean jumped = (this.pieceColours[piece].isWhite() ? tile >>> 3 == 4 : tile >>> 3 == 3)
+                                           && !BitBoard.isSet(occupied, origin + back);
+                    return BitBoard.bit(origin) | (jumped ? BitBoard.bit(origin + back) : BitBoard.EMPTY);
+                case KNIGHT:
+                    return BitBoard.knightAttacks(tile) & ~occupied;
+                case BISHOP:
+                    return BitBoard.bishopAttacks(tile, occupied) & ~occupied;
+                case ROOK:
+                    return BitBoard.rookAttacks(tile, occupied) & ~occupied;
+                case QUEEN:
+                    return BitBoard.queenAttacks(tile, occupied) & ~occupied;
+                default:
+                    return BitBoard.kingAttacks(tile) & ~occupied;
+            }
+        }
+
+        // Places the pieces of a numbered position; returns false if they do not make a legal position
+        private boolean setUp(final int index, final Type side) {
+            this.material.tiles(index, this.tiles);
+            long occupied = 0;
+            for(int i = 0; i < this.tiles.length; i++) {
+                final long bit = 1L << this.tiles[i];
+                if((occupied & bit) != 0 || (this.material.isPawn(i) && (this.tiles[i] < 8 || this.tiles[i] >= 56))) {
+                    return false; // Two pieces on one tile, or a pawn on the first or last rank
+                }
+                occupied |= bit;
+            }
+            this.board.setPosition(this.pieceCodes, this.tiles, this.tiles.length, side);
+            return !this.board.isKingAttacked(side.opposite()); // The side that just moved cannot be in check
+        }
+
+        // The value of the position after a move that was just made, for the side now to move
+        private int successorValue(final int move) {
+            if(!isConversion(move)) {
+                final long index = this.material.index(this.board, false, this.tiles);
+                return this.values[this.board.getSideToMove().ordinal()][(int) index] & 0xFF;
+            }
+            final int value = this.successors.probe(this.board);
+            if(value == Tablebase.NOT_FOUND) {
+                throw new IllegalStateException("No table holds the position after " + PackedMove.toString(move));
+            }
+            return value;
+        }
+    }
+
+    // Whether a move leaves the table's material
+    private static boolean isConversion(final int move) {
+        return (PackedMove.getFlag(move) & (PackedMove.CAPTURE | PackedMove.KNIGHT_PROMOTION)) != 0;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.out.println("Usage: TablebaseGenerator directory KQvK [KRvK ...]");
+            return;
+        }
+        final Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+        final TablebaseGenerator generator = new TablebaseGenerator(directory);
+        for(int i = 1; i < args.length; i++) {
+            generator.generate(args[i]);
+        }
+        try(final Tablebase tablebase = Tablebase.open(directory)) {
+            System.out.println("Tables: " + String.join(" ", tablebase.getMaterials()));
+        }
+    }
+}
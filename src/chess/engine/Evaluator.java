@@ -0,0 +1,13 @@
+package chess.engine;
+
+import chess.board.SearchBoard;
+
+/* The Evaluator interface. An evaluator scores a position statically (without searching it).
+* Scores are in centipawns (a pawn is worth 100) and are always from the point of view of the side to move,
+* so a positive score means the side to move is better. The search negates scores as it walks up the tree.
+*/
+public interface Evaluator {
+
+    int evaluate(SearchBoard board);
+
+}
@@ -0,0 +1,209 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import com.google.common.collect.ImmutableList;
+import chess.board.Board;
+import chess.database.OpeningBook;
+import chess.database.Tablebase;
+import chess.perft.PerftPosition;
+/* End of package imports*/
+
+/* Lazy SMP: a multi-threaded search built from plain single-threaded Searches.
+* Every thread searches the same root position with its own Search, and all of them share one transposition table. The
+* threads do not communicate otherwise: a helper that has searched a position leaves its result in the table, where the
+* other threads find it and cut off or order their moves with it. Helpers start iterative deepening one ply deeper every
+* other thread, so they spread over different depths instead of walking the same tree in step.
+*
+* The calling thread is the main thread (or a thread of the search's own, for start). Its result is the one reported, and
+* once it finishes the helpers are stopped. A node limit is split evenly between the threads. The result's node count
+* is the total over all threads; getThreadResults gives each thread's own nodes and speed.
+* If an opening book is set, a position found in it is answered with a book move and no thread is started.
+*
+* Usage: LazySmpSearch [position] [timeMillis] [threads] [hashMB]
+*/
+public final class LazySmpSearch {
+
+    private final int threadCount;
+    private final int hashSizeMegabytes;
+    private final TranspositionTable transpositionTable;
+    private final Search[] searches;
+    private final ExecutorService helperPool;
+    private final ExecutorService mainPool; // Runs the main thread of searches begun with start
+    private volatile List<SearchResult> threadResults = ImmutableList.of();
+    private volatile OpeningBook openingBook;
+
+    public LazySmpSearch(final int threadCount) {
+        this(threadCount, TranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    public LazySmpSearch(final int threadCount, final int hashSizeMegabytes) {
+        this(threadCount, hashSizeMegabytes, new PositionalEvaluator());
+    }
+
+    public LazySmpSearch(final int threadCount, final int hashSizeMegabytes, final Evaluator evaluator) {
+        if(threadCount < 1) {
+            throw new IllegalArgumentException("A search needs at least 1 thread, not " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.hashSizeMegabytes = hashSizeMegabytes;
+        this.transpositionTable = new TranspositionTable(hashSizeMegabytes);
+        this.searches = new Search[threadCount];
+        for(int i = 0; i < threadCount; i++) {
+            this.searches[i] = new Search(evaluator, this.transpositionTable);
+        }
+        this.helperPool = threadCount > 1 ? Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+            final Thread thread = new Thread(runnable, "LazySmpSearch helper");
+            thread.setDaemon(true); // Never keeps the application alive
+            return thread;
+        }) : null;
+        this.mainPool = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "LazySmpSearch main");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+    public int getHashSizeMegabytes() {
+        return this.hashSizeMegabytes;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    // The book to play from before searching, or null to always search
+    public void setOpeningBook(final OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    // The endgame tables every thread scores positions with few pieces from, or null to search them
+    public void setTablebase(final Tablebase tablebase) {
+        for(final Search search : this.searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    // Searches the board on every thread and returns the main thread's result. Blocks until all threads have stopped.
+    public SearchResult search(final Board board, final SearchLimits limits) {
+        clearStop();
+        return runSearch(board, limits);
+    }
+
+    // Starts searching the board and returns at once; the future gives the result once the search has stopped. The stop
+    // flags are cleared before this returns, so a stop made at any time afterwards ends this search.
+    public Future<SearchResult> start(final Board board, final SearchLimits limits) {
+        clearStop();
+        return this.mainPool.submit(() -> runSearch(board, limits));
+    }
+
+    // Clears the stop flags once, before any thread starts, so a stop sent while the threads are starting is not lost
+    private void clearStop() {
+        for(final Search search : this.searches) {
+            search.clearStop();
+        }
+    }
+
+    private SearchResult runSearch(final Board board, final SearchLimits limits) {
+        final SearchResult bookResult = Search.probeBook(this.openingBook, board);
+        if(bookResult != null) {
+            this.threadResults = ImmutableList.of(bookResult);
+            return bookResult;
+        }
+        this.transpositionTable.newSearch();
+        // Each thread gets its share of the node limit, so all of them together search no more than the limit
+        final long nodeLimit = limits.hasNodeLimit() ? Math.max(1, limits.getNodeLimit() / this.threadCount) : 0;
+        final SearchLimits mainLimits = new SearchLimits.LimitsBuilder().setMaxDepth(limits.getMaxDepth())
+                                                                        .setTimeLimitMillis(limits.getTimeLimitMillis())
+                                                                        .setNodeLimit(nodeLimit).build();
+        // Helpers may search one ply past the main thread: their deepest iteration is cut off when it finishes anyway
+        final SearchLimits helperLimits = new SearchLimits.LimitsBuilder().setMaxDepth(limits.getMaxDepth() + 1)
+                                                                          .setTimeLimitMillis(limits.getTimeLimitMillis())
+                                                                          .setNodeLimit(nodeLimit).build();
+        final List<Future<SearchResult>> helpers = new ArrayList<>();
+        for(int i = 1; i < this.threadCount; i++) {
+            final Search helper = this.searches[i];
+            final int firstDepth = 1 + i % 2;
+            helpers.add(this.helperPool.submit(() -> helper.searchPosition(board, helperLimits, firstDepth)));
+        }
+
+        final SearchResult mainResult = this.searches[0].searchPosition(board, mainLimits);
+
+        final List<SearchResult> results = new ArrayList<>();
+        results.add(mainResult);
+        long totalNodes = mainResult.getNodes();
+        for(int i = 0; i < helpers.size(); i++) {
+            final SearchResult helperResult = stopHelper(this.searches[i + 1], helpers.get(i));
+            results.add(helperResult);
+            totalNodes += helperResult.getNodes();
+        }
+        this.threadResults = ImmutableList.copyOf(results);
+        return new SearchResult(mainResult.getPrincipalVariation(), mainResult.getScore(), mainResult.getDepth(),
+                                totalNodes, mainResult.getElapsedMillis());
+    }
+
+    private static SearchResult stopHelper(final Search helper, final Future<SearchResult> future) {
+        helper.stop();
+        try {
+            return future.get();
+        } catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping the search helpers", e);
+        } catch(final ExecutionException e) {
+            throw new IllegalStateException("A search helper failed", e.getCause());
+        }
+    }
+
+    // Asks a running search to stop. search then returns the main thread's last completed depth.
+    public void stop() {
+        for(final Search search : this.searches) {
+            search.stop();
+        }
+    }
+
+    // The result of every thread in the last search, the main thread first. Each has the thread's own nodes and speed.
+    public List<SearchResult> getThreadResults() {
+        return this.threadResults;
+    }
+
+    // Ends the helper threads. The search cannot be used afterwards.
+    public void shutdown() {
+        if(this.helperPool != null) {
+            this.helperPool.shutdownNow();
+        }
+        this.mainPool.shutdownNow();
+    }
+
+    public static void main(final String[] args) {
+        final PerftPosition position = args.length > 0 ? PerftPosition.valueOf(args[0]) : PerftPosition.KIWIPETE;
+        final long timeMillis = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : TranspositionTable.DEFAULT_SIZE_MB;
+
+        System.out.println(String.format("%s %dms, %d threads, %d MB hash, %d cores available", position.name(), timeMillis,
+                                         threads, hashMegabytes, Runtime.getRuntime().availableProcessors()));
+        final LazySmpSearch search = new LazySmpSearch(threads, hashMegabytes);
+        try {
+            final SearchResult result = search.search(position.createBoard(), SearchLimits.time(timeMillis));
+            final List<SearchResult> threadResults = search.getThreadResults();
+            for(int i = 0; i < threadResults.size(); i++) {
+                final SearchResult threadResult = threadResults.get(i);
+                System.out.println(String.format("thread %3d  depth %3d  nodes %,12d  %,12d nps", i, threadResult.getDepth(),
+                                                 threadResult.getNodes(), threadResult.getNodesPerSecond()));
+            }
+            System.out.println(String.format("total  %s  %,12d nps  hash full %d%%", result, result.getNodesPerSecond(),
+                                             search.getTranspositionTable().getHashFull() / 10));
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package chess.engine;
+
+/* Start of package imports */
+import chess.Type;
+import chess.board.BitBoard;
+import chess.board.SearchBoard;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* A material-only evaluator: counts the material each side has left.
+*/
+public class MaterialEvaluator implements Evaluator {
+
+    // Centipawn value of each kind of piece, indexed by PieceType ordinal. The king is never captured, so it is worth nothing here.
+    public static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    @Override
+    public int evaluate(final SearchBoard board) {
+        int score = 0;
+        for(final PieceType pieceType : PieceType.values()) {
+            score += PIECE_VALUES[pieceType.ordinal()] * (BitBoard.count(board.getPieceBitboard(Type.WHITE, pieceType))
+                                                        - BitBoard.count(board.getPieceBitboard(Type.BLACK, pieceType)));
+        }
+        return board.getSideToMove().isWhite() ? score : -score;
+    }
+}
@@ -0,0 +1,64 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.Arrays;
+import chess.Type;
+import chess.board.PackedMove;
+/* End of package imports*/
+
+/* What a search has learned about quiet moves, for MovePicker to order them by:
+* - Killer moves: the last two quiet moves that cut a node off at each ply. A move that refutes one position often
+*   refutes its siblings too, which differ only in an earlier move of the other side.
+* - History: a butterfly table per side, indexed by from and to tile, of how often (weighted by depth) a quiet move cut
+*   a node off anywhere in the tree.
+* Belongs to one Search, so it needs no synchronisation.
+*/
+final class MoveHistory {
+
+    static final int KILLER_SLOTS = 2;
+
+    // Once a history score passes this, every score is halved so recent cutoffs keep weighing more than old ones
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private final int[][] killers = new int[Search.MAX_PLY][KILLER_SLOTS];
+    private final int[][] history = new int[2][64 * 64]; // Indexed by Type ordinal, then from * 64 + to
+
+    void clear() {
+        for(final int[] slots : this.killers) {
+            Arrays.fill(slots, PackedMove.NONE);
+        }
+        for(final int[] scores : this.history) {
+            Arrays.fill(scores, 0);
+        }
+    }
+
+    // Records a quiet move that made the node at ply fail high after a search to depth
+    void recordCutoff(final int ply, final Type side, final int move, final int depth) {
+        final int[] slots = this.killers[ply];
+        if(slots[0] != move) {
+            slots[1] = slots[0];
+            slots[0] = move;
+        }
+        final int[] scores = this.history[side.ordinal()];
+        final int index = butterflyIndex(move);
+        scores[index] += depth * depth;
+        if(scores[index] > MAX_HISTORY) {
+            for(int i = 0; i < scores.length; i++) {
+                scores[i] /= 2;
+            }
+        }
+    }
+
+    // The killer move in a slot at ply, or PackedMove.NONE
+    int getKiller(final int ply, final int slot) {
+        return this.killers[ply][slot];
+    }
+
+    int getHistory(final Type side, final int move) {
+        return this.history[side.ordinal()][butterflyIndex(move)];
+    }
+
+    private static int butterflyIndex(final int move) {
+        return PackedMove.getCurrentPosition(move) * 64 + PackedMove.getDestinationPosition(move);
+    }
+}
@@ -0,0 +1,196 @@
+package chess.engine;
+
+/* Start of package imports */
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+import chess.board.StaticExchange;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Hands out the moves of a node one at a time, best first, generating them in stages so that a node cut off early
+* never pays for the moves it did not look at:
+* 1. the previous iteration's principal variation move and the transposition table move, checked with isPseudoLegal
+*    but not generated at all
+* 2. the captures, most valuable victim first and, among equal victims, least valuable attacker first (MVV-LVA), as
+*    long as they do not lose material by static exchange evaluation (see StaticExchange)
+* 3. the quiet moves, generated only once every capture has been tried: queen promotions, then the killer moves of the
+*    ply, then the rest by history score (see MoveHistory)
+* 4. the losing captures, in the order they were put aside
+* Quiescence nodes only get the captures of stage 2: the losing ones are dropped altogether.
+* Moves are picked by selection: each call scans the remaining moves of the stage for the best score, so a node that
+* fails high on its first capture sorts nothing.
+* The moves are pseudo-legal, as from SearchBoard.generateMoves. A Search keeps one picker per ply and reuses it.
+*/
+final class MovePicker {
+
+    private static final int PRINCIPAL_VARIATION = 0;
+    private static final int HASH = 1;
+    private static final int GENERATE_CAPTURES = 2;
+    private static final int CAPTURES = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int LOSING_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    // Quiet move scores above any history score (see MoveHistory)
+    private static final int QUEEN_PROMOTION_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    private static final int UNDER_PROMOTION_SCORE = -1;
+
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int PIECE_TYPES = PieceType.values().length;
+
+    private final MoveHistory history;
+    private final int[] moves = new int[SearchBoard.MAX_MOVES];
+    private final int[] scores = new int[SearchBoard.MAX_MOVES];
+    private final int[] losingCaptures = new int[SearchBoard.MAX_MOVES];
+
+    private SearchBoard board;
+    private int ply;
+    private int principalVariationMove;
+    private int hashMove;
+    private boolean capturesOnly;
+    private int stage;
+    private int next;
+    private int count;
+    private int losingCaptureCount;
+    private int nextLosingCapture;
+
+    MovePicker(final MoveHistory history) {
+        this.history = history;
+    }
+
+    // Starts picking the moves of a node of the main search. Either move may be PackedMove.NONE.
+    void init(final SearchBoard board, final int ply, final int principalVariationMove, final int hashMove) {
+        this.board = board;
+        this.ply = ply;
+        this.principalVariationMove = principalVariationMove;
+        this.hashMove = hashMove == principalVariationMove ? PackedMove.NONE : hashMove;
+        this.capturesOnly = false;
+        this.stage = PRINCIPAL_VARIATION;
+    }
+
+    // Starts picking the captures of a quiescence node
+    void initCaptures(final SearchBoard board) {
+        this.board = board;
+        this.principalVariationMove = PackedMove.NONE;
+        this.hashMove = PackedMove.NONE;
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    // The next move to try, or PackedMove.NONE once every move has been handed out
+    @SuppressWarnings("fallthrough") // Each stage falls through to the next once it has no moves left
+    int next() {
+        switch(this.stage) {
+            case PRINCIPAL_VARIATION:
+                this.stage = HASH;
+                if(this.principalVariationMove != PackedMove.NONE && this.board.isPseudoLegal(this.principalVariationMove)) {
+                    return this.principalVariationMove;
+                }
+                this.principalVariationMove = PackedMove.NONE;
+                // Fall through
+            case HASH:
+                this.stage = GENERATE_CAPTURES;
+                if(this.hashMove != PackedMove.NONE && this.board.isPseudoLegal(this.hashMove)) {
+                    return this.hashMove;
+                }
+                this.hashMove = PackedMove.NONE;
+                // Fall through
+            case GENERATE_CAPTURES:
+                this.count = this.board.generateCaptures(this.moves);
+                this.next = 0;
+                this.losingCaptureCount = 0;
+                this.nextLosingCapture = 0;
+                for(int i = 0; i < this.count; i++) {
+                    this.scores[i] = captureScore(this.moves[i]);
+                }
+                this.stage = CAPTURES;
+                // Fall through
+            case CAPTURES:
+                for(int move = pickBest(); move != PackedMove.NONE; move = pickBest()) {
+                    if(StaticExchange.evaluate(this.board, move) >= 0) {
+                        return move;
+                    }
+                    this.losingCaptures[this.losingCaptureCount++] = move;
+                }
+                if(this.capturesOnly) {
+                    this.stage = DONE;
+                    return PackedMove.NONE;
+                }
+                this.stage = GENERATE_QUIETS;
+                // Fall through
+            case GENERATE_QUIETS:
+                this.count = this.board.generateQuietMoves(this.moves);
+                this.next = 0;
+                for(int i = 0; i < this.count; i++) {
+                    this.scores[i] = quietScore(this.moves[i]);
+                }
+                this.stage = QUIETS;
+                // Fall through
+            case QUIETS: {
+                final int move = pickBest();
+                if(move != PackedMove.NONE) {
+                    return move;
+                }
+                this.stage = LOSING_CAPTURES;
+            }
+                // Fall through
+            case LOSING_CAPTURES:
+                if(this.nextLosingCapture < this.losingCaptureCount) {
+                    return this.losingCaptures[this.nextLosingCapture++];
+                }
+                this.stage = DONE;
+                // Fall through
+            default:
+                return PackedMove.NONE;
+        }
+    }
+
+    // Moves the best scored of the remaining moves to the front and returns it, skipping the moves tried before
+    // generation. Returns PackedMove.NONE when the stage has no moves left.
+    private int pickBest() {
+        while(this.next < this.count) {
+            int best = this.next;
+            for(int i = this.next + 1; i < this.count; i++) {
+                if(this.scores[i] > this.scores[best]) {
+                    best = i;
+                }
+            }
+            final int move = this.moves[best];
+            this.moves[best] = this.moves[this.next];
+            this.scores[best] = this.scores[this.next];
+            this.next++;
+            if(move != this.principalVariationMove && move != this.hashMove) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    // MVV-LVA: the victim's type dominates and the attacker's breaks ties, with the king as the most valuable attacker.
+    // A capture that promotes to a queen also gains the queen.
+    private int captureScore(final int move) {
+        final int victim = this.board.getPieceCode(PackedMove.getDestinationPosition(move));
+        final int victimType = victim == SearchBoard.NO_PIECE ? PieceType.PAWN.ordinal() // En passant captures a pawn
+                                                              : victim % PIECE_TYPES;
+        final int attackerType = this.board.getPieceCode(PackedMove.getCurrentPosition(move)) % PIECE_TYPES;
+        int score = victimType * PIECE_TYPES + (KING - attackerType);
+        if(PackedMove.isPromotion(move) && PackedMove.getPromotionType(move) == PieceType.QUEEN) {
+            score += PieceType.QUEEN.ordinal() * PIECE_TYPES;
+        }
+        return score;
+    }
+
+    private int quietScore(final int move) {
+        if(PackedMove.isPromotion(move)) {
+            return PackedMove.getPromotionType(move) == PieceType.QUEEN ? QUEEN_PROMOTION_SCORE : UNDER_PROMOTION_SCORE;
+        }
+        for(int slot = 0; slot < MoveHistory.KILLER_SLOTS; slot++) {
+            if(move == this.history.getKiller(this.ply, slot)) {
+                return KILLER_SCORE - slot;
+            }
+        }
+        return this.history.getHistory(this.board.getSideToMove(), move);
+    }
+}
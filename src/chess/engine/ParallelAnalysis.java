@@ -0,0 +1,172 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import chess.board.Board;
+import chess.board.Move;
+import chess.perft.PerftPosition;
+import chess.players.BoardTransition;
+/* End of package imports*/
+
+/* Root-split analysis: every legal move of a position is searched as its own ForkJoin task, so the moves are scored in
+* parallel on as many cores as the pool is given. Unlike a single Search, which only proves the best move, this gives
+* a score for every move (a "multi-PV" view of the position), which is what batch analysis wants.
+*
+* Each root move gets its own Search (searches are not thread safe) and the limits apply to each root move: a depth of n
+* searches the position after the move to n - 1 plies (at least 1). The searches share one transposition table, which is
+* lock-free, so positions reached through different root moves are only searched once.
+*
+* Usage: ParallelAnalysis [position] [depth] [maxThreads]
+* analyses a reference position with 1, 2, 4 ... maxThreads threads and prints the speedup over one thread.
+*/
+public final class ParallelAnalysis {
+
+    private final int parallelism;
+    private final Evaluator evaluator;
+    private final TranspositionTable transpositionTable;
+
+    public ParallelAnalysis(final int parallelism) {
+        this(parallelism, new PositionalEvaluator(), new TranspositionTable());
+    }
+
+    public ParallelAnalysis(final int parallelism, final Evaluator evaluator, final TranspositionTable transpositionTable) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    // Scores every legal move of the board, best first. Scores are from the point of view of the side to move.
+    public List<MoveScore> analyse(final Board board, final SearchLimits limits) {
+        final SearchLimits childLimits = new SearchLimits.LimitsBuilder().setMaxDepth(limits.getMaxDepth() - 1)
+                                                                         .setTimeLimitMillis(limits.getTimeLimitMillis())
+                                                                         .setNodeLimit(limits.getNodeLimit()).build();
+        final List<RootMoveTask> tasks = new ArrayList<>();
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            final BoardTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isCompleted()) {
+                tasks.add(new RootMoveTask(move, transition.getTransitioningBoard(), childLimits));
+            }
+        }
+        this.transpositionTable.newSearch();
+        final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            final List<MoveScore> scores = pool.invoke(new RecursiveTask<List<MoveScore>>() {
+                @Override
+                protected List<MoveScore> compute() {
+                    final List<MoveScore> results = new ArrayList<>();
+                    for(final RootMoveTask task : invokeAll(tasks)) {
+                        results.add(task.join());
+                    }
+                    return results;
+                }
+            });
+            Collections.sort(scores, Comparator.comparingInt(MoveScore::getScore).reversed());
+            return scores;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class RootMoveTask extends RecursiveTask<MoveScore> {
+
+        private final Move move;
+        private final Board board;
+        private final SearchLimits limits;
+
+        RootMoveTask(final Move move, final Board board, final SearchLimits limits) {
+            this.move = move;
+            this.board = board;
+            this.limits = limits;
+        }
+
+        @Override
+        protected MoveScore compute() {
+            final Search search = new Search(ParallelAnalysis.this.evaluator, ParallelAnalysis.this.transpositionTable);
+            final SearchResult result = search.searchPosition(this.board, this.limits);
+            return new MoveScore(this.move, fromParent(result.getScore()), result);
+        }
+    }
+
+    // The child's score is from the opponent's point of view, and a mate is one ply further away from the root
+    private static int fromParent(final int childScore) {
+        final int score = -childScore;
+        if(score >= Search.MATE_SCORE - Search.MAX_PLY) {
+            return score - 1;
+        }
+        if(score <= -Search.MATE_SCORE + Search.MAX_PLY) {
+            return score + 1;
+        }
+        return score;
+    }
+
+    // A root move with its score, and the search of the position it leads to
+    public static final class MoveScore {
+
+        private final Move move;
+        private final int score;
+        private final SearchResult result;
+
+        MoveScore(final Move move, final int score, final SearchResult result) {
+            this.move = move;
+            this.score = score;
+            this.result = result;
+        }
+
+        public Move getMove() {
+            return this.move;
+        }
+
+        public int getScore() {
+            return this.score;
+        }
+
+        // The search of the position after the move (its principal variation is the expected reply)
+        public SearchResult getResult() {
+            return this.result;
+        }
+
+        @Override
+        public String toString() {
+            return this.move + " " + this.score;
+        }
+    }
+
+    public static void main(final String[] args) {
+        final PerftPosition position = args.length > 0 ? PerftPosition.valueOf(args[0]) : PerftPosition.KIWIPETE;
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        final int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println(String.format("%s depth %d, %d cores available", position.name(), depth,
+                                         Runtime.getRuntime().availableProcessors()));
+        new ParallelAnalysis(1).analyse(position.createBoard(), SearchLimits.depth(depth)); // Warm up the JIT
+
+        double singleThreadSeconds = 0;
+        for(int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            final long start = System.nanoTime();
+            final List<MoveScore> scores = new ParallelAnalysis(threads).analyse(position.createBoard(), SearchLimits.depth(depth));
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            if(threads == 1) {
+                singleThreadSeconds = seconds;
+            }
+            long nodes = 0;
+            for(final MoveScore score : scores) {
+                nodes += score.getResult().getNodes();
+            }
+            final double speedup = singleThreadSeconds / seconds;
+            System.out.println(String.format("threads %3d  best %-8s  nodes %,12d  %8.3fs  speedup %5.2fx  efficiency %5.1f%%",
+                    threads, scores.isEmpty() ? "none" : scores.get(0).toString(), nodes, seconds, speedup, 100 * speedup / threads));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package chess.engine;
+
+/* The PawnHashTable class. Caches pawn-structure scores by pawn key (see SearchBoard.getPawnKey). The pawns move far
+* less often than the other pieces, so almost every evaluation finds its pawn structure already scored.
+*
+* One entry per slot, two longs per entry: the middlegame and endgame scores packed into one long, and the pawn key
+* XOR-ed with it. Like the TranspositionTable there are no locks: a torn entry does not give back its key and reads as a
+* miss. An empty slot reads as a hit of 0 for pawn key 0, which is right: only a board without pawns has that key.
+*/
+public final class PawnHashTable {
+
+    public static final int DEFAULT_SIZE_KB = 1024;
+
+    // A probe that finds no entry returns MISS. Stored scores are far from the int range, so no entry packs to it.
+    public static final long MISS = Long.MIN_VALUE;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    private final long[] table;
+    private final int entryMask;
+
+    public PawnHashTable() {
+        this(DEFAULT_SIZE_KB);
+    }
+
+    // Creates a table using at most sizeKilobytes of memory. The entry count is rounded down to a power of two.
+    public PawnHashTable(final int sizeKilobytes) {
+        if(sizeKilobytes < 1) {
+            throw new IllegalArgumentException("A pawn hash table needs at least 1 KB, not " + sizeKilobytes);
+        }
+        final int entryCount = Integer.highestOneBit((int) Math.min((long) sizeKilobytes * 1024 / BYTES_PER_ENTRY,
+                                                                    Integer.MAX_VALUE / LONGS_PER_ENTRY));
+        this.table = new long[entryCount * LONGS_PER_ENTRY];
+        this.entryMask = entryCount - 1;
+    }
+
+    // Returns the packed scores stored for the pawn key, or MISS. Read them with getMidgame and getEndgame.
+    public long probe(final long pawnKey) {
+        final int i = ((int) pawnKey & this.entryMask) * LONGS_PER_ENTRY;
+        final long data = this.table[i];
+        return (this.table[i + 1] ^ data) == pawnKey ? data : MISS;
+    }
+
+    // Stores the scores of a pawn structure and returns them packed
+    public long store(final long pawnKey, final int midgameScore, final int endgameScore) {
+        final int i = ((int) pawnKey & this.entryMask) * LONGS_PER_ENTRY;
+        final long data = pack(midgameScore, endgameScore);
+        this.table[i] = data;
+        this.table[i + 1] = pawnKey ^ data;
+        return data;
+    }
+
+    // Packs two scores into one long
+    static long pack(final int midgameScore, final int endgameScore) {
+        return ((long) midgameScore << 32) | (endgameScore & 0xFFFFFFFFL);
+    }
+
+    public static int getMidgame(final long data) {
+        return (int) (data >> 32);
+    }
+
+    public static int getEndgame(final long data) {
+        return (int) data;
+    }
+}
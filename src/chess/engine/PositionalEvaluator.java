@@ -0,0 +1,166 @@
+package chess.engine;
+
+/* Start of package imports */
+import chess.Type;
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.board.PieceSquareTables;
+import chess.board.SearchBoard;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The default evaluator. Scores material and piece placement, mobility and pawn structure, each as a middlegame and an
+* endgame score that are blended by the game phase (see PieceSquareTables).
+* - Material and placement are the piece-square sums SearchBoard keeps up to date as moves are made and unmade.
+* - Mobility counts the tiles each knight, bishop, rook and queen attacks that are neither its own side's nor attacked
+*   by an enemy pawn.
+* - Pawn structure penalises doubled and isolated pawns and rewards passed pawns the further they have advanced. It
+*   depends on the pawns alone, so it is cached in a PawnHashTable by pawn key.
+* No tile is scanned: every term comes from bitboards. The pawn hash table is lock-free, so one evaluator can be shared
+* by the threads of a LazySmpSearch.
+*/
+public final class PositionalEvaluator implements Evaluator {
+
+    // Per PieceType ordinal: centipawns per attacked tile, and the tile count a piece is expected to have
+    private static final int[] MOBILITY_MIDGAME = {0, 4, 5, 2, 1, 0};
+    private static final int[] MOBILITY_ENDGAME = {0, 4, 5, 4, 2, 0};
+    private static final int[] MOBILITY_BASELINE = {0, 4, 6, 7, 13, 0};
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    // Indexed by the ranks a passed pawn has advanced from its own back rank
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // The tiles in front of a pawn on its own and the adjacent files, which must hold no enemy pawn for it to be passed.
+    // Indexed by Type ordinal, then tile.
+    private static final long[][] PASSED_MASKS = new long[2][Board.NUM_TILES];
+
+    static {
+        for(int file = 0; file < 8; file++) {
+            FILES[file] = BitBoard.FILE_A << file;
+        }
+        for(int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : BitBoard.EMPTY) | (file < 7 ? FILES[file + 1] : BitBoard.EMPTY);
+        }
+        for(int tile = 0; tile < Board.NUM_TILES; tile++) {
+            final long files = FILES[tile & 7] | ADJACENT_FILES[tile & 7];
+            for(int other = 0; other < Board.NUM_TILES; other++) {
+                if(other >>> 3 < tile >>> 3) {
+                    PASSED_MASKS[Type.WHITE.ordinal()][tile] |= files & BitBoard.bit(other); // White moves towards rank 8
+                } else if(other >>> 3 > tile >>> 3) {
+                    PASSED_MASKS[Type.BLACK.ordinal()][tile] |= files & BitBoard.bit(other);
+                }
+            }
+        }
+    }
+
+    private final PawnHashTable pawnHashTable;
+
+    public PositionalEvaluator() {
+        this(new PawnHashTable());
+    }
+
+    public PositionalEvaluator(final PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(final SearchBoard board) {
+        int midgame = board.getMidgameScore();
+        int endgame = board.getEndgameScore();
+
+        final long pawnKey = board.getPawnKey();
+        long pawns = this.pawnHashTable.probe(pawnKey);
+        if(pawns == PawnHashTable.MISS) {
+            pawns = scorePawns(board, pawnKey);
+        }
+        midgame += PawnHashTable.getMidgame(pawns);
+        endgame += PawnHashTable.getEndgame(pawns);
+
+        final long occupied = board.getOccupancy();
+        final long whitePawnAttacks = pawnAttacks(board.getPieceBitboard(Type.WHITE, PieceType.PAWN), Type.WHITE);
+        final long blackPawnAttacks = pawnAttacks(board.getPieceBitboard(Type.BLACK, PieceType.PAWN), Type.BLACK);
+        final long whiteMobility = mobility(board, Type.WHITE, occupied, ~(board.getOccupancy(Type.WHITE) | blackPawnAttacks));
+        final long blackMobility = mobility(board, Type.BLACK, occupied, ~(board.getOccupancy(Type.BLACK) | whitePawnAttacks));
+        midgame += PawnHashTable.getMidgame(whiteMobility) - PawnHashTable.getMidgame(blackMobility);
+        endgame += PawnHashTable.getEndgame(whiteMobility) - PawnHashTable.getEndgame(blackMobility);
+
+        final int score = PieceSquareTables.taper(midgame, endgame, board.getPhase());
+        return board.getSideToMove().isWhite() ? score : -score;
+    }
+
+    // The mobility score of one side's pieces, middlegame and endgame packed like a PawnHashTable entry
+    private static long mobility(final SearchBoard board, final Type type, final long occupied, final long area) {
+        int midgame = 0;
+        int endgame = 0;
+        for(int pieceType = PieceType.KNIGHT.ordinal(); pieceType <= PieceType.QUEEN.ordinal(); pieceType++) {
+            long pieces = board.getPieceBitboard(type, PIECE_TYPES[pieceType]);
+            while(pieces != BitBoard.EMPTY) {
+                final int tile = BitBoard.lowestTile(pieces);
+                pieces = BitBoard.popLowest(pieces);
+                final long attacks;
+                if(pieceType == KNIGHT) {
+                    attacks = BitBoard.knightAttacks(tile);
+                } else if(pieceType == BISHOP) {
+                    attacks = BitBoard.bishopAttacks(tile, occupied);
+                } else if(pieceType == ROOK) {
+                    attacks = BitBoard.rookAttacks(tile, occupied);
+                } else {
+                    attacks = BitBoard.queenAttacks(tile, occupied);
+                }
+                final int mobility = BitBoard.count(attacks & area) - MOBILITY_BASELINE[pieceType];
+                midgame += MOBILITY_MIDGAME[pieceType] * mobility;
+                endgame += MOBILITY_ENDGAME[pieceType] * mobility;
+            }
+        }
+        return PawnHashTable.pack(midgame, endgame);
+    }
+
+    private static long pawnAttacks(final long pawns, final Type type) {
+        return type.isWhite() ? BitBoard.shift(pawns, BitBoard.NORTH_EAST) | BitBoard.shift(pawns, BitBoard.NORTH_WEST)
+                              : BitBoard.shift(pawns, BitBoard.SOUTH_EAST) | BitBoard.shift(pawns, BitBoard.SOUTH_WEST);
+    }
+
+    // Scores the pawn structure, white minus black, and caches it
+    private long scorePawns(final SearchBoard board, final long pawnKey) {
+        final long whitePawns = board.getPieceBitboard(Type.WHITE, PieceType.PAWN);
+        final long blackPawns = board.getPieceBitboard(Type.BLACK, PieceType.PAWN);
+        final int midgame = scorePawns(whitePawns, blackPawns, Type.WHITE, PASSED_MIDGAME, DOUBLED_MIDGAME, ISOLATED_MIDGAME)
+                          - scorePawns(blackPawns, whitePawns, Type.BLACK, PASSED_MIDGAME, DOUBLED_MIDGAME, ISOLATED_MIDGAME);
+        final int endgame = scorePawns(whitePawns, blackPawns, Type.WHITE, PASSED_ENDGAME, DOUBLED_ENDGAME, ISOLATED_ENDGAME)
+                          - scorePawns(blackPawns, whitePawns, Type.BLACK, PASSED_ENDGAME, DOUBLED_ENDGAME, ISOLATED_ENDGAME);
+        return this.pawnHashTable.store(pawnKey, midgame, endgame);
+    }
+
+    private static int scorePawns(final long pawns, final long enemyPawns, final Type type, final int[] passed,
+                                  final int doubled, final int isolated) {
+        int score = 0;
+        for(int file = 0; file < 8; file++) {
+            final int count = BitBoard.count(pawns & FILES[file]);
+            if(count > 1) {
+                score += doubled * (count - 1);
+            }
+            if(count > 0 && (pawns & ADJACENT_FILES[file]) == BitBoard.EMPTY) {
+                score += isolated * count;
+            }
+        }
+        long remaining = pawns;
+        while(remaining != BitBoard.EMPTY) {
+            final int tile = BitBoard.lowestTile(remaining);
+            remaining = BitBoard.popLowest(remaining);
+            if((PASSED_MASKS[type.ordinal()][tile] & enemyPawns) == BitBoard.EMPTY) {
+                score += passed[type.isWhite() ? 7 - (tile >>> 3) : tile >>> 3];
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,339 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.List;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+import chess.database.OpeningBook;
+import chess.database.Tablebase;
+import chess.players.BoardTransition;
+/* End of package imports*/
+
+/* The Search class. Chooses a move for the side to move of any Board.
+* - Negamax alpha-beta: every node is searched from the point of view of its side to move, and a move is pruned as soon as
+*   it is known the opponent would never allow the position it leads to.
+* - Iterative deepening: the position is searched to depth 1, 2, 3 ... until a depth, time or node limit is reached.
+*   The principal variation of each iteration is searched first in the next, which makes the pruning far more effective.
+* - Quiescence search: at the horizon, captures are played out until the position is quiet so the evaluation is not
+*   taken in the middle of an exchange. Captures that lose material by static exchange evaluation are skipped.
+* - Transposition table: the result of every node is stored by Zobrist key. A position met again is cut off if it was
+*   already searched deep enough, and otherwise its stored best move is tried first.
+* - Move ordering: the moves of a node are generated in stages and handed out best first by a MovePicker, with killer
+*   moves and a history table learned from earlier cutoffs ordering the quiet moves.
+* - Draws by rule: a position below the root that repeats one of the game or of the line being searched, or that comes
+*   fifty moves after the last pawn move or capture, scores as a draw without being searched.
+* The tree is walked on a SearchBoard with make/unmake, and the result is converted back to Moves of the given Board.
+* If an opening book is set, a position found in it is answered with a book move without searching.
+* If a tablebase is set, positions below the root that it holds are scored from it exactly instead of being searched.
+* A Search is not thread safe: use one instance per thread. The transposition table can be shared between them.
+*/
+public final class Search {
+
+    public static final int INFINITY = 1_000_000;
+    public static final int MATE_SCORE = 100_000; // A mate in n plies scores MATE_SCORE - n
+    public static final int MAX_PLY = 128;
+
+    // How often (in nodes) the time limit and stop flag are checked
+    private static final int CHECK_INTERVAL = 2048;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final MoveHistory moveHistory = new MoveHistory();
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY];
+    private final int[][] principalVariationTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLength = new int[MAX_PLY];
+
+    private volatile boolean stopped;
+    private boolean aborted;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int[] previousPrincipalVariation = new int[0];
+    private volatile OpeningBook openingBook;
+    private volatile Tablebase tablebase;
+
+    public Search() {
+        this(new PositionalEvaluator());
+    }
+
+    public Search(final Evaluator evaluator) {
+        this(evaluator, new TranspositionTable());
+    }
+
+    public Search(final Evaluator evaluator, final TranspositionTable transpositionTable) {
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        for(int ply = 0; ply < MAX_PLY; ply++) {
+            this.movePickers[ply] = new MovePicker(this.moveHistory);
+        }
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    // The book to play from before searching, or null to always search
+    public void setOpeningBook(final OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    // The endgame tables to score positions with few pieces from, or null to search them
+    public void setTablebase(final Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // Asks a running search to stop as soon as possible. The search then returns the result of its last completed depth.
+    public void stop() {
+        this.stopped = true;
+    }
+
+    // Ready for a new search. Called once before a search starts, never by the search itself, so that a stop sent while
+    // the search is starting up is not lost.
+    void clearStop() {
+        this.stopped = false;
+    }
+
+    // Nodes visited so far by the current (or last) search
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public SearchResult search(final Board board, final SearchLimits limits) {
+        clearStop();
+        final SearchResult bookResult = probeBook(this.openingBook, board);
+        if(bookResult != null) {
+            return bookResult;
+        }
+        this.transpositionTable.newSearch();
+        return searchPosition(board, limits);
+    }
+
+    // A result with a move of the book, or null if there is no book or the position is not in it
+    static SearchResult probeBook(final OpeningBook book, final Board board) {
+        if(book == null) {
+            return null;
+        }
+        final Move move = book.chooseMove(board);
+        return move == Move.NULL_MOVE ? null : SearchResult.bookMove(move);
+    }
+
+    // Searches without starting a new transposition table age, for searches that are part of a larger one
+    // (e.g. the root moves of ParallelAnalysis), whose entries should not age each other out
+    SearchResult searchPosition(final Board board, final SearchLimits limits) {
+        return searchPosition(board, limits, 1);
+    }
+
+    // Same, with iterative deepening starting at firstDepth instead of 1. Helpers of a LazySmpSearch start deeper than the
+    // main thread so the threads do not all walk the same tree in step.
+    SearchResult searchPosition(final Board board, final SearchLimits limits, final int firstDepth) {
+        final long start = System.currentTimeMillis();
+        final SearchBoard searchBoard = new SearchBoard(board);
+        this.aborted = false;
+        this.nodes = 0;
+        this.nodeLimit = limits.hasNodeLimit() ? limits.getNodeLimit() : Long.MAX_VALUE;
+        this.deadline = limits.hasTimeLimit() ? start + limits.getTimeLimitMillis() : Long.MAX_VALUE;
+        this.previousPrincipalVariation = new int[0];
+        this.moveHistory.clear();
+
+        int bestScore = 0;
+        int completedDepth = 0;
+        for(int depth = firstDepth; depth <= limits.getMaxDepth(); depth++) {
+            final int score = negamax(searchBoard, depth, 0, -INFINITY, INFINITY);
+            if(this.aborted) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            this.previousPrincipalVariation = copyPrincipalVariation();
+            if(Math.abs(score) >= MATE_SCORE - MAX_PLY) {
+                break; // A forced mate was found, searching deeper cannot improve on it
+            }
+        }
+
+        if(this.previousPrincipalVariation.length == 0) {
+            // Not even depth 1 finished: fall back on any legal move so there is always something to play
+            final int[] moves = new int[SearchBoard.MAX_MOVES];
+            if(searchBoard.generateLegalMoves(moves) > 0) {
+                this.previousPrincipalVariation = new int[] {moves[0]};
+            }
+        }
+        return new SearchResult(toMoves(board, this.previousPrincipalVariation), bestScore, completedDepth,
+                                this.nodes, System.currentTimeMillis() - start);
+    }
+
+    private int negamax(final SearchBoard board, final int depth, final int ply, int alpha, final int beta) {
+        this.principalVariationLength[ply] = ply;
+        if(ply > 0 && board.isDraw()) {
+            return 0; // Repeated, or fifty moves without a pawn move or capture
+        }
+        if(depth <= 0) {
+            return quiescence(board, ply, alpha, beta);
+        }
+        if(shouldAbort()) {
+            return 0;
+        }
+        if(ply >= MAX_PLY - 1) {
+            return this.evaluator.evaluate(board);
+        }
+        if(ply > 0 && this.tablebase != null) {
+            final int value = this.tablebase.probe(board);
+            if(value != Tablebase.NOT_FOUND) {
+                return Math.max(alpha, Math.min(tablebaseScore(value, ply), beta));
+            }
+        }
+
+        final long key = board.getZobristKey();
+        final long entry = this.transpositionTable.probe(key);
+        final int hashMove = TranspositionTable.getMove(entry);
+        // The root is always searched so it has a principal variation to return
+        if(entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+            final int storedScore = TranspositionTable.getScore(entry, ply);
+            final int bound = TranspositionTable.getBound(entry);
+            if(bound == TranspositionTable.EXACT) {
+                return Math.max(alpha, Math.min(storedScore, beta));
+            }
+            if(bound == TranspositionTable.LOWER_BOUND && storedScore >= beta) {
+                return beta;
+            }
+            if(bound == TranspositionTable.UPPER_BOUND && storedScore <= alpha) {
+                return alpha;
+            }
+        }
+
+        final MovePicker picker = this.movePickers[ply];
+        picker.init(board, ply, ply < this.previousPrincipalVariation.length ? this.previousPrincipalVariation[ply] : PackedMove.NONE,
+                    hashMove);
+
+        final int originalAlpha = alpha;
+        int bestMove = 0;
+        int legalMoves = 0;
+        for(int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            if(!board.makeLegalMove(move)) {
+                continue;
+            }
+            legalMoves++;
+            final int score = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if(this.aborted) {
+                return 0;
+            }
+            if(score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+                if(alpha >= beta) {
+                    // The opponent will avoid this position, no need to look at the other moves
+                    if(!PackedMove.isAttack(move) && !PackedMove.isPromotion(move)) {
+                        this.moveHistory.recordCutoff(ply, board.getSideToMove(), move, depth);
+                    }
+                    this.transpositionTable.store(key, bestMove, beta, depth, TranspositionTable.LOWER_BOUND, ply);
+                    return beta;
+                }
+            }
+        }
+
+        if(legalMoves == 0) {
+            return board.isChecked() ? -MATE_SCORE + ply : 0; // Checkmate or stalemate
+        }
+        this.transpositionTable.store(key, bestMove, alpha, depth,
+                                      alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND, ply);
+        return alpha;
+    }
+
+    // A mate found in the tablebase scores like a mate found by the search, counted from the root
+    private static int tablebaseScore(final int value, final int ply) {
+        if(Tablebase.isWin(value)) {
+            return MATE_SCORE - ply - Tablebase.getPliesToMate(value);
+        }
+        if(Tablebase.isLoss(value)) {
+            return -MATE_SCORE + ply + Tablebase.getPliesToMate(value);
+        }
+        return 0;
+    }
+
+    // Searches captures only until the position is quiet. The side to move may also "stand pat" and keep the static
+    // evaluation, since it is never forced to capture.
+    private int quiescence(final SearchBoard board, final int ply, int alpha, final int beta) {
+        if(shouldAbort()) {
+            return 0;
+        }
+        final int standPat = this.evaluator.evaluate(board);
+        if(standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat >= beta ? beta : standPat;
+        }
+        if(standPat > alpha) {
+            alpha = standPat;
+        }
+
+        final MovePicker picker = this.movePickers[ply];
+        picker.initCaptures(board);
+        for(int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            if(!board.makeLegalMove(move)) {
+                continue;
+            }
+            final int score = -quiescence(board, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if(this.aborted) {
+                return 0;
+            }
+            if(score > alpha) {
+                alpha = score;
+                if(alpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    // Counts the node and checks the limits every CHECK_INTERVAL nodes. Once a limit is hit the search unwinds.
+    private boolean shouldAbort() {
+        this.nodes++;
+        if((this.nodes & (CHECK_INTERVAL - 1)) == 0) {
+            if(this.stopped || this.nodes >= this.nodeLimit || System.currentTimeMillis() >= this.deadline) {
+                this.aborted = true;
+            }
+        } else if(this.nodes >= this.nodeLimit) {
+            this.aborted = true;
+        }
+        return this.aborted;
+    }
+
+    // Triangular principal variation table: the line at ply is the move just played followed by the line found at ply + 1
+    private void updatePrincipalVariation(final int ply, final int move) {
+        this.principalVariationTable[ply][ply] = move;
+        final int childLength = this.principalVariationLength[ply + 1];
+        for(int i = ply + 1; i < childLength; i++) {
+            this.principalVariationTable[ply][i] = this.principalVariationTable[ply + 1][i];
+        }
+        this.principalVariationLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private int[] copyPrincipalVariation() {
+        final int[] line = new int[this.principalVariationLength[0]];
+        System.arraycopy(this.principalVariationTable[0], 0, line, 0, line.length);
+        return line;
+    }
+
+    // Replays the encoded line on the board, converting each move to the matching Move of the board it is played on
+    private static List<Move> toMoves(final Board board, final int[] line) {
+        final List<Move> moves = new ArrayList<>();
+        Board current = board;
+        for(final int encodedMove : line) {
+            final Move move = PackedMove.decode(current, encodedMove);
+            if(move == Move.NULL_MOVE) {
+                break;
+            }
+            final BoardTransition transition = current.currentPlayer().makeMove(move);
+            if(!transition.getMoveStatus().isCompleted()) {
+                break;
+            }
+            moves.add(move);
+            current = transition.getTransitioningBoard();
+        }
+        return moves;
+    }
+}
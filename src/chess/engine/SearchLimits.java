@@ -0,0 +1,78 @@
+package chess.engine;
+
+/* The limits a search runs under. A search stops at whichever limit it reaches first:
+* - the maximum depth of iterative deepening
+* - a time budget in milliseconds (0 means no time limit)
+* - a node budget (0 means no node limit), useful for reproducible batch analysis
+*/
+public final class SearchLimits {
+
+    private final int maxDepth;
+    private final long timeLimitMillis;
+    private final long nodeLimit;
+
+    private SearchLimits(final LimitsBuilder builder) {
+        this.maxDepth = builder.maxDepth;
+        this.timeLimitMillis = builder.timeLimitMillis;
+        this.nodeLimit = builder.nodeLimit;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public long getTimeLimitMillis() {
+        return this.timeLimitMillis;
+    }
+
+    public long getNodeLimit() {
+        return this.nodeLimit;
+    }
+
+    public boolean hasTimeLimit() {
+        return this.timeLimitMillis > 0;
+    }
+
+    public boolean hasNodeLimit() {
+        return this.nodeLimit > 0;
+    }
+
+    // Convenience factories for the common single-limit searches
+    public static SearchLimits depth(final int maxDepth) {
+        return new LimitsBuilder().setMaxDepth(maxDepth).build();
+    }
+
+    public static SearchLimits time(final long timeLimitMillis) {
+        return new LimitsBuilder().setTimeLimitMillis(timeLimitMillis).build();
+    }
+
+    public static SearchLimits nodes(final long nodeLimit) {
+        return new LimitsBuilder().setNodeLimit(nodeLimit).build();
+    }
+
+    public static class LimitsBuilder {
+
+        int maxDepth = Search.MAX_PLY - 1;
+        long timeLimitMillis;
+        long nodeLimit;
+
+        public LimitsBuilder setMaxDepth(final int maxDepth) {
+            this.maxDepth = Math.max(1, Math.min(maxDepth, Search.MAX_PLY - 1));
+            return this;
+        }
+
+        public LimitsBuilder setTimeLimitMillis(final long timeLimitMillis) {
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        public LimitsBuilder setNodeLimit(final long nodeLimit) {
+            this.nodeLimit = nodeLimit;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.List;
+import com.google.common.collect.ImmutableList;
+import chess.board.Move;
+/* End of package imports*/
+
+/* The outcome of a search: the best move found, the principal variation (the line both sides are expected to play),
+* and the score, depth and node count it was found with. Scores are from the point of view of the side to move.
+* A move taken from the opening book comes without a search: its depth, score and node count are 0.
+*/
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final List<Move> principalVariation;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final boolean bookMove;
+
+    SearchResult(final List<Move> principalVariation, final int score, final int depth, final long nodes, final long elapsedMillis) {
+        this(principalVariation, score, depth, nodes, elapsedMillis, false);
+    }
+
+    private SearchResult(final List<Move> principalVariation, final int score, final int depth, final long nodes,
+                         final long elapsedMillis, final boolean bookMove) {
+        this.principalVariation = ImmutableList.copyOf(principalVariation);
+        this.bestMove = principalVariation.isEmpty() ? Move.NULL_MOVE : principalVariation.get(0);
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.bookMove = bookMove;
+    }
+
+    static SearchResult bookMove(final Move move) {
+        return new SearchResult(ImmutableList.of(move), 0, 0, 0, 0, true);
+    }
+
+    // The move to play, or Move.NULL_MOVE if the side to move has no legal moves
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    // The deepest iteration that was completed
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nodes * 1000 / Math.max(1, this.elapsedMillis);
+    }
+
+    // Whether the move came from the opening book rather than a search
+    public boolean isBookMove() {
+        return this.bookMove;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(this.score) >= Search.MATE_SCORE - Search.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        if(this.bookMove) {
+            return "book move " + this.bestMove;
+        }
+        final StringBuilder output = new StringBuilder();
+        output.append("depth ").append(this.depth).append(" score ").append(this.score)
+              .append(" nodes ").append(this.nodes).append(" time ").append(this.elapsedMillis).append("ms pv");
+        for(final Move move : this.principalVariation) {
+            output.append(' ').append(move);
+        }
+        return output.toString();
+    }
+}
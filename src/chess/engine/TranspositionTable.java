@@ -0,0 +1,210 @@
+package chess.engine;
+
+/* Start of package imports */
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+/* End of package imports*/
+
+/* The TranspositionTable class. A fixed-size hash table of search results keyed by Zobrist key, so a position reached
+* again (by a transposition, or in the next iteration of iterative deepening) does not have to be searched from scratch.
+*
+* The table is a single long[] split into buckets of BUCKET_SIZE entries (one 64 byte cache line), two longs per entry:
+* - the entry data: best move, score, depth, bound and age packed into one long (see the *_SHIFT constants)
+* - the position key XOR-ed with the data
+* There are no locks. Threads may write an entry at the same time and leave the two longs from different writes, but a
+* probe only accepts an entry if key XOR data gives back the probed key, so a torn entry just reads as a miss.
+*
+* Scores are stored relative to the node: a mate score is converted to "mate in n from this node" on store and back to
+* "mate in n from the root" on probe, so an entry can be reused at any ply.
+*/
+public final class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    // Bound types. An entry's score is exact, or only a bound because the search of the node was cut short.
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // The node failed high: the score is at least this
+    public static final int UPPER_BOUND = 3; // The node failed low: the score is at most this
+
+    // A probe that finds no entry returns MISS. Every stored entry has a bound, so its data is never 0.
+    public static final long MISS = 0L;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_BUCKET = BUCKET_SIZE * LONGS_PER_ENTRY * Long.BYTES;
+
+    // Entry data layout: move (16 bits) | score (32 bits) | depth (8 bits) | bound (2 bits) | age (6 bits)
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    // Creates a table using at most sizeMegabytes of memory. The bucket count is rounded down to a power of two.
+    public TranspositionTable(final int sizeMegabytes) {
+        if(sizeMegabytes < 1) {
+            throw new IllegalArgumentException("A transposition table needs at least 1 MB, not " + sizeMegabytes);
+        }
+        final long buckets = Long.highestOneBit((long) sizeMegabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        final long maxBuckets = Integer.highestOneBit(Integer.MAX_VALUE / (BUCKET_SIZE * LONGS_PER_ENTRY));
+        final int bucketCount = (int) Math.min(buckets, maxBuckets);
+        this.table = new long[bucketCount * BUCKET_SIZE * LONGS_PER_ENTRY];
+        this.bucketMask = bucketCount - 1;
+    }
+
+    // Marks the start of a new search. Entries from earlier searches are replaced before entries of the current one.
+    public void newSearch() {
+        this.age = (this.age + 1) & AGE_MASK;
+    }
+
+    // Empties the table and resets the counters
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.age = 0;
+        this.probes.reset();
+        this.hits.reset();
+        this.stores.reset();
+        this.collisions.reset();
+    }
+
+    // Returns the data of the entry for the position, or MISS. Read the entry with the static getters below.
+    public long probe(final long key) {
+        this.probes.increment();
+        final int bucket = bucketIndex(key);
+        for(int i = bucket; i < bucket + BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i];
+            if(data != MISS && (this.table[i + 1] ^ data) == key) {
+                this.hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    // Stores a search result for the position. The entry replaces, in order of preference: the position's own entry,
+    // an empty entry, or the entry worth least (shallowest, and from the oldest search).
+    public void store(final long key, final int move, final int score, final int depth, final int bound, final int ply) {
+        this.stores.increment();
+        final int bucket = bucketIndex(key);
+        final int currentAge = this.age;
+        int replace = bucket;
+        int lowestWorth = Integer.MAX_VALUE;
+        for(int i = bucket; i < bucket + BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i];
+            if(data == MISS || (this.table[i + 1] ^ data) == key) {
+                if(data != MISS && move == 0) {
+                    // A search that found no best move keeps the move already known for the position
+                    writeEntry(i, key, getMove(data), score, depth, bound, ply, currentAge);
+                } else {
+                    writeEntry(i, key, move, score, depth, bound, ply, currentAge);
+                }
+                return;
+            }
+            final int worth = getDepth(data) - 8 * ((currentAge - getAge(data)) & AGE_MASK);
+            if(worth < lowestWorth) {
+                lowestWorth = worth;
+                replace = i;
+            }
+        }
+        this.collisions.increment();
+        writeEntry(replace, key, move, score, depth, bound, ply, currentAge);
+    }
+
+    // Permille of a sample of entries that were written by the current search, as reported by UCI "hashfull"
+    public int getHashFull() {
+        final int sample = Math.min(1000, this.table.length / LONGS_PER_ENTRY);
+        int used = 0;
+        for(int i = 0; i < sample; i++) {
+            final long data = this.table[i * LONGS_PER_ENTRY];
+            if(data != MISS && getAge(data) == this.age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public int getEntryCount() {
+        return this.table.length / LONGS_PER_ENTRY;
+    }
+
+    public long getProbes() {
+        return this.probes.sum();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getStores() {
+        return this.stores.sum();
+    }
+
+    // Stores that had to overwrite the entry of another position
+    public long getCollisions() {
+        return this.collisions.sum();
+    }
+
+    // Encoded best move of the entry (see PackedMove), or 0 if none was found
+    public static int getMove(final long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    // The score of the entry, as seen from a node ply plies from the root
+    public static int getScore(final long data, final int ply) {
+        final int score = (int) (data >> SCORE_SHIFT);
+        if(score >= Search.MATE_SCORE - Search.MAX_PLY) {
+            return score - ply;
+        }
+        if(score <= -Search.MATE_SCORE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int getDepth(final long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int getBound(final long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int getAge(final long data) {
+        return (int) ((data >>> AGE_SHIFT) & AGE_MASK);
+    }
+
+    private void writeEntry(final int index, final long key, final int move, final int score, final int depth,
+                            final int bound, final int ply, final int entryAge) {
+        int storedScore = score;
+        if(score >= Search.MATE_SCORE - Search.MAX_PLY) {
+            storedScore = score + ply;
+        } else if(score <= -Search.MATE_SCORE + Search.MAX_PLY) {
+            storedScore = score - ply;
+        }
+        final long data = (move & 0xFFFFL)
+                        | ((storedScore & 0xFFFFFFFFL) << SCORE_SHIFT)
+                        | ((long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT)
+                        | ((long) bound << BOUND_SHIFT)
+                        | ((long) entryAge << AGE_SHIFT);
+        this.table[index] = data;
+        this.table[index + 1] = key ^ data;
+    }
+
+    private int bucketIndex(final long key) {
+        // The low bits of the key pick the bucket; the full key is still checked on probe
+        return (int) (key & this.bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+}
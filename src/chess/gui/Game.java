@@ -8,6 +8,12 @@ import com.google.common.collect.Lists;
 import chess.board.Board;
 import chess.board.Move;
 import chess.board.Tile;
+import chess.database.OpeningBook;
+import chess.database.Tablebase;
+import chess.engine.LazySmpSearch;
+import chess.engine.SearchLimits;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
 import chess.pieces.Piece;
 import chess.players.BoardTransition;
 
@@ -19,10 +25,14 @@ import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import static javax.swing.SwingUtilities.*;
 
 public class Game {
@@ -32,9 +42,18 @@ public class Game {
     private final static Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private final static Dimension TILE_PANEL_DIMENSION = new Dimension(10,10);
 
+    // How long the computer opponent thinks about each move
+    private final static long COMPUTER_THINKING_TIME_MILLIS = 2000;
+
     // The directory that contains the icons
     private static String pieceIconPath = "art/";
 
+    // The opening book the computer plays from, if there is one (see OpeningBookBuilder)
+    private final static String OPENING_BOOK_FILE = "book.bin";
+
+    // The endgame tables the computer plays endings from, if there are any (see TablebaseGenerator)
+    private final static String TABLEBASE_DIRECTORY = "tablebases";
+
     // Predefined color codes for the tiles on the board.
     private final Color lightTileColor = Color.decode("#DBA44F");
     private final Color darkTileColor = Color.decode("#332413");
@@ -54,6 +73,11 @@ public class Game {
     private Piece movedPiece;
     private BoardDirection boardDirection;
     private boolean highlightLegalMoves;
+    private boolean computerPlaysBlack;
+    private boolean computerThinking;
+
+    // The computer opponent searches on every core, keeping its hash table between moves
+    private final LazySmpSearch computerSearch = new LazySmpSearch(Runtime.getRuntime().availableProcessors());
 
     public Game() {
         // Configure the main fame
@@ -71,6 +95,8 @@ public class Game {
 
         // Create standard board
         chessboard = Board.createStandardBoard();
+        openOpeningBook();
+        openTablebase();
 
         // Build the Move Log Panel
         this.moveLogPanel = new MoveLogPanel();
@@ -90,6 +116,32 @@ public class Game {
         this.mainFrame.setVisible(true);
     }
 
+    // The computer plays book moves while the game is in the book, and searches without one if the file is missing
+    private void openOpeningBook() {
+        final Path bookFile = Paths.get(OPENING_BOOK_FILE);
+        if(!Files.isRegularFile(bookFile)) {
+            return;
+        }
+        try {
+            computerSearch.setOpeningBook(OpeningBook.open(bookFile));
+        } catch(final IOException e) {
+            System.err.println("Cannot open the opening book " + bookFile + ": " + e.getMessage());
+        }
+    }
+
+    // Endings the tables cover are scored exactly instead of searched
+    private void openTablebase() {
+        final Path directory = Paths.get(TABLEBASE_DIRECTORY);
+        if(!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            computerSearch.setTablebase(Tablebase.open(directory));
+        } catch(final IOException e) {
+            System.err.println("Cannot open the endgame tables in " + directory + ": " + e.getMessage());
+        }
+    }
+
     private void createMenuBar(final JMenuBar menuBar) {
         menuBar.add(createFileMenu());
         menuBar.add(createPreferencesMenu());
@@ -102,7 +154,19 @@ public class Game {
         openPGN.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                System.out.println("Opening PGN File...");
+                final JFileChooser chooser = new JFileChooser();
+                if(chooser.showOpenDialog(mainFrame) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                final String gameNumber = JOptionPane.showInputDialog(mainFrame, "Number of the game to load", "1");
+                if(gameNumber == null) {
+                    return;
+                }
+                try {
+                    loadPgnGame(chooser.getSelectedFile(), Integer.parseInt(gameNumber.trim()));
+                } catch(final NumberFormatException exception) {
+                    JOptionPane.showMessageDialog(mainFrame, "Not a game number: " + gameNumber);
+                }
             }
         });
         fileMenu.add(openPGN);
@@ -149,9 +213,115 @@ public class Game {
 
         preferencesMenu.add(legalMoveHightlighterCheckbox);
 
+        // Lets the engine play the black pieces against the user
+        final JCheckBoxMenuItem computerOpponentCheckbox = new JCheckBoxMenuItem("Computer Plays Black", false);
+
+        computerOpponentCheckbox.addActionListener(new ActionListener() {
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                computerPlaysBlack = computerOpponentCheckbox.isSelected();
+                makeComputerMove();
+            }
+
+        });
+
+        preferencesMenu.add(computerOpponentCheckbox);
+
         return preferencesMenu;
     }
 
+    // Redraws the board, move log and captured pieces after the board has changed
+    private void updateGamePanels() {
+        moveLogPanel.redo(chessboard, moveLog);
+        capturedPiecesSideBar.logReset(moveLog);
+        boardPanel.drawBoard(chessboard);
+    }
+
+    // If it is the computer's turn, searches for its move on a background thread so the window stays responsive,
+    // then plays the move on the event dispatch thread. The computer claims a draw by threefold repetition or the
+    // fifty-move rule by not moving.
+    private void makeComputerMove() {
+        if(!this.computerPlaysBlack || this.computerThinking || !this.chessboard.currentPlayer().getType().isBlack()
+                || this.chessboard.isDraw()) {
+            return;
+        }
+        this.computerThinking = true;
+        final Board searchedBoard = this.chessboard;
+        new SwingWorker<Move, Void>() {
+            @Override
+            protected Move doInBackground() {
+                return computerSearch.search(searchedBoard, SearchLimits.time(COMPUTER_THINKING_TIME_MILLIS)).getBestMove();
+            }
+
+            @Override
+            protected void done() {
+                computerThinking = false;
+                try {
+                    final Move move = get();
+                    if(move != Move.NULL_MOVE && chessboard == searchedBoard) { // No move means the computer is mated or stalemated
+                        final BoardTransition transition = chessboard.currentPlayer().makeMove(move);
+                        if(transition.getMoveStatus().isCompleted()) {
+                            chessboard = transition.getTransitioningBoard();
+                            moveLog.addMove(move);
+                        }
+                    }
+                } catch(final InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+                updateGamePanels();
+            }
+        }.execute();
+    }
+
+    // Reads the file up to the chosen game on a background thread, as databases can be large, then replays the game
+    // into the board and move log. Games are numbered from 1.
+    private void loadPgnGame(final File file, final int gameNumber) {
+        new SwingWorker<List<Move>, Void>() {
+            private Board finalBoard;
+
+            @Override
+            protected List<Move> doInBackground() throws IOException {
+                try(final PgnReader reader = PgnReader.open(file.toPath())) {
+                    PgnGame game = null;
+                    for(int i = 0; i < gameNumber; i++) {
+                        game = reader.next();
+                        if(game == null) {
+                            throw new IOException("The file has only " + i + " games");
+                        }
+                    }
+                    if(game == null) {
+                        throw new IOException("Games are numbered from 1");
+                    }
+                    final List<Move> moves = game.replay();
+                    this.finalBoard = moves.isEmpty() ? game.createStartBoard() : moves.get(moves.size() - 1).execute();
+                    return moves;
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    final List<Move> moves = get();
+                    chessboard = this.finalBoard;
+                    sourceTile = null;
+                    finalTile = null;
+                    movedPiece = null;
+                    moveLog.clear();
+                    for(final Move move : moves) {
+                        moveLog.addMove(move);
+                    }
+                    updateGamePanels();
+                    makeComputerMove();
+                } catch(final InterruptedException | ExecutionException e) {
+                    // An interrupted load has no cause to report
+                    final Throwable reason = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(mainFrame, "Could not load the game: " + reason.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     // Enumerator class that describes the orientation of the board currently displayed
     public enum BoardDirection {
         DEFAULT {
@@ -257,6 +427,8 @@ public class Game {
                 public void mouseClicked(final MouseEvent e) {
                     if(isRightMouseButton(e)) { // Right clicks reset user actions
                         resetState();
+                    } else if (computerThinking) { // Ignore the user while the computer is choosing its move
+                        return;
                     } else if (isLeftMouseButton(e)) { // Left clicks to initiate moves
                         if(sourceTile == null) { // If the user has not currently selected a tile, set the source tile and piece being moved
                             sourceTile = chessboard.getTile(tilePosition);
@@ -277,9 +449,8 @@ public class Game {
                         SwingUtilities.invokeLater(new Runnable() {
                             @Override
                             public void run() {
-                                moveLogPanel.redo(chessboard, moveLog);
-                                capturedPiecesSideBar.logReset(moveLog);
-                                boardPanel.drawBoard(chessboard);
+                                updateGamePanels();
+                                makeComputerMove();
                             }
                         });
                     }
@@ -0,0 +1,134 @@
+package chess.perft;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.SearchBoard;
+import chess.players.BoardTransition;
+/* End of package imports*/
+
+/* Perft spread over several cores with a ForkJoinPool.
+* Boards are immutable, so the top of the tree is walked on Boards and every subtree becomes its own task: the root moves
+* when splitDepth is 1, the moves two plies deep when it is 2, and so on. Deeper splits give more, smaller tasks, which
+* balances better across many threads. Below the split each task counts its subtree on its own, either on a private
+* SearchBoard or on Boards through Player.makeMove like Perft.perft(Board, int).
+*
+* Usage: ParallelPerft [position] [depth] [maxThreads] [splitDepth]
+* runs the perft with 1, 2, 4 ... maxThreads threads and prints the speedup over one thread, checking every count.
+*/
+public final class ParallelPerft {
+
+    private final int parallelism;
+    private final int splitDepth;
+
+    // Splits the work at the root moves
+    public ParallelPerft(final int parallelism) {
+        this(parallelism, 1);
+    }
+
+    public ParallelPerft(final int parallelism, final int splitDepth) {
+        if(parallelism < 1 || splitDepth < 1) {
+            throw new IllegalArgumentException("Parallelism and split depth must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.splitDepth = splitDepth;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    public int getSplitDepth() {
+        return this.splitDepth;
+    }
+
+    // Counts the leaf nodes below the board, with each subtree below the split counted on a SearchBoard
+    public long perft(final Board board, final int depth) {
+        return run(new PerftTask(board, depth, 0, true));
+    }
+
+    // Same count, walking every subtree on Boards through Player.makeMove
+    public long perftWithBoards(final Board board, final int depth) {
+        return run(new PerftTask(board, depth, 0, false));
+    }
+
+    private long run(final PerftTask task) {
+        final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+
+        private final Board board;
+        private final int depth;
+        private final int ply;
+        private final boolean useSearchBoard;
+
+        PerftTask(final Board board, final int depth, final int ply, final boolean useSearchBoard) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+            this.useSearchBoard = useSearchBoard;
+        }
+
+        @Override
+        protected Long compute() {
+            if(this.depth == 0) {
+                return 1L;
+            }
+            if(this.ply >= ParallelPerft.this.splitDepth || this.depth <= 1) {
+                return this.useSearchBoard ? Perft.perft(new SearchBoard(this.board), this.depth) : Perft.perft(this.board, this.depth);
+            }
+            final List<PerftTask> subtrees = new ArrayList<>();
+            for(final Move move : this.board.currentPlayer().getLegalMoves()) {
+                final BoardTransition transition = this.board.currentPlayer().makeMove(move);
+                if(transition.getMoveStatus().isCompleted()) {
+                    subtrees.add(new PerftTask(transition.getTransitioningBoard(), this.depth - 1, this.ply + 1, this.useSearchBoard));
+                }
+            }
+            long nodes = 0;
+            for(final PerftTask subtree : invokeAll(subtrees)) {
+                nodes += subtree.join();
+            }
+            return nodes;
+        }
+    }
+
+    public static void main(final String[] args) {
+        final PerftPosition position = args.length > 0 ? PerftPosition.valueOf(args[0]) : PerftPosition.KIWIPETE;
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : Math.min(5, position.getMaxDepth());
+        final int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final int splitDepth = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        final long expected = position.getExpectedNodes(depth);
+
+        System.out.println(String.format("%s depth %d, split depth %d, %d cores available", position.name(), depth, splitDepth,
+                                         Runtime.getRuntime().availableProcessors()));
+        new ParallelPerft(1, splitDepth).perft(position.createBoard(), depth); // Warm up the JIT so one thread is not penalised
+
+        double singleThreadSeconds = 0;
+        boolean passed = true;
+        for(int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            final long start = System.nanoTime();
+            final long nodes = new ParallelPerft(threads, splitDepth).perft(position.createBoard(), depth);
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            if(threads == 1) {
+                singleThreadSeconds = seconds;
+            }
+            passed &= nodes == expected;
+            final double speedup = singleThreadSeconds / seconds;
+            System.out.println(String.format("%-8s threads %3d  nodes %,14d  %8.3fs  %,14.0f nps  speedup %5.2fx  efficiency %5.1f%%",
+                    nodes == expected ? "OK" : "MISMATCH", threads, nodes, seconds, nodes / seconds, speedup, 100 * speedup / threads));
+        }
+        if(!passed) {
+            System.exit(1);
+        }
+    }
+}
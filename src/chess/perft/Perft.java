@@ -0,0 +1,120 @@
+package chess.perft;
+
+/* Start of package imports */
+import java.util.LinkedHashMap;
+import java.util.Map;
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.board.SearchBoard;
+import chess.players.BoardTransition;
+/* End of package imports*/
+
+/* The Perft (performance test) driver. Walks the legal move tree to a fixed depth and counts the leaf nodes.
+* The counts are compared against known values to catch move generation errors, and the time taken gives a
+* nodes per second figure to compare move generator performance across releases.
+*
+* Usage: Perft [maxDepth]            runs every reference position up to maxDepth (default: every known depth)
+*        Perft divide <position> <depth>   prints the node count below each root move of a reference position
+*/
+public final class Perft {
+
+    private Perft() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // Counts the leaf nodes below the board, making every move through Player.makeMove
+    public static long perft(final Board board, final int depth) {
+        if(depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            final BoardTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isCompleted()) {
+                nodes += perft(transition.getTransitioningBoard(), depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    // Counts the leaf nodes below the position held by the search board, using make/unmake.
+    // The board is left in the position it started in.
+    public static long perft(final SearchBoard board, final int depth) {
+        return perft(board, depth, new int[depth + 1][SearchBoard.MAX_MOVES]);
+    }
+
+    private static long perft(final SearchBoard board, final int depth, final int[][] moveBuffers) {
+        final int[] moves = moveBuffers[depth];
+        final int moveCount = board.generateLegalMoves(moves);
+        if(depth == 1) {
+            return moveCount; // Every legal move is a leaf, so there is no need to make them
+        }
+        long nodes = 0;
+        for(int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            nodes += perft(board, depth - 1, moveBuffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // Returns the node count below each root move, keyed by the move's coordinate notation (e.g. e2e4).
+    // Comparing a divide against another engine's points straight at the move whose subtree is wrong.
+    public static Map<String, Long> divide(final Board board, final int depth) {
+        final Map<String, Long> division = new LinkedHashMap<>();
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            final BoardTransition transition = board.currentPlayer().makeMove(move);
+            if(transition.getMoveStatus().isCompleted()) {
+                division.put(PackedMove.toString(PackedMove.encode(move)), perft(transition.getTransitioningBoard(), depth - 1));
+            }
+        }
+        return division;
+    }
+
+    // Runs a perft and prints the count, whether it matches the reference, and the nodes per second.
+    private static boolean runPosition(final PerftPosition position, final int depth) {
+        final long expected = position.getExpectedNodes(depth);
+
+        long start = System.nanoTime();
+        final long boardNodes = perft(position.createBoard(), depth);
+        final double boardSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        final long searchBoardNodes = perft(new SearchBoard(position.createBoard()), depth);
+        final double searchBoardSeconds = (System.nanoTime() - start) / 1e9;
+
+        final boolean passed = boardNodes == expected && searchBoardNodes == expected;
+        System.out.println(String.format("%-10s %-20s depth %d  expected %,12d  Board %,12d (%,10.0f nps)  SearchBoard %,12d (%,12.0f nps)  %s",
+                passed ? "OK" : "MISMATCH", position.name(), depth, expected, boardNodes, boardNodes / boardSeconds,
+                searchBoardNodes, searchBoardNodes / searchBoardSeconds, position.getDescription()));
+        return passed;
+    }
+
+    public static void main(final String[] args) {
+        if(args.length == 3 && args[0].equals("divide")) {
+            final PerftPosition position = PerftPosition.valueOf(args[1]);
+            long total = 0;
+            for(final Map.Entry<String, Long> entry : divide(position.createBoard(), Integer.parseInt(args[2])).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("Total: " + total);
+            return;
+        }
+
+        final int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        int failures = 0;
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int depth = 1; depth <= Math.min(maxDepth, position.getMaxDepth()); depth++) {
+                if(!runPosition(position, depth)) {
+                    failures++;
+                }
+            }
+        }
+        System.out.println(failures == 0 ? "All perft counts match." : failures + " perft counts do not match.");
+        if(failures != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package chess.perft;
+
+/* Start of package imports */
+import chess.board.Board;
+import chess.board.Fen;
+/* End of package imports*/
+
+/* Standard perft reference positions with their known leaf node counts (index 0 is depth 1).
+* Between them they cover pawn jumps, en passant, every promotion, castling through and out of check, and pins.
+*/
+public enum PerftPosition {
+    STANDARD("Starting position", Fen.STANDARD_POSITION,
+             new long[] {20, 400, 8902, 197281, 4865609}),
+    KIWIPETE("Kiwipete: castling, en passant and pins",
+             "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+             new long[] {48, 2039, 97862, 4085603}),
+    ENDGAME("Rook endgame: en passant discovered checks", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[] {14, 191, 2812, 43238, 674624}),
+    PROMOTIONS("Promotions and castling rights", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+               new long[] {6, 264, 9467, 422333}),
+    PROMOTION_CAPTURES("Promotion captures and checks", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                       new long[] {44, 1486, 62379, 2103487}),
+    MIDDLEGAME("Symmetrical middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+               new long[] {46, 2079, 89890, 3894594});
+
+    private final String description;
+    private final String fen;
+    private final long[] expectedNodes;
+
+    PerftPosition(final String description, final String fen, final long[] expectedNodes) {
+        this.description = description;
+        this.fen = fen;
+        this.expectedNodes = expectedNodes;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    // The deepest depth with a known node count
+    public int getMaxDepth() {
+        return this.expectedNodes.length;
+    }
+
+    public long getExpectedNodes(final int depth) {
+        return this.expectedNodes[depth - 1];
+    }
+
+    public String getFen() {
+        return this.fen;
+    }
+
+    public Board createBoard() {
+        return Fen.parse(this.fen);
+    }
+}
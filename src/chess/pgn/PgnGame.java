@@ -0,0 +1,87 @@
+package chess.pgn;
+
+/* Start of package imports */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import chess.board.Board;
+import chess.board.Fen;
+import chess.board.Move;
+import chess.players.BoardTransition;
+/* End of package imports*/
+
+/* One game read from a PGN file: its tag pairs, the SAN moves of its main line and its result.
+* The reader only splits the text into moves; they are checked against the board when the game is replayed, so skipping
+* through a database to the games that are wanted costs no move generation.
+*/
+public final class PgnGame {
+
+    private final Map<String, String> tags;
+    private final List<String> sanMoves;
+    private final String result;
+    private final long lineNumber;
+
+    PgnGame(final Map<String, String> tags, final List<String> sanMoves, final String result, final long lineNumber) {
+        this.tags = ImmutableMap.copyOf(tags);
+        this.sanMoves = ImmutableList.copyOf(sanMoves);
+        this.result = result;
+        this.lineNumber = lineNumber;
+    }
+
+    // The tag pairs in the order they were written, e.g. "White" -> "Carlsen, Magnus"
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    // The value of a tag, or null if the game does not have it
+    public String getTag(final String name) {
+        return this.tags.get(name);
+    }
+
+    public List<String> getSanMoves() {
+        return this.sanMoves;
+    }
+
+    // "1-0", "0-1", "1/2-1/2", or "*" for an unfinished or unknown result
+    public String getResult() {
+        return this.result;
+    }
+
+    // The line of the file the game starts on, for error messages
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    // The standard starting position, or the position of the FEN tag for games that start elsewhere
+    public Board createStartBoard() {
+        final String fen = getTag("FEN");
+        return fen != null ? Fen.parse(fen) : Board.createStandardBoard();
+    }
+
+    // Plays the moves from the start board. Each Move belongs to the board it was played on (Move.getBoard).
+    // Throws IllegalArgumentException if a move is not legal.
+    public List<Move> replay() {
+        final List<Move> moves = new ArrayList<>(this.sanMoves.size());
+        Board board = createStartBoard();
+        for(final String san : this.sanMoves) {
+            final Move move;
+            try {
+                move = San.parse(board, san);
+            } catch(final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Game at line " + this.lineNumber + ", ply " + (moves.size() + 1) + ": "
+                                                   + e.getMessage(), e);
+            }
+            final BoardTransition transition = board.currentPlayer().makeMove(move);
+            board = transition.getTransitioningBoard();
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return getTag("White") + " - " + getTag("Black") + " " + this.result + " (" + this.sanMoves.size() + " plies)";
+    }
+}
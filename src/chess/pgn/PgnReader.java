@@ -0,0 +1,255 @@
+package chess.pgn;
+
+/* Start of package imports */
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+/* End of package imports*/
+
+/* Reads PGN files one game at a time, so a database of any size is read with only the current game in memory.
+* Handled:
+* - tag pairs: [Name "value"], with \" and \\ escapes in the value
+* - the movetext: move numbers ("12." and "12..."), SAN moves, and the result (1-0, 0-1, 1/2-1/2, *) that ends the game
+* - comments in braces and to the end of the line after ';', and lines starting with '%', which are all skipped
+* - numeric annotation glyphs ($1) and variations in parentheses, which may nest and are skipped with everything in them
+* A game without a result ends where the next game's tags start, and so does a game that has tags but no movetext at all,
+* once a blank line follows its tags.
+* Files are decoded as ISO-8859-1, which never fails: the movetext is ASCII and only tag values can hold other characters.
+*/
+public final class PgnReader implements Closeable {
+
+    private static final int END_OF_FILE = -1;
+    private static final int NO_CHARACTER = -2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE]; // Read in blocks rather than a (synchronized) call per character
+    private int bufferPosition;
+    private int bufferLength;
+    private final StringBuilder token = new StringBuilder(32);
+    private int pushedBack = NO_CHARACTER;
+    private boolean atLineStart = true;
+    private long lineNumber = 1;
+
+    public PgnReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    public static PgnReader open(final Path file) throws IOException {
+        return new PgnReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.ISO_8859_1));
+    }
+
+    // Reads every game of a file and passes each to the consumer. Returns the number of games read.
+    public static long forEachGame(final Path file, final Consumer<PgnGame> consumer) throws IOException {
+        long count = 0;
+        try(final PgnReader reader = open(file)) {
+            PgnGame game;
+            while((game = reader.next()) != null) {
+                consumer.accept(game);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The next game, or null at the end of the input
+    public PgnGame next() throws IOException {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        final List<String> sanMoves = new ArrayList<>();
+        long gameLine = -1;
+        int variationDepth = 0;
+        boolean lineBlank = true; // Nothing but whitespace read on the current line yet
+        boolean blankLineAfterTags = false;
+        while(true) {
+            final boolean lineStart = this.atLineStart;
+            final int c = read();
+            if(c == END_OF_FILE) {
+                if(gameLine < 0) {
+                    return null;
+                }
+                return new PgnGame(tags, sanMoves, "*", gameLine); // A truncated last game is still returned
+            }
+            if(Character.isWhitespace(c)) {
+                if(c == '\n') {
+                    blankLineAfterTags |= lineBlank && !tags.isEmpty();
+                    lineBlank = true;
+                }
+                continue;
+            }
+            lineBlank = false;
+            if(c == '%' && lineStart) {
+                skipLine();
+                lineBlank = true;
+                continue;
+            }
+            if(c == '{') {
+                skipComment();
+                continue;
+            }
+            if(c == ';') {
+                skipLine();
+                lineBlank = true;
+                continue;
+            }
+            if(gameLine < 0) {
+                gameLine = this.lineNumber;
+            }
+            if(c == '[') {
+                if(variationDepth == 0 && (!sanMoves.isEmpty() || blankLineAfterTags)) {
+                    // The previous game had no result (and maybe no moves either): this tag belongs to the next one
+                    this.pushedBack = c;
+                    return new PgnGame(tags, sanMoves, "*", gameLine);
+                }
+                readTag(tags);
+            } else if(c == '(') {
+                variationDepth++;
+            } else if(c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+            } else if(c == '$') {
+                readSymbol(c); // Numeric annotation glyph
+            } else if(c == '}' || c == ']') {
+                continue; // Stray closing bracket
+            } else {
+                final String symbol = readSymbol(c);
+                if(variationDepth > 0) {
+                    continue;
+                }
+                if(isResult(symbol)) {
+                    return new PgnGame(tags, sanMoves, symbol, gameLine);
+                }
+                final String san = stripMoveNumber(symbol);
+                // "exd6 e.p." is read as two symbols; the en passant mark belongs to the move before it
+                if(!san.isEmpty() && !san.equals(San.EN_PASSANT_MARK)) {
+                    sanMoves.add(san);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private void readTag(final Map<String, String> tags) throws IOException {
+        final long tagLine = this.lineNumber;
+        int c = skipWhitespace(read());
+        this.token.setLength(0);
+        while(c != END_OF_FILE && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            this.token.append((char) c);
+            c = read();
+        }
+        final String name = this.token.toString();
+        c = skipWhitespace(c);
+        this.token.setLength(0);
+        if(c == '"') {
+            for(c = read(); c != '"'; c = read()) {
+                if(c == END_OF_FILE || c == '\n') {
+                    throw new IOException("Unterminated value of tag " + name + " at line " + tagLine);
+                }
+                if(c == '\\') {
+                    c = read();
+                }
+                this.token.append((char) c);
+            }
+            c = read();
+        }
+        while(c != ']' && c != END_OF_FILE && c != '\n') {
+            c = read();
+        }
+        tags.put(name, this.token.toString());
+    }
+
+    // Reads a run of characters from the given one up to whitespace or the next delimiter
+    private String readSymbol(final int first) throws IOException {
+        this.token.setLength(0);
+        this.token.append((char) first);
+        int c = read();
+        while(c != END_OF_FILE && !Character.isWhitespace(c) && !isDelimiter(c)) {
+            this.token.append((char) c);
+            c = read();
+        }
+        this.pushedBack = c;
+        return this.token.toString();
+    }
+
+    // "12.e4" -> "e4", "12..." -> "", "e4" -> "e4", "0-0" -> "0-0"
+    private static String stripMoveNumber(final String symbol) {
+        int start = 0;
+        while(start < symbol.length() && Character.isDigit(symbol.charAt(start))) {
+            start++;
+        }
+        if(start == symbol.length()) {
+            return ""; // A move number without its dot
+        }
+        if(symbol.charAt(start) != '.') {
+            start = 0; // Not a move number, e.g. castling written with zeros
+        }
+        while(start < symbol.length() && symbol.charAt(start) == '.') {
+            start++;
+        }
+        return symbol.substring(start);
+    }
+
+    private static boolean isResult(final String symbol) {
+        return symbol.equals("1-0") || symbol.equals("0-1") || symbol.equals("1/2-1/2") || symbol.equals("*");
+    }
+
+    private static boolean isDelimiter(final int c) {
+        return c == '{' || c == '}' || c == '(' || c == ')' || c == '[' || c == ']' || c == ';' || c == '$';
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while(c != '}' && c != END_OF_FILE);
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while(c != '\n' && c != END_OF_FILE);
+    }
+
+    private int skipWhitespace(int c) throws IOException {
+        while(c != END_OF_FILE && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        final int c;
+        if(this.pushedBack != NO_CHARACTER) {
+            c = this.pushedBack;
+            this.pushedBack = NO_CHARACTER;
+            return c; // Already counted when it was first read
+        }
+        if(this.bufferPosition == this.bufferLength) {
+            this.bufferLength = this.reader.read(this.buffer, 0, BUFFER_SIZE);
+            this.bufferPosition = 0;
+            if(this.bufferLength <= 0) {
+                this.bufferLength = 0;
+                return END_OF_FILE;
+            }
+        }
+        c = this.buffer[this.bufferPosition++];
+        this.atLineStart = c == '\n';
+        if(c == '\n') {
+            this.lineNumber++;
+        }
+        return c;
+    }
+}
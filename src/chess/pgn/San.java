@@ -0,0 +1,147 @@
+package chess.pgn;
+
+/* Start of package imports */
+import chess.board.Board;
+import chess.board.Move;
+import chess.board.Move.PawnPromotion;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* Standard Algebraic Notation, the move format of PGN: "e4", "Nbd7", "exd5", "R1e2", "e8=Q+", "O-O-O".
+* A SAN move only names as much as it needs to tell the move apart from the other legal moves, so it is read by matching
+* it against the legal moves of the board: the piece, the destination, any file or rank of the origin, and the promotion.
+* Check and mate marks and annotation suffixes (+ # ! ?) are ignored, and "0-0" is accepted for "O-O".
+*/
+public final class San {
+
+    static final String EN_PASSANT_MARK = "e.p.";
+
+    private San() {
+        throw new RuntimeException("Cannot instantiate.");
+    }
+
+    // Finds the legal move of the board's current player that the SAN move describes
+    public static Move parse(final Board board, final String san) {
+        int end = san.length();
+        while(end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        // The optional en passant mark, "exd6 e.p." or "exd6e.p.+", says nothing the move does not
+        if(san.startsWith(EN_PASSANT_MARK, end - EN_PASSANT_MARK.length())) {
+            end -= EN_PASSANT_MARK.length();
+            while(end > 0 && (san.charAt(end - 1) == ' ' || isSuffix(san.charAt(end - 1)))) {
+                end--;
+            }
+        }
+        if(end < 2) {
+            throw invalid(board, san, "too short");
+        }
+        final String move = san.substring(0, end);
+        if(move.equals("O-O") || move.equals("0-0")) {
+            return findCastle(board, san, 6);
+        }
+        if(move.equals("O-O-O") || move.equals("0-0-0")) {
+            return findCastle(board, san, 2);
+        }
+
+        // Promotion, written "e8=Q" or "e8Q"
+        PieceType promotionType = null;
+        final char last = move.charAt(end - 1);
+        if(Character.isUpperCase(last)) {
+            promotionType = pieceType(last);
+            if(promotionType == null || promotionType == PieceType.PAWN || promotionType == PieceType.KING) {
+                throw invalid(board, san, "cannot promote to " + last);
+            }
+            end--;
+            if(end > 0 && move.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if(end < 2) {
+            throw invalid(board, san, "no destination");
+        }
+        final int destination = parseTile(board, san, move.charAt(end - 2), move.charAt(end - 1));
+
+        // Moved piece and disambiguation: everything before the destination except a capture mark
+        int start = 0;
+        PieceType pieceType = PieceType.PAWN;
+        if(Character.isUpperCase(move.charAt(0))) {
+            pieceType = pieceType(move.charAt(0));
+            if(pieceType == null || pieceType == PieceType.PAWN) {
+                throw invalid(board, san, "unknown piece " + move.charAt(0));
+            }
+            start = 1;
+        }
+        int originFile = -1;
+        int originRank = -1;
+        for(int i = start; i < end - 2; i++) {
+            final char c = move.charAt(i);
+            if(c >= 'a' && c <= 'h') {
+                originFile = c - 'a';
+            } else if(c >= '1' && c <= '8') {
+                originRank = c - '1';
+            } else if(c != 'x' && c != ':' && c != '-') {
+                throw invalid(board, san, "unexpected '" + c + "'");
+            }
+        }
+
+        Move found = null;
+        for(final Move legalMove : board.currentPlayer().getLegalMoves()) {
+            if(legalMove.getDestinationPosition() != destination || legalMove.isCastling()
+               || legalMove.getMovedPiece().getPieceType() != pieceType) {
+                continue;
+            }
+            final int origin = legalMove.getCurrentPosition();
+            if((originFile >= 0 && origin % 8 != originFile) || (originRank >= 0 && 7 - origin / 8 != originRank)) {
+                continue;
+            }
+            final PieceType movePromotion = legalMove instanceof PawnPromotion ? ((PawnPromotion) legalMove).getPromotionType() : null;
+            if(movePromotion != promotionType) {
+                continue;
+            }
+            if(found != null) {
+                throw invalid(board, san, "ambiguous");
+            }
+            found = legalMove;
+        }
+        if(found == null) {
+            throw invalid(board, san, "no such legal move");
+        }
+        return found;
+    }
+
+    // Finds the castling move whose king lands on the given file
+    private static Move findCastle(final Board board, final String san, final int kingFile) {
+        for(final Move legalMove : board.currentPlayer().getLegalMoves()) {
+            if(legalMove.isCastling() && legalMove.getDestinationPosition() % 8 == kingFile) {
+                return legalMove;
+            }
+        }
+        throw invalid(board, san, "castling is not legal");
+    }
+
+    private static PieceType pieceType(final char c) {
+        for(final PieceType pieceType : PieceType.values()) {
+            if(pieceType.toString().charAt(0) == c) {
+                return pieceType;
+            }
+        }
+        return null;
+    }
+
+    private static int parseTile(final Board board, final String san, final char file, final char rank) {
+        if(file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw invalid(board, san, "no destination");
+        }
+        return (8 - (rank - '0')) * 8 + (file - 'a');
+    }
+
+    private static boolean isSuffix(final char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static IllegalArgumentException invalid(final Board board, final String san, final String reason) {
+        return new IllegalArgumentException("Invalid move \"" + san + "\" (" + reason + ") for "
+                                            + board.currentPlayer().getType() + " in\n" + board);
+    }
+}
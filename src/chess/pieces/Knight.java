@@ -1,14 +1,9 @@
 package chess.pieces;
 
 /* Start of package imports */
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import com.google.common.collect.ImmutableList;
 import chess.Type;
 import chess.board.*;
-import chess.board.Move.AttackMove;
-import chess.board.Move.BaseMove;
 /* End of package imports*/
 
 
@@ -17,9 +12,6 @@ import chess.board.Move.BaseMove;
 */
 public class Knight extends Piece {
 
-    // Possible Moves array contains offsets required to move Knight in every possible direction (L-Shaped).
-    private final static int[] POSSIBLE_MOVES = {-17, -15, -10, -6, 6, 10, 15, 17};
-
     // Arbitrary value to organize pieces in move log
     private final static int KNIGHT_VALUE = 1;
 
@@ -30,39 +22,18 @@ public class Knight extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        
-        final List<Move> legalMoves = new ArrayList<>();
-        int possibleDestinationPosition;
-
-        for(int i = 0; i < POSSIBLE_MOVES.length; i++){
-            possibleDestinationPosition = this.position + POSSIBLE_MOVES[i]; // Apply offset
-            if(Board.isValid(possibleDestinationPosition)) {
-                // Knights can only move a maximum of two columns, consider edge cases
-                if(notValidKnightMove(this.position, possibleDestinationPosition)) continue;
-
-                final Tile possibleDestinationTile = board.getTile(this.position + POSSIBLE_MOVES[i]);
-
-                if(!possibleDestinationTile.isTileOccupied()) { // If the tile is not occupied
-                    legalMoves.add(new BaseMove(board, this, possibleDestinationPosition)); // Add a Non-attacking move.
-                } else {
-                    final Piece pieceAtDestination = possibleDestinationTile.getPiece();
-                    final Type typeAtDestination = pieceAtDestination.getType();
-                    if(this.pieceType != typeAtDestination) legalMoves.add(new AttackMove(board, this, possibleDestinationPosition, pieceAtDestination)); // Add an Attacking move.
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        return createMoves(board, BitBoard.knightAttacks(this.position));
     }
-    
+
     @Override
     public Piece movePiece(final Move move) {
-        return new Knight(move.getMovedPiece().getType(), move.getDestinationPosition());
+        return Piece.get(move.getMovedPiece().getType(), PieceType.KNIGHT, move.getDestinationPosition(), false);
     }
 
-    private boolean notValidKnightMove(final int coordinate, final int possibleDestinationPosition){
-        // Taking the mod of a linear position value returns the column - 1. 
-        // Checks if the difference between the two columns is greater than two.
-        return ( Math.abs( (coordinate % 8) - (possibleDestinationPosition % 8)) > 2);
+
+    @Override
+    public PieceType getPieceType() {
+        return PieceType.KNIGHT;
     }
 
     @Override
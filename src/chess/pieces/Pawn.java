@@ -35,7 +35,20 @@ public class Pawn extends Piece {
     }
 
     public Piece getPromotionPiece() {
-        return new Queen(this.pieceType, this.position);
+        return getPromotionPiece(PieceType.QUEEN);
+    }
+
+    // The piece this pawn turns into when it promotes to the given kind of piece
+    public Piece getPromotionPiece(final PieceType promotionType) {
+        switch(promotionType) {
+            case KNIGHT:
+            case BISHOP:
+            case ROOK:
+            case QUEEN:
+                return Piece.get(this.pieceType, promotionType, this.position, false);
+            default:
+                throw new IllegalArgumentException("A pawn cannot promote to " + promotionType);
+        }
     }
 
     @Override
@@ -52,13 +65,13 @@ public class Pawn extends Piece {
             if(!board.getTile(possibleDestinationPosition).isTileOccupied()) {
                 // Check if we want to add a pawn promotion move
                 if(this.pieceType.isPromotionTile(possibleDestinationPosition)) {
-                    legalMoves.add(new PawnPromotion(new PawnMove(board, this, possibleDestinationPosition)));
+                    addPromotions(legalMoves, new PawnMove(board, this, possibleDestinationPosition));
                 } else {
                     legalMoves.add(new PawnMove(board, this, possibleDestinationPosition));
                 }
                 // In order for a Pawn to jump a tile, it must be its first move, and both tiles in front must be empty.
-                // It would be redundant to check if it is a valid tile (if it is a pawn's first move, it can only move to valid tiles on the board).
-                if(firstMove && !board.getTile(possibleDestinationPosition + offset).isTileOccupied()) {
+                if(firstMove && Board.isValid(possibleDestinationPosition + offset)
+                   && !board.getTile(possibleDestinationPosition + offset).isTileOccupied()) {
                     // DEBUG: System.out.println("Pawns can jump.");
                     legalMoves.add(new PawnJump(board, this, possibleDestinationPosition + offset));
                 }
@@ -67,58 +80,61 @@ public class Pawn extends Piece {
 
             // Checks if the pawn can attack (it can if either diagonal tile contains an opposing piece)
             // Check LEFT
-            if(board.getTile(this.position + offset - 1).isTileOccupied()){
-                final Tile possibleDestinationTile = board.getTile(this.position + offset - 1);
-                if( (this.position) % 8 != 0) { // Edge case - first column
-                    final Piece pieceAtDestination = possibleDestinationTile.getPiece();
-                    final Type typeAtDestination = pieceAtDestination.getType();
-                    if(this.getType() != typeAtDestination){
-                        if(this.pieceType.isPromotionTile(possibleDestinationPosition)) {
-                            legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, possibleDestinationTile.getTileCoordinate(), pieceAtDestination)));
-                        } else {
-                            legalMoves.add(new PawnAttackMove(board, this, possibleDestinationTile.getTileCoordinate(), pieceAtDestination));
-                        }    
-                    }
-                }
+            if((this.position) % 8 != 0) { // Edge case - first column (checked first so the diagonal never wraps to the other side)
+                addAttack(legalMoves, board, possibleDestinationPosition - 1);
             }
 
             // Check RIGHT
-            if(board.getTile(this.position + offset + 1).isTileOccupied()){
-                final Tile possibleDestinationTile = board.getTile(this.position + offset + 1);
-                if( (this.position) % 8 != 7) { // Edge case - last column
-                    final Piece pieceAtDestination = possibleDestinationTile.getPiece();
-                    final Type typeAtDestination = pieceAtDestination.getType();
-                    if(this.getType() != typeAtDestination){
-                        if(this.pieceType.isPromotionTile(possibleDestinationPosition)) {
-                            legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, possibleDestinationTile.getTileCoordinate(), pieceAtDestination)));
-                        } else {
-                            legalMoves.add(new PawnAttackMove(board, this, possibleDestinationTile.getTileCoordinate(), pieceAtDestination));
-                        }
-                    }
-                }
+            if((this.position) % 8 != 7) { // Edge case - last column
+                addAttack(legalMoves, board, possibleDestinationPosition + 1);
             }
 
             // Deal with EnPassant if there is an EnPassant pawn present on the board
-            if(board.getEnPassantPawn() != null) {
-                if(board.getEnPassantPawn().getPosition() == this.position + 1) {
-                    final Piece pieceAtDestination = board.getEnPassantPawn();
-                    if(this.getType() != pieceAtDestination.getType()) {
-                        legalMoves.add(new EnPassant(board, this, this.position + offset + 1, pieceAtDestination));
-                    }
-                } else if(board.getEnPassantPawn().getPosition() == this.position - 1) {
-                    final Piece pieceAtDestination = board.getEnPassantPawn();
-                    if(this.getType() != pieceAtDestination.getType()) {
-                        legalMoves.add(new EnPassant(board, this, this.position + offset - 1, pieceAtDestination));
-                    }
+            // The en passant pawn must be directly beside this pawn, on the same row.
+            final Pawn enPassantPawn = board.getEnPassantPawn();
+            if(enPassantPawn != null && this.getType() != enPassantPawn.getType()) {
+                if(enPassantPawn.getPosition() == this.position + 1 && (this.position) % 8 != 7) {
+                    legalMoves.add(new EnPassant(board, this, this.position + offset + 1, enPassantPawn));
+                } else if(enPassantPawn.getPosition() == this.position - 1 && (this.position) % 8 != 0) {
+                    legalMoves.add(new EnPassant(board, this, this.position + offset - 1, enPassantPawn));
                 }
             }
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
+    // Adds an attacking move if the diagonal tile holds an opposing piece
+    private void addAttack(final List<Move> legalMoves, final Board board, final int possibleDestinationPosition) {
+        final Tile possibleDestinationTile = board.getTile(possibleDestinationPosition);
+        if(possibleDestinationTile.isTileOccupied()) {
+            final Piece pieceAtDestination = possibleDestinationTile.getPiece();
+            if(this.getType() != pieceAtDestination.getType()) {
+                final Move attack = new PawnAttackMove(board, this, possibleDestinationPosition, pieceAtDestination);
+                if(this.pieceType.isPromotionTile(possibleDestinationPosition)) {
+                    addPromotions(legalMoves, attack);
+                } else {
+                    legalMoves.add(attack);
+                }
+            }
+        }
+    }
+
+    // A pawn reaching the last row can promote to a queen, rook, bishop or knight (queen first, as it is the usual choice)
+    private static void addPromotions(final List<Move> legalMoves, final Move promotingMove) {
+        legalMoves.add(new PawnPromotion(promotingMove, PieceType.QUEEN));
+        legalMoves.add(new PawnPromotion(promotingMove, PieceType.ROOK));
+        legalMoves.add(new PawnPromotion(promotingMove, PieceType.BISHOP));
+        legalMoves.add(new PawnPromotion(promotingMove, PieceType.KNIGHT));
+    }
+
     @Override
     public Piece movePiece(final Move move) {
-        return new Pawn(move.getMovedPiece().getType(), move.getDestinationPosition(), false);
+        return Piece.get(move.getMovedPiece().getType(), PieceType.PAWN, move.getDestinationPosition(), false);
+    }
+
+    @Override
+    public PieceType getPieceType() {
+        return PieceType.PAWN;
     }
 
     @Override
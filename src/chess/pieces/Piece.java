@@ -1,9 +1,15 @@
 package chess.pieces;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
 
 import chess.Type;
 import chess.board.*;
+import chess.board.Move.AttackMove;
+import chess.board.Move.BaseMove;
 /* End of package imports*/
 
 /* The piece superclass from which each type of Chess piece will be derived.
@@ -11,6 +17,8 @@ Attributes:
 - A position (or coordinate) on the board
 - A type (white or black)
 - A boolean identifier to check if it has moved (for castling and pawn jumps)
+Pieces are immutable, so there only needs to be one of each: get() returns the shared instance for a kind of piece,
+colour, tile and first-move flag, and moving a piece looks up the piece on its destination instead of allocating one.
 */
 public abstract class Piece {
 
@@ -29,6 +37,12 @@ public abstract class Piece {
         this.cachedHashCode = computeHashCode();
     }
 
+    // The shared piece of the given colour and kind on a tile. Knights, bishops and queens are always built as not having
+    // moved yet (only pawns, rooks and kings care), so for them firstMove is ignored.
+    public static Piece get(final Type type, final PieceType pieceType, final int position, final boolean firstMove) {
+        return Flyweights.PIECES[Flyweights.index(type, pieceType, position, firstMove || !pieceType.tracksFirstMove())];
+    }
+
     // Overriding the default equals method to check equality of two Piece objects by attributes instead of reference.
     @Override
     public boolean equals(final Object o) {
@@ -78,6 +92,25 @@ public abstract class Piece {
         return PIECE_VALUE;
     }
 
+    // Turns the tiles a piece attacks (looked up in the BitBoard tables) into moves: a move to each empty tile,
+    // and an attack on each enemy piece. Tiles holding the piece's own side are skipped.
+    protected Collection<Move> createMoves(final Board board, final long attacks) {
+        final long destinations = attacks & ~board.getOccupancy(this.pieceType);
+        final List<Move> legalMoves = new ArrayList<>(BitBoard.count(destinations));
+        for(long remaining = destinations; remaining != BitBoard.EMPTY; remaining = BitBoard.popLowest(remaining)) {
+            final int destination = BitBoard.lowestTile(remaining);
+            if(board.isTileOccupied(destination)) {
+                legalMoves.add(new AttackMove(board, this, destination, board.getTile(destination).getPiece()));
+            } else {
+                legalMoves.add(new BaseMove(board, this, destination));
+            }
+        }
+        return ImmutableList.copyOf(legalMoves);
+    }
+
+    // The kind of piece, used to index the board's bitboards.
+    public abstract PieceType getPieceType();
+
     // Move a piece and return the piece with the updated position
     public abstract Piece movePiece(final Move move); 
 
@@ -85,6 +118,84 @@ public abstract class Piece {
     // Param - takes in the current state of the gameboard
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    // Holds every distinct piece, built the first time get() is called. Kept out of Piece itself so that building the
+    // subclasses does not run while Piece is still being initialised.
+    private static final class Flyweights {
+
+        private static final Piece[] PIECES = createPieces();
+
+        private static int index(final Type type, final PieceType pieceType, final int position, final boolean firstMove) {
+            return (BitBoard.index(type, pieceType) * Board.NUM_TILES + position) * 2 + (firstMove ? 1 : 0);
+        }
+
+        private static Piece[] createPieces() {
+            final Piece[] pieces = new Piece[BitBoard.NUM_BITBOARDS * Board.NUM_TILES * 2];
+            for(final Type type : Type.values()) {
+                for(final PieceType pieceType : PieceType.values()) {
+                    for(int position = 0; position < Board.NUM_TILES; position++) {
+                        pieces[index(type, pieceType, position, true)] = create(type, pieceType, position, true);
+                        pieces[index(type, pieceType, position, false)] = pieceType.tracksFirstMove()
+                                ? create(type, pieceType, position, false) : pieces[index(type, pieceType, position, true)];
+                    }
+                }
+            }
+            return pieces;
+        }
+
+        private static Piece create(final Type type, final PieceType pieceType, final int position, final boolean firstMove) {
+            switch(pieceType) {
+                case PAWN:
+                    return new Pawn(type, position, firstMove);
+                case KNIGHT:
+                    return new Knight(type, position);
+                case BISHOP:
+                    return new Bishop(type, position);
+                case ROOK:
+                    return new Rook(type, position, firstMove);
+                case QUEEN:
+                    return new Queen(type, position);
+                default:
+                    return new King(type, position, firstMove);
+            }
+        }
+    }
+
+    // Enumerator describing the kind of a piece independently of its colour.
+    // The ordinal is used as an index into the bitboards held by the Board (pawn = 0 ... king = 5).
+    public enum PieceType {
+        PAWN("P"),
+        KNIGHT("N"),
+        BISHOP("B"),
+        ROOK("R"),
+        QUEEN("Q"),
+        KING("K");
+
+        private final String pieceName;
+
+        PieceType(final String pieceName) {
+            this.pieceName = pieceName;
+        }
+
+        public boolean isKing() {
+            return this == KING;
+        }
+
+        public boolean isRook() {
+            return this == ROOK;
+        }
 
+        public boolean isPawn() {
+            return this == PAWN;
+        }
 
+        // Whether having moved matters to a piece of this kind: for pawn jumps and for castling
+        public boolean tracksFirstMove() {
+            return this == PAWN || this == ROOK || this == KING;
+        }
+
+        @Override
+        public String toString() {
+            return this.pieceName;
+        }
+    }
 }
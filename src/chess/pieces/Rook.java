@@ -1,14 +1,9 @@
 package chess.pieces;
 
 /* Start of package imports */
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import com.google.common.collect.ImmutableList;
 import chess.Type;
 import chess.board.*;
-import chess.board.Move.AttackMove;
-import chess.board.Move.BaseMove;
 /* End of package imports*/
 
 /* The Rook subclass. Describes the Rook piece in Chess.
@@ -16,8 +11,6 @@ import chess.board.Move.BaseMove;
 */
 public class Rook extends Piece{
     
-    private final static int[] POSSIBLE_DIRECTIONS = {-8, -1, 1, 8};
-
     // Arbitrary value to organize pieces in move log
     private final static int ROOK_VALUE = 3;
 
@@ -31,53 +24,21 @@ public class Rook extends Piece{
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>();
-        int possibleDestinationPosition;
-
-        for(int i = 0; i < POSSIBLE_DIRECTIONS.length; i++) {
-
-            possibleDestinationPosition = this.position;
-            int offset = POSSIBLE_DIRECTIONS[i];
-
-            if(!validRookDirection(offset, possibleDestinationPosition)) continue;
-
-            while(Board.isValid(possibleDestinationPosition + offset)) {
-                possibleDestinationPosition += offset;
-                final Tile possibleDestinationTile = board.getTile(possibleDestinationPosition);
-                if(!possibleDestinationTile.isTileOccupied()){
-                    legalMoves.add(new BaseMove(board, this, possibleDestinationPosition));
-                } else {
-                    final Piece pieceAtDestination = possibleDestinationTile.getPiece();
-                    final Type type = pieceAtDestination.getType();
-                    if(this.pieceType != type) legalMoves.add(new AttackMove(board, this, possibleDestinationPosition, pieceAtDestination));
-                    break;
-                }
-                if(!validRookDirection(offset, possibleDestinationPosition)) break;
-            }
-        }
-        
-        return ImmutableList.copyOf(legalMoves);
+        return createMoves(board, BitBoard.rookAttacks(this.position, board.getOccupancy()));
     }
 
     @Override
     public Piece movePiece(final Move move) {
-        return new Rook(move.getMovedPiece().getType(), move.getDestinationPosition(), false);
+        return Piece.get(move.getMovedPiece().getType(), PieceType.ROOK, move.getDestinationPosition(), false);
     }
 
     @Override
-    public String toString() {
-        return "R";
+    public PieceType getPieceType() {
+        return PieceType.ROOK;
     }
 
-    private boolean validRookDirection(final int direction, final int possibleDestinationPosition){
-        boolean valid = true;
-        if(possibleDestinationPosition % 8 == 0) { // If the rook is in the first column AND
-            if(direction == -1) valid = false; // If the rook is trying to move in the left direction, it is not valid.
-        }
-        else if(possibleDestinationPosition % 8 == 7) { //If the rook is in the last column (8th)
-            if(direction == 1) valid = false; // If the bishop is trying to move in the right direction, it is not valid.
-        }
-        return valid;
+    @Override
+    public String toString() {
+        return "R";
     }
 }
@@ -15,8 +15,8 @@ import chess.pieces.Rook;
 
 public class BlackPlayer extends Player {
     
-    public BlackPlayer(final Board board, final Collection<Move> allBlackMoves, final Collection<Move> allWhiteMoves) {
-        super(board, allBlackMoves, allWhiteMoves);
+    public BlackPlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -42,7 +42,7 @@ public class BlackPlayer extends Player {
     4. The king does not pass through or finish on a square that is attacked by an enemy piece.
     */
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
 
         final List<Move> kingCastles = new ArrayList<>();
 
@@ -52,9 +52,9 @@ public class BlackPlayer extends Player {
                 final Tile rookTile = this.board.getTile(7);
                 // Checks if there is a piece at the edge and it is a rook and hasn't moved.
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() && rookTile.getPiece().toString().equals("R")) {
-                    if(Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty()) { // Not moving through attacked tiles.
-                        kingCastles.add(new Move.KingSideCastle(this.board, this.theKingPiece, 6, (Rook)rookTile.getPiece(),
+                    if(!this.board.isTileAttacked(5, Type.WHITE)
+                    && !this.board.isTileAttacked(6, Type.WHITE)) { // Not moving through attacked tiles.
+                        kingCastles.add(new Move.KingSideCastle(this.board, this.getPlayerKing(), 6, (Rook)rookTile.getPiece(),
                                                                 5, 7));
                     }
                 }
@@ -67,10 +67,9 @@ public class BlackPlayer extends Player {
                 final Tile rookTile = this.board.getTile(0);
                 // Checks if there is a piece at the edge and it is a rook and hasn't moved.
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() && rookTile.getPiece().toString().equals("R")) {
-                    if(Player.calculateAttacksOnTile(1, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty()) { // Not moving through attacked tiles.
-                        kingCastles.add(new Move.QueenSideCastle(this.board, this.theKingPiece, 2, (Rook)rookTile.getPiece(),
+                    if(!this.board.isTileAttacked(2, Type.WHITE)
+                    && !this.board.isTileAttacked(3, Type.WHITE)) { // Not moving through attacked tiles (the rook may pass an attacked tile).
+                        kingCastles.add(new Move.QueenSideCastle(this.board, this.getPlayerKing(), 2, (Rook)rookTile.getPiece(),
                         3, 0));
                     }
                 }
@@ -0,0 +1,127 @@
+package chess.players;
+
+/* Start of package imports */
+import chess.Type;
+import chess.board.BitBoard;
+import chess.board.Board;
+import chess.board.Move;
+import chess.pieces.Piece.PieceType;
+/* End of package imports*/
+
+/* The LegalityFilter class. Decides whether a pseudo-legal move (one the pieces generate without looking at their own
+* king) is legal, from the checks and pins of the position, without executing the move and building its board.
+* A move is legal if:
+* - a king move lands on a tile no enemy piece attacks once the king has left its tile (so it cannot step back along
+*   the line of a checking slider)
+* - otherwise, the player is not in double check, a single check is resolved by capturing the checker or blocking
+*   between it and the king, and a pinned piece stays on the line between its king and the pinning piece
+* En passant takes two pawns off the same rank at once, so it is tested by looking at the king's lines after the capture.
+* Castling moves are only generated when the king is not in check and does not pass through an attacked tile.
+*/
+final class LegalityFilter {
+
+    private static final long ALL_TILES = ~BitBoard.EMPTY;
+    private static final int MAX_PINS = 8; // One per line through the king
+
+    private final Board board;
+    private final Type type;
+    private final Type opposingType;
+    private final int kingPosition;
+    private final long checkers;
+    private final long checkMask; // Tiles a non-king move must land on to resolve a single check (every tile if not in check)
+    private final long pinned;
+    private final int[] pinnedPositions = new int[MAX_PINS];
+    private final long[] pinRays = new long[MAX_PINS]; // Tiles each pinned piece may move to: up to and including the pinner
+    private int pinCount;
+
+    LegalityFilter(final Board board, final Type type, final int kingPosition) {
+        this.board = board;
+        this.type = type;
+        this.opposingType = type.opposite();
+        this.kingPosition = kingPosition;
+        this.checkers = board.attackersOf(kingPosition, this.opposingType);
+        this.checkMask = findCheckMask();
+        this.pinned = findPins();
+    }
+
+    boolean isLegal(final Move move) {
+        if(move.isCastling()) {
+            return true;
+        }
+        final int destination = move.getDestinationPosition();
+        if(move.getCurrentPosition() == this.kingPosition) {
+            final long occupiedWithoutKing = this.board.getOccupancy() & ~BitBoard.bit(this.kingPosition);
+            return this.board.attackersOf(destination, this.opposingType, occupiedWithoutKing) == BitBoard.EMPTY;
+        }
+        if(BitBoard.count(this.checkers) > 1) {
+            return false; // Only a king move answers a double check
+        }
+        if(move instanceof Move.EnPassant) {
+            return isLegalEnPassant(move);
+        }
+        if(!BitBoard.isSet(this.checkMask, destination)) {
+            return false;
+        }
+        return !BitBoard.isSet(this.pinned, move.getCurrentPosition()) || BitBoard.isSet(findPinRay(move.getCurrentPosition()), destination);
+    }
+
+    private long findCheckMask() {
+        if(this.checkers == BitBoard.EMPTY) {
+            return ALL_TILES;
+        }
+        if(BitBoard.count(this.checkers) > 1) {
+            return BitBoard.EMPTY;
+        }
+        final int checker = BitBoard.lowestTile(this.checkers);
+        return this.checkers | BitBoard.between(this.kingPosition, checker); // between is empty for knight and pawn checks
+    }
+
+    // Looks along the king's lines for enemy sliders with exactly one of the player's pieces in between
+    private long findPins() {
+        final long own = this.board.getOccupancy(this.type);
+        final long enemy = this.board.getOccupancy(this.opposingType);
+        final long queens = this.board.getPieceBitboard(this.opposingType, PieceType.QUEEN);
+        // Sliders that would see the king if the player's own pieces were not there
+        final long pinners = (BitBoard.rookAttacks(this.kingPosition, enemy)
+                              & (this.board.getPieceBitboard(this.opposingType, PieceType.ROOK) | queens))
+                           | (BitBoard.bishopAttacks(this.kingPosition, enemy)
+                              & (this.board.getPieceBitboard(this.opposingType, PieceType.BISHOP) | queens));
+        long pinnedPieces = BitBoard.EMPTY;
+        for(long remaining = pinners; remaining != BitBoard.EMPTY; remaining = BitBoard.popLowest(remaining)) {
+            final int pinner = BitBoard.lowestTile(remaining);
+            final long between = BitBoard.between(this.kingPosition, pinner);
+            final long blockers = between & own;
+            if(BitBoard.count(blockers) == 1) {
+                pinnedPieces |= blockers;
+                this.pinnedPositions[this.pinCount] = BitBoard.lowestTile(blockers);
+                this.pinRays[this.pinCount] = between | BitBoard.bit(pinner);
+                this.pinCount++;
+            }
+        }
+        return pinnedPieces;
+    }
+
+    private long findPinRay(final int position) {
+        for(int i = 0; i < this.pinCount; i++) {
+            if(this.pinnedPositions[i] == position) {
+                return this.pinRays[i];
+            }
+        }
+        return ALL_TILES;
+    }
+
+    // Replays the capture on the occupancy and checks every kind of attacker that could still reach the king
+    private boolean isLegalEnPassant(final Move move) {
+        final int capturedPosition = move.getAttackedPiece().getPosition();
+        final long occupied = (this.board.getOccupancy() & ~BitBoard.bit(move.getCurrentPosition()) & ~BitBoard.bit(capturedPosition))
+                            | BitBoard.bit(move.getDestinationPosition());
+        final long queens = this.board.getPieceBitboard(this.opposingType, PieceType.QUEEN);
+        final long pawns = this.board.getPieceBitboard(this.opposingType, PieceType.PAWN) & ~BitBoard.bit(capturedPosition);
+        return (BitBoard.rookAttacks(this.kingPosition, occupied)
+                & (this.board.getPieceBitboard(this.opposingType, PieceType.ROOK) | queens)) == BitBoard.EMPTY
+            && (BitBoard.bishopAttacks(this.kingPosition, occupied)
+                & (this.board.getPieceBitboard(this.opposingType, PieceType.BISHOP) | queens)) == BitBoard.EMPTY
+            && (BitBoard.knightAttacks(this.kingPosition) & this.board.getPieceBitboard(this.opposingType, PieceType.KNIGHT)) == BitBoard.EMPTY
+            && (BitBoard.pawnAttacks(this.kingPosition, this.type) & pawns) == BitBoard.EMPTY;
+    }
+}
@@ -10,24 +10,26 @@ import com.google.common.collect.Iterables;
 import chess.Type;
 import chess.board.Board;
 import chess.board.Move;
+import chess.board.MoveList;
+import chess.board.PackedMove;
 import chess.pieces.King;
 import chess.pieces.Piece;
 
 public abstract class Player {
-    
-    protected final Collection<Move> allLegalMoves;
 
     protected final Board board;
 
-    protected final King theKingPiece;
+    // Everything below is computed the first time it is asked for and then remembered.
+    // Boards that are only drawn, or only checked for LEAVES_PLAYER_IN_CHECK, never pay for move generation.
+    // The fields are volatile so a board shared between threads is safe: at worst two threads compute the same immutable value.
+    private volatile Collection<Move> allPseudoLegalMoves;
+    private volatile Collection<Move> allLegalMoves;
+    private volatile MoveList packedLegalMoves;
+    private volatile King theKingPiece;
+    private volatile Boolean isChecked;
 
-    private final boolean isChecked;
-    
-    public Player(final Board board, final Collection<Move> allLegalMoves, final Collection<Move> allOpposingMoves) {
+    public Player(final Board board) {
         this.board = board;
-        this.theKingPiece = setKingPiece();
-        this.isChecked = !Player.calculateAttacksOnTile(this.theKingPiece.getPosition(), allOpposingMoves).isEmpty();
-        this.allLegalMoves = ImmutableList.copyOf(Iterables.concat(allLegalMoves, calculateKingCastles(allLegalMoves, allOpposingMoves)));
     }
 
     // Find all the enemy moves that are attacking a specific tile coordinate
@@ -44,37 +46,64 @@ public abstract class Player {
         return ImmutableList.copyOf(attacksOnTile);
     }
 
+    // The legal moves packed into ints (see PackedMove). Returns a copy, the player keeps its own for checkLegalMove.
+    public MoveList getPackedLegalMoves() {
+        return MoveList.of(getLegalMoves());
+    }
+
+    // The strictly legal moves: the moves the pieces generate, filtered by the pins and checks of the position
     public Collection<Move> getLegalMoves() {
-        return this.allLegalMoves;
+        Collection<Move> legalMoves = this.allLegalMoves;
+        if(legalMoves == null) {
+            final LegalityFilter legalityFilter = new LegalityFilter(this.board, getType(), getPlayerKing().getPosition());
+            final ImmutableList.Builder<Move> legalMovesBuilder = ImmutableList.builder();
+            for(final Move move : getPseudoLegalMoves()) {
+                if(legalityFilter.isLegal(move)) {
+                    legalMovesBuilder.add(move);
+                }
+            }
+            legalMoves = legalMovesBuilder.build();
+            this.allLegalMoves = legalMoves;
+        }
+        return legalMoves;
+    }
+
+    // Every move the player's pieces can make, including the ones that leave the king in check
+    public Collection<Move> getPseudoLegalMoves() {
+        Collection<Move> pseudoLegalMoves = this.allPseudoLegalMoves;
+        if(pseudoLegalMoves == null) {
+            final Collection<Move> pieceMoves = calculatePieceMoves();
+            pseudoLegalMoves = ImmutableList.copyOf(Iterables.concat(pieceMoves, calculateKingCastles(pieceMoves)));
+            this.allPseudoLegalMoves = pseudoLegalMoves;
+        }
+        return pseudoLegalMoves;
+    }
+
+    // Finds all the moves of the player's active pieces (castling moves are added separately)
+    private Collection<Move> calculatePieceMoves() {
+
+        final List<Move> pieceMoves = new ArrayList<>();
+
+        for(final Piece piece : findActivePieces()) { // For each piece in the collection of pieces.
+            pieceMoves.addAll(piece.calculateLegalMoves(this.board));
+        }
+
+        return pieceMoves;
     }
 
     // If a move was successfully made, return a BoardTransition object, which will wrap the board state being transitioned to
     public BoardTransition makeMove(final Move move) {
         if(!checkLegalMove(move)) { // If the move isn't legal, no changes to the board will be made
+            /* A move the pieces can make but that is not legal leaves the player's own king in check (see LegalityFilter).
+            This is decided from the pins and checks of the current board, so the move never has to be executed to find out.
+            */
+            if(this.board == move.getBoard() && MoveList.of(getPseudoLegalMoves()).contains(PackedMove.encode(move))) {
+                return new BoardTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+            }
             System.out.println("This move is illegal.");
             return new BoardTransition(this.board, move, MoveStatus.ILLEGAL);
         }
-
-        final Board transitioningBoard = move.execute(); // Polimorphically execute the move
-
-        /* Explanation for the attacksOnKing (IMPORTANT!)
-        This addresses the case where a player makes a move that leaves their King vulnerable.
-        In chess, a player cannot make a move that leaves them in check, since they would just automatically lose.
-        However, calculateLegalMoves does not account for whether or not the moves cause the player to be in check, so we need to manually check for this now.
-        To account for this case, I can use the calculateAttacksOnTile and evaluate the state of the board AFTER the move is made (aka the transitioningBoard).
-        Since we executed the move, the current player is actually the opposing player before the move was made (opposing player in the previous turn).
-        We are trying to stop the move before it actually happens (i.e. before we are done transitioning to the new board state)
-        As such, we take the current players opposing king position (which is actually the former player who made the move)
-        And we check if the current player (who was the opposing player when the move was made) has any pieces attacking the King's position after the move was made.
-        If attacksOnKing happens to be non-empty, then the previous player made an illegal move that placed him in Check, so we do not transition to the new board.
-        */
-        final Collection<Move> attacksOnKing = Player.calculateAttacksOnTile(transitioningBoard.currentPlayer().getOpposingPlayer().getPlayerKing().getPosition(),
-            transitioningBoard.currentPlayer().getLegalMoves());
-
-        if(!attacksOnKing.isEmpty()) {
-            return new BoardTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
-        }
-        return new BoardTransition(transitioningBoard, move, MoveStatus.DONE);
+        return new BoardTransition(move.execute(), move, MoveStatus.DONE); // Polimorphically execute the move
     }
 
     // Method to find the king piece
@@ -88,48 +117,59 @@ public abstract class Player {
     }
 
     public King getPlayerKing() {
-        return this.theKingPiece;
+        King king = this.theKingPiece;
+        if(king == null) {
+            king = setKingPiece();
+            this.theKingPiece = king;
+        }
+        return king;
     }
 
     // If the player is in check, they must make a move that protects their King
     public boolean isChecked() {
-        return this.isChecked;
+        Boolean checked = this.isChecked;
+        if(checked == null) {
+            checked = this.board.isTileAttacked(getPlayerKing().getPosition(), getType().opposite());
+            this.isChecked = checked;
+        }
+        return checked;
     }
 
     // If the player is checkmated, the game is over
     public boolean checkmated() {
-        return this.isChecked && !canEscape();
+        return isChecked() && !canEscape();
     }
 
     /* canEscape Method
     The canEscape method is called when a player is in check and to check if there is a stalemate.
-    It works by checking every single legal move a player can make and 'simulates' the move by calling the makeMove function.
-    If any of the legal moves were successfully completed, then there exists a move that the player can make which can either:
-    When in Check:
-    - protect the king
-    - move the king out to safety
-    If no the player has 
-    When not in check:
-    - The player cannot make any more moves that do not place the King in danger.
+    The legal moves are already filtered for moves that leave the king in check, so the player can escape if there is any.
+    When in Check, a legal move either:
+    - protects the king
+    - moves the king out to safety
+    When not in check, no legal moves means every move the pieces can make would place the King in danger.
     */
     protected boolean canEscape() {
-        for(final Move move : this.allLegalMoves) {
-            final BoardTransition br = makeMove(move);
-            if(br.getMoveStatus().isCompleted()) {
-                return true;
-            }
-        }
-        return false;
+        return !getLegalMoves().isEmpty();
     }
 
     // Method to check if the move the player trying to make is a legal move
+    // The move has to be made on this very board, not just on an equal position: executing it builds on its board's
+    // PositionHistory. It is then looked up by its packed form instead of comparing Move objects.
     public boolean checkLegalMove(final Move move) {
-        return this.allLegalMoves.contains(move);
+        if(move == null || move.getBoard() != this.board) {
+            return false;
+        }
+        MoveList legalMoves = this.packedLegalMoves;
+        if(legalMoves == null) {
+            legalMoves = MoveList.of(getLegalMoves());
+            this.packedLegalMoves = legalMoves;
+        }
+        return legalMoves.contains(PackedMove.encode(move));
     }
 
     // If the player is in a stalemate, the game is over
     public boolean stalemated() {
-        return !this.isChecked && !canEscape();
+        return !isChecked() && !canEscape();
     }
 
     // A player can only castle once per game
@@ -143,6 +183,6 @@ public abstract class Player {
 
     public abstract Player getOpposingPlayer();
 
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals);
 
 }
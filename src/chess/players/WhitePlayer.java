@@ -15,8 +15,8 @@ import chess.pieces.Rook;
 
 public class WhitePlayer extends Player {
     
-    public WhitePlayer(final Board board, final Collection<Move> allWhiteMoves, final Collection<Move> allBlackMoves) {
-        super(board, allWhiteMoves, allBlackMoves);
+    public WhitePlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -42,7 +42,7 @@ public class WhitePlayer extends Player {
     4. The king does not pass through or finish on a square that is attacked by an enemy piece.
     */
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
 
         final List<Move> kingCastles = new ArrayList<>();
 
@@ -52,9 +52,9 @@ public class WhitePlayer extends Player {
                 final Tile rookTile = this.board.getTile(63);
                 // Checks if there is a piece at the edge and it is a rook and hasn't moved.
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() && rookTile.getPiece().toString().equals("R")) {
-                    if(Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty()) { // Not moving through attacked tiles.
-                        kingCastles.add(new Move.KingSideCastle(this.board, this.theKingPiece, 62, (Rook)rookTile.getPiece(),
+                    if(!this.board.isTileAttacked(61, Type.BLACK)
+                    && !this.board.isTileAttacked(62, Type.BLACK)) { // Not moving through attacked tiles.
+                        kingCastles.add(new Move.KingSideCastle(this.board, this.getPlayerKing(), 62, (Rook)rookTile.getPiece(),
                                                                 61, 63));
                     }
                 }
@@ -67,10 +67,9 @@ public class WhitePlayer extends Player {
                 final Tile rookTile = this.board.getTile(56);
                 // Checks if there is a piece at the edge and it is a rook and hasn't moved.
                 if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove() && rookTile.getPiece().toString().equals("R")) {
-                    if(Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty()
-                    && Player.calculateAttacksOnTile(57, opponentsLegals).isEmpty()) { // Not moving through attacked tiles.
-                        kingCastles.add(new Move.QueenSideCastle(this.board, this.theKingPiece, 58, (Rook)rookTile.getPiece(),
+                    if(!this.board.isTileAttacked(59, Type.BLACK)
+                    && !this.board.isTileAttacked(58, Type.BLACK)) { // Not moving through attacked tiles (the rook may pass an attacked tile).
+                        kingCastles.add(new Move.QueenSideCastle(this.board, this.getPlayerKing(), 58, (Rook)rookTile.getPiece(),
                                                                 59, 56));
                     }
                 }
@@ -0,0 +1,402 @@
+package chess.uci;
+
+/* Start of package imports */
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import chess.Type;
+import chess.board.Board;
+import chess.board.Fen;
+import chess.board.Move;
+import chess.board.PackedMove;
+import chess.database.OpeningBook;
+import chess.database.Tablebase;
+import chess.engine.LazySmpSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+/* End of package imports*/
+
+/* A headless front end speaking the Universal Chess Interface, so the engine can be run by GUIs and tournament managers.
+* Commands are read from standard input one line at a time and answered on standard output:
+* - uci, isready, ucinewgame, quit
+* - setoption name Threads|Hash|BookFile|TablebasePath value ...
+* - position startpos|fen <fen> [moves <move> ...], with moves in coordinate notation (e2e4, e7e8q)
+* - go [depth n] [movetime ms] [nodes n] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo n] [infinite]
+* - stop
+* The search runs on a worker thread, so the input keeps being read while it thinks and stop is answered as soon as the
+* search notices its stop flag. It reports one info line with its last completed depth, then bestmove. Under go infinite
+* the bestmove waits for stop even when the search ends by itself (a mate, a book move or the maximum depth).
+* Nothing here touches AWT or Swing, so the engine starts quickly on machines without a display.
+*
+* Usage: EL_Chess uci
+*/
+public final class UciEngine {
+
+    private static final String NAME = "EL_Chess";
+    private static final int MAX_THREADS = 256;
+    private static final int MAX_HASH_MB = 65536;
+    private static final String NO_FILE = "<empty>";
+
+    // Time management: without movestogo the remaining time is spread over this many moves, and this much is kept
+    // back for the GUI's own overhead
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+
+    private final PrintStream output;
+    private LazySmpSearch search;
+    private int threadCount = 1;
+    private int hashSizeMegabytes = TranspositionTable.DEFAULT_SIZE_MB;
+    private OpeningBook openingBook;
+    private Tablebase tablebase;
+    private Board board = Board.createStandardBoard();
+    private Thread searchThread; // waits for the running search and sends its bestmove
+    private CountDownLatch stopSignal; // released by stop; the search thread waits on it under go infinite
+
+    public UciEngine(final PrintStream output) {
+        this.output = output;
+        this.search = new LazySmpSearch(this.threadCount, this.hashSizeMegabytes);
+    }
+
+    // Reads commands until quit or the end of the input
+    public void run(final BufferedReader input) throws IOException {
+        try {
+            for(String line = input.readLine(); line != null; line = input.readLine()) {
+                if(!handle(line.trim())) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+            this.search.shutdown();
+            close(this.openingBook);
+            close(this.tablebase);
+        }
+    }
+
+    // Carries out one command and returns false if it was quit. Unknown commands and malformed arguments are reported
+    // with an info string and otherwise ignored, as the protocol asks.
+    private boolean handle(final String line) {
+        final String[] tokens = line.split("\\s+");
+        try {
+            switch(tokens[0]) {
+                case "uci":
+                    send("id name " + NAME);
+                    send("id author The " + NAME + " authors");
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB + " min 1 max " + MAX_HASH_MB);
+                    send("option name BookFile type string default " + NO_FILE);
+                    send("option name TablebasePath type string default " + NO_FILE);
+                    send("uciok");
+                    break;
+                case "isready":
+                    send("readyok");
+                    break;
+                case "ucinewgame":
+                    stopSearch();
+                    this.search.getTranspositionTable().clear();
+                    this.board = Board.createStandardBoard();
+                    break;
+                case "setoption":
+                    stopSearch();
+                    setOption(tokens);
+                    break;
+                case "position":
+                    stopSearch();
+                    this.board = parsePosition(tokens);
+                    break;
+                case "go":
+                    stopSearch();
+                    startSearch(parseLimits(tokens), Arrays.asList(tokens).contains("infinite"));
+                    break;
+                case "stop":
+                    stopSearch();
+                    break;
+                case "quit":
+                    return false;
+                case "":
+                    break;
+                default:
+                    send("info string unknown command " + tokens[0]);
+            }
+        } catch(final IllegalArgumentException | IllegalStateException e) {
+            send("info string " + e.getMessage());
+        }
+        return true;
+    }
+
+    // setoption name <name> value <value>, where the name and the value may contain spaces
+    private void setOption(final String[] tokens) {
+        final StringBuilder name = new StringBuilder();
+        final StringBuilder value = new StringBuilder();
+        StringBuilder current = null;
+        for(int i = 1; i < tokens.length; i++) {
+            if(tokens[i].equals("name")) {
+                current = name;
+            } else if(tokens[i].equals("value")) {
+                current = value;
+            } else if(current != null) {
+                if(current.length() > 0) {
+                    current.append(' ');
+                }
+                current.append(tokens[i]);
+            }
+        }
+        final String optionValue = value.toString();
+        switch(name.toString().toLowerCase()) {
+            case "threads":
+                this.threadCount = parseInt(optionValue, 1, MAX_THREADS);
+                recreateSearch();
+                break;
+            case "hash":
+                this.hashSizeMegabytes = parseInt(optionValue, 1, MAX_HASH_MB);
+                recreateSearch();
+                break;
+            case "bookfile":
+                close(this.openingBook);
+                this.openingBook = null;
+                if(!isNoFile(optionValue)) {
+                    try {
+                        this.openingBook = OpeningBook.open(Paths.get(optionValue));
+                    } catch(final IOException e) {
+                        send("info string cannot open opening book " + optionValue + ": " + e.getMessage());
+                    }
+                }
+                this.search.setOpeningBook(this.openingBook);
+                break;
+            case "tablebasepath":
+                close(this.tablebase);
+                this.tablebase = null;
+                if(!isNoFile(optionValue)) {
+                    try {
+                        this.tablebase = Tablebase.open(Paths.get(optionValue));
+                    } catch(final IOException e) {
+                        send("info string cannot open tablebase " + optionValue + ": " + e.getMessage());
+                    }
+                }
+                this.search.setTablebase(this.tablebase);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + name);
+        }
+    }
+
+    // A new thread count or hash size needs a new search: its threads and table are sized when it is created
+    private void recreateSearch() {
+        this.search.shutdown();
+        this.search = new LazySmpSearch(this.threadCount, this.hashSizeMegabytes);
+        this.search.setOpeningBook(this.openingBook);
+        this.search.setTablebase(this.tablebase);
+    }
+
+    // position startpos|fen <six fields> [moves ...]
+    private static Board parsePosition(final String[] tokens) {
+        if(tokens.length < 2) {
+            throw new IllegalArgumentException("position needs startpos or fen");
+        }
+        int index;
+        Board board;
+        if(tokens[1].equals("startpos")) {
+            board = Board.createStandardBoard();
+            index = 2;
+        } else if(tokens[1].equals("fen")) {
+            final StringBuilder fen = new StringBuilder();
+            for(index = 2; index < tokens.length && !tokens[index].equals("moves"); index++) {
+                fen.append(tokens[index]).append(' ');
+            }
+            board = Fen.parse(fen);
+        } else {
+            throw new IllegalArgumentException("position needs startpos or fen, not " + tokens[1]);
+        }
+        if(index < tokens.length && tokens[index].equals("moves")) {
+            for(index++; index < tokens.length; index++) {
+                board = findMove(board, tokens[index]).execute();
+            }
+        }
+        return board;
+    }
+
+    // The legal move of the board written in coordinate notation
+    private static Move findMove(final Board board, final String coordinates) {
+        for(final Move move : board.currentPlayer().getLegalMoves()) {
+            if(PackedMove.toString(PackedMove.encode(move)).equals(coordinates)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("illegal move " + coordinates + " in " + Fen.toFen(board));
+    }
+
+    // go with any of its limits. A clock gets a share of the remaining time; with no limit at all the search runs
+    // until stop.
+    private SearchLimits parseLimits(final String[] tokens) {
+        final SearchLimits.LimitsBuilder builder = new SearchLimits.LimitsBuilder();
+        final boolean white = this.board.currentPlayer().getType() == Type.WHITE;
+        long time = -1;
+        long increment = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        long moveTime = 0;
+        for(int i = 1; i < tokens.length; i++) {
+            switch(tokens[i]) {
+                case "depth":
+                    builder.setMaxDepth(parseInt(argument(tokens, ++i), 1, Search.MAX_PLY - 1));
+                    break;
+                case "nodes":
+                    builder.setNodeLimit(parseLong(argument(tokens, ++i)));
+                    break;
+                case "movetime":
+                    moveTime = parseLong(argument(tokens, ++i));
+                    break;
+                case "wtime":
+                case "btime": {
+                    final long clock = parseLong(argument(tokens, ++i));
+                    if(tokens[i - 1].equals(white ? "wtime" : "btime")) {
+                        time = clock;
+                    }
+                    break;
+                }
+                case "winc":
+                case "binc": {
+                    final long clock = parseLong(argument(tokens, ++i));
+                    if(tokens[i - 1].equals(white ? "winc" : "binc")) {
+                        increment = clock;
+                    }
+                    break;
+                }
+                case "movestogo":
+                    movesToGo = parseInt(argument(tokens, ++i), 1, Integer.MAX_VALUE);
+                    break;
+                case "infinite":
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown go argument " + tokens[i]);
+            }
+        }
+        if(moveTime > 0) {
+            builder.setTimeLimitMillis(Math.max(1, moveTime - MOVE_OVERHEAD_MILLIS));
+        } else if(time >= 0) {
+            final long available = Math.max(1, time - MOVE_OVERHEAD_MILLIS);
+            builder.setTimeLimitMillis(Math.max(1, Math.min(available, available / movesToGo + increment * 3 / 4)));
+        }
+        return builder.build();
+    }
+
+    private void startSearch(final SearchLimits limits, final boolean infinite) {
+        final Future<SearchResult> result = this.search.start(this.board, limits);
+        final CountDownLatch stopSignal = new CountDownLatch(infinite ? 1 : 0);
+        this.stopSignal = stopSignal;
+        this.searchThread = new Thread(() -> {
+            try {
+                final SearchResult searchResult = result.get();
+                stopSignal.await();
+                report(searchResult);
+            } catch(final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch(final ExecutionException e) {
+                send("info string search failed: " + e.getCause());
+                send("bestmove 0000");
+            }
+        }, "UCI search");
+        this.searchThread.start();
+    }
+
+    // Stops the running search, if any, and waits for it to send its bestmove
+    private void stopSearch() {
+        final Thread thread = this.searchThread;
+        if(thread == null) {
+            return;
+        }
+        this.search.stop();
+        this.stopSignal.countDown();
+        try {
+            thread.join();
+        } catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping the search", e);
+        }
+        this.searchThread = null;
+        this.stopSignal = null;
+    }
+
+    private void report(final SearchResult result) {
+        if(!result.isBookMove() && result.getDepth() > 0) {
+            final StringBuilder info = new StringBuilder("info depth ").append(result.getDepth()).append(" score ");
+            final int score = result.getScore();
+            if(result.isMateScore()) {
+                final int plies = Search.MATE_SCORE - Math.abs(score);
+                info.append("mate ").append(score > 0 ? (plies + 1) / 2 : -(plies / 2));
+            } else {
+                info.append("cp ").append(score);
+            }
+            info.append(" nodes ").append(result.getNodes()).append(" nps ").append(result.getNodesPerSecond())
+                .append(" time ").append(result.getElapsedMillis()).append(" pv");
+            for(final Move move : result.getPrincipalVariation()) {
+                info.append(' ').append(PackedMove.toString(PackedMove.encode(move)));
+            }
+            send(info.toString());
+        }
+        final Move bestMove = result.getBestMove();
+        send("bestmove " + (bestMove == Move.NULL_MOVE ? "0000" : PackedMove.toString(PackedMove.encode(bestMove))));
+    }
+
+    // The search thread and the command loop both write, one whole line at a time
+    private synchronized void send(final String line) {
+        this.output.println(line);
+        this.output.flush();
+    }
+
+    private static String argument(final String[] tokens, final int index) {
+        if(index >= tokens.length) {
+            throw new IllegalArgumentException(tokens[index - 1] + " needs a value");
+        }
+        return tokens[index];
+    }
+
+    private static int parseInt(final String value, final int min, final int max) {
+        try {
+            final int number = Integer.parseInt(value);
+            if(number < min || number > max) {
+                throw new IllegalArgumentException(value + " is not between " + min + " and " + max);
+            }
+            return number;
+        } catch(final NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+    }
+
+    private static long parseLong(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch(final NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+    }
+
+    private static boolean isNoFile(final String value) {
+        return value.isEmpty() || value.equals(NO_FILE);
+    }
+
+    private static void close(final Closeable closeable) {
+        if(closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch(final IOException e) {
+            // Nothing is left to do with a file that failed to close
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        new UciEngine(new PrintStream(System.out, false, "UTF-8")).run(input);
+    }
+}